@@ -26,6 +26,9 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
 
+    private static final List<String> IDENTITY_HEADERS =
+            List.of("X-User-Id", "X-User-Name", "X-User-Roles", "X-User-Status");
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -38,9 +41,14 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
 
+            // Identity headers are only ever set by this filter, never taken from the client
+            request = request.mutate()
+                    .headers(headers -> IDENTITY_HEADERS.forEach(headers::remove))
+                    .build();
+
             // Skip authentication for public endpoints
             if (isPublicEndpoint(request.getPath().toString())) {
-                return chain.filter(exchange);
+                return chain.filter(exchange.mutate().request(request).build());
             }
 
             // Check if Authorization header exists
@@ -64,12 +72,19 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                 // Extract user information and add to request headers
                 String username = jwtUtil.extractUsername(token);
                 List<String> roles = jwtUtil.extractRoles(token);
-
-                // Add user information to request headers for downstream services
-                ServerHttpRequest modifiedRequest = request.mutate()
-                        .header("X-User-Id", username)
-                        .header("X-User-Roles", String.join(",", roles))
-                        .build();
+                Long userId = jwtUtil.extractUserId(token);
+                String status = jwtUtil.extractStatus(token);
+
+                // Add user information to request headers for downstream services.
+                // Tokens issued before the uid claim existed fall back to the username.
+                ServerHttpRequest.Builder builder = request.mutate()
+                        .header("X-User-Id", userId != null ? userId.toString() : username)
+                        .header("X-User-Name", username)
+                        .header("X-User-Roles", String.join(",", roles));
+                if (status != null) {
+                    builder.header("X-User-Status", status);
+                }
+                ServerHttpRequest modifiedRequest = builder.build();
 
                 logger.debug("User {} authenticated successfully with roles: {}", username, roles);
 
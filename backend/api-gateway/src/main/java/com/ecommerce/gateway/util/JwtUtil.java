@@ -53,6 +53,15 @@ public class JwtUtil {
         return claims.get("roles", List.class);
     }
 
+    public Long extractUserId(String token) {
+        Number userId = extractClaim(token, claims -> claims.get("uid", Number.class));
+        return userId != null ? userId.longValue() : null;
+    }
+
+    public String extractStatus(String token) {
+        return extractClaim(token, claims -> claims.get("status", String.class));
+    }
+
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -0,0 +1,51 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Turns the failure of a Feign call into the exception its fallback throws.
+ */
+final class ClientFallbacks {
+
+    private ClientFallbacks() {
+    }
+
+    /**
+     * Maps a call that was refused or abandoned by the resilience decorators to ServiceUnavailableException,
+     * and passes any other failure on unchanged.
+     *
+     * @param client the Feign client name
+     * @param cause the failure
+     * @return the exception to throw
+     */
+    static RuntimeException failure(String client, Throwable cause) {
+        Throwable failure = cause;
+        while ((failure instanceof ExecutionException || failure instanceof CompletionException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+
+        if (failure instanceof CallNotPermittedException) {
+            return new ServiceUnavailableException(client + " circuit breaker is open", failure);
+        }
+        if (failure instanceof BulkheadFullException) {
+            return new ServiceUnavailableException(client + " has too many calls in flight", failure);
+        }
+        if (failure instanceof TimeoutException) {
+            return new ServiceUnavailableException(client + " did not answer in time", failure);
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return new ServiceUnavailableException(client + " call failed", failure);
+    }
+}
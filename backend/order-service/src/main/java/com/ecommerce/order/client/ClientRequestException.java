@@ -0,0 +1,12 @@
+package com.ecommerce.order.client;
+
+/**
+ * Exception thrown when another service rejects a request with a 4xx status.
+ * It says nothing about the health of that service, so it does not count towards its circuit breaker.
+ */
+public class ClientRequestException extends RuntimeException {
+
+    public ClientRequestException(String message) {
+        super(message);
+    }
+}
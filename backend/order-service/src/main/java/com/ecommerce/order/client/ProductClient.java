@@ -1,14 +1,18 @@
 package com.ecommerce.order.client;
 
+import com.ecommerce.order.dto.ProductBatchRequest;
 import com.ecommerce.order.dto.ProductResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Feign Client for Product Service
  * Handles all product-related operations from Order Service
+ * Calls go through the product-service circuit breaker, bulkhead and time limiter
  */
-@FeignClient(name = "product-service")
+@FeignClient(name = "product-service", fallbackFactory = ProductClientFallbackFactory.class)
 public interface ProductClient {
 
     /**
@@ -19,6 +23,14 @@ public interface ProductClient {
     @GetMapping("/api/products/{id}")
     ProductResponse getProduct(@PathVariable("id") Long id);
 
+    /**
+     * Get details of many products in one call
+     * @param request Product IDs (at most 1000)
+     * @return Details of the products found, in request order; unknown IDs are left out
+     */
+    @PostMapping("/api/products/batch")
+    List<ProductResponse> getProducts(@RequestBody ProductBatchRequest request);
+
     /**
      * Check if product has sufficient stock
      * @param id Product ID
@@ -35,21 +47,25 @@ public interface ProductClient {
      * Reduce product inventory (called when order is placed)
      * @param id Product ID
      * @param amount Amount to reduce
+     * @param reservationKey Key that makes retries apply the reduction once, or null
      */
     @PatchMapping("/api/products/{id}/reduce-inventory")
     void reduceInventory(
         @PathVariable("id") Long id, 
-        @RequestParam("amount") Integer amount
+        @RequestParam("amount") Integer amount,
+        @RequestParam(value = "reservationKey", required = false) String reservationKey
     );
 
     /**
      * Restore product inventory (called when order is cancelled)
      * @param id Product ID
      * @param quantity Quantity to restore
+     * @param reservationKey Key of the reservation to release at most once, or null
      */
     @PutMapping("/api/products/{id}/restore-inventory")
     void restoreInventory(
         @PathVariable("id") Long id, 
-        @RequestParam("quantity") Integer quantity
+        @RequestParam("quantity") Integer quantity,
+        @RequestParam(value = "reservationKey", required = false) String reservationKey
     );
 }
\ No newline at end of file
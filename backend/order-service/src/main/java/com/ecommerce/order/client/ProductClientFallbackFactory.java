@@ -0,0 +1,47 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.dto.ProductBatchRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fallback of ProductClient. Fails fast instead of substituting data: a product, its price or its stock
+ * cannot be guessed, and callers already retry or reject the order.
+ */
+@Component
+public class ProductClientFallbackFactory implements FallbackFactory<ProductClient> {
+
+    @Override
+    public ProductClient create(Throwable cause) {
+        RuntimeException failure = ClientFallbacks.failure("product-service", cause);
+        return new ProductClient() {
+            @Override
+            public ProductResponse getProduct(Long id) {
+                throw failure;
+            }
+
+            @Override
+            public List<ProductResponse> getProducts(ProductBatchRequest request) {
+                throw failure;
+            }
+
+            @Override
+            public Boolean checkStock(Long id, Integer quantity) {
+                throw failure;
+            }
+
+            @Override
+            public void reduceInventory(Long id, Integer amount, String reservationKey) {
+                throw failure;
+            }
+
+            @Override
+            public void restoreInventory(Long id, Integer quantity, String reservationKey) {
+                throw failure;
+            }
+        };
+    }
+}
@@ -0,0 +1,201 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.dto.ProductBatchRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches concurrent product lookups into calls of ProductClient#getProducts.
+ * Lookups made by all requests within a short window are collected, deduplicated and sent together once
+ * the window closes or the batch is full; every caller then gets its product from the shared answer.
+ * Batches are sent from the product loader executor without the callers' request headers, like the
+ * lookups of the intake worker, and an interrupted caller only stops waiting for its own product.
+ * Windows are timed by a dedicated scheduler thread that only hands batches over, so sends that block
+ * on a slow Product Service never delay the closing of other windows. A batch the executor rejects
+ * fails all of its lookups with ServiceUnavailableException.
+ */
+@Component
+@Slf4j
+public class ProductLoader {
+
+    // The Product Service accepts up to this many IDs per batch request
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final ProductClient productClient;
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor windowTimer;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+
+    private final Object lock = new Object();
+    private Batch pending;
+
+    public ProductLoader(ProductClient productClient,
+                         @Qualifier("productLoaderExecutor") ExecutorService executor,
+                         MeterRegistry meterRegistry,
+                         @Value("${application.order.product-batching.enabled:true}") boolean enabled,
+                         @Value("${application.order.product-batching.window-ms:2}") long windowMs,
+                         @Value("${application.order.product-batching.max-batch-size:100}") int maxBatchSize) {
+        this.productClient = productClient;
+        this.executor = executor;
+        // Not a bean: a ScheduledExecutorService bean would replace the scheduler of @Scheduled methods
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-loader-window-");
+        threadFactory.setDaemon(true);
+        this.windowTimer = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.windowTimer.setRemoveOnCancelPolicy(true);
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_BATCH_SIZE));
+        this.batchSize = DistributionSummary.builder("orders.product.batch.size")
+                .description("Distinct products per batched product lookup")
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("orders.product.batch.wait")
+                .description("Time a batched product lookup waits for its batch to be sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up a product, batched with the concurrent lookups of other callers.
+     *
+     * @param productId the product ID
+     * @return the product
+     * @throws ResourceNotFoundException if the product does not exist
+     */
+    public ProductResponse getProduct(Long productId) {
+        if (!enabled) {
+            return productClient.getProduct(productId);
+        }
+        try {
+            return load(productId).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Product lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up product " + productId, e);
+        }
+    }
+
+    /**
+     * Adds a product to the pending batch.
+     *
+     * @param productId the product ID
+     * @return the product once its batch is answered, or ResourceNotFoundException if it does not exist
+     */
+    public CompletableFuture<ProductResponse> load(Long productId) {
+        Batch batch;
+        CompletableFuture<ProductResponse> product;
+        boolean opened;
+        boolean full;
+        synchronized (lock) {
+            opened = pending == null;
+            if (opened) {
+                pending = new Batch();
+            }
+            batch = pending;
+            product = batch.products.computeIfAbsent(productId, id -> new CompletableFuture<>());
+            full = batch.products.size() >= maxBatchSize;
+            if (full) {
+                pending = null;
+            }
+        }
+
+        if (full) {
+            dispatch(batch);
+        } else if (opened) {
+            try {
+                windowTimer.schedule(() -> closeWindow(batch), windowNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                closeWindow(batch);
+            }
+        }
+        return product;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        windowTimer.shutdownNow();
+    }
+
+    private void closeWindow(Batch batch) {
+        synchronized (lock) {
+            // Already sent by the lookup that filled it
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        try {
+            executor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejected batched lookup of {} products, the product loader executor is saturated",
+                    batch.products.size());
+            ServiceUnavailableException failure =
+                    new ServiceUnavailableException("product loader executor is saturated", e);
+            batch.products.values().forEach(product -> product.completeExceptionally(failure));
+        }
+    }
+
+    private void send(Batch batch) {
+        batchWait.record(System.nanoTime() - batch.openedAt, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.products.size());
+
+        Map<Long, ProductResponse> found = new HashMap<>(batch.products.size() * 2);
+        try {
+            productClient.getProducts(new ProductBatchRequest(new ArrayList<>(batch.products.keySet())))
+                    .forEach(product -> found.put(product.getId(), product));
+        } catch (RuntimeException e) {
+            log.warn("Batched lookup of {} products failed: {}", batch.products.size(), e.getMessage());
+            batch.products.values().forEach(product -> product.completeExceptionally(e));
+            return;
+        }
+
+        batch.products.forEach((productId, product) -> {
+            ProductResponse response = found.get(productId);
+            if (response != null) {
+                product.complete(response);
+            } else {
+                product.completeExceptionally(new ResourceNotFoundException("Product", "id", productId));
+            }
+        });
+    }
+
+    /**
+     * Lookups collected in one window, keyed by product ID in order of arrival.
+     */
+    private static final class Batch {
+
+        private final Map<Long, CompletableFuture<ProductResponse>> products = new LinkedHashMap<>();
+        private final long openedAt = System.nanoTime();
+    }
+}
@@ -7,8 +7,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 /**
  * Feign client for communicating with User Service.
+ * Calls go through the user-service circuit breaker, bulkhead and time limiter.
  */
-@FeignClient(name = "user-service")
+@FeignClient(name = "user-service", fallbackFactory = UserClientFallbackFactory.class)
 public interface UserClient {
 
     /**
@@ -0,0 +1,20 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.dto.UserResponse;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fallback of UserClient. Fails fast, so an unreachable User Service is not mistaken for an unknown user.
+ */
+@Component
+public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
+
+    @Override
+    public UserClient create(Throwable cause) {
+        RuntimeException failure = ClientFallbacks.failure("user-service", cause);
+        return id -> {
+            throw failure;
+        };
+    }
+}
@@ -1,9 +1,17 @@
 package com.ecommerce.order.config;
 
+import com.ecommerce.order.client.ClientRequestException;
 import feign.Logger;
 import feign.RequestInterceptor;
 import feign.codec.ErrorDecoder;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.cloud.openfeign.FeignLoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -11,18 +19,39 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
  * Configuration for Feign clients.
- * Handles logging, error decoding, and request interceptors.
+ * Handles logging, connection pool metrics, error decoding, request interceptors, and circuit breaker naming.
  */
 @Configuration
 @Slf4j
 public class FeignConfig {
 
     /**
-     * Configures Feign logging level.
+     * Configures Feign logging level for calls that are not sampled and did not fail.
      */
     @Bean
     public Logger.Level feignLoggerLevel() {
-        return Logger.Level.FULL;
+        return Logger.Level.BASIC;
+    }
+
+    /**
+     * Logs failed calls and a sample of the others with headers and bodies.
+     */
+    @Bean
+    public FeignLoggerFactory feignLoggerFactory(
+            @Value("${application.order.feign.log-sample-rate:0.01}") double logSampleRate) {
+        return type -> new SamplingFeignLogger(type, logSampleRate);
+    }
+
+    /**
+     * Exports the size and use of the pooled HTTP connections shared by the Feign clients.
+     */
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(HttpClientConnectionManager connectionManager) {
+        return registry -> {
+            if (connectionManager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
     }
 
     /**
@@ -33,8 +62,18 @@ public class FeignConfig {
         return new CustomErrorDecoder();
     }
 
+    /**
+     * Names the circuit breaker, bulkhead and time limiter of every call after its Feign client,
+     * so each downstream service gets one of each, configured under resilience4j.*.instances.
+     */
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
     /**
      * Request interceptor to propagate headers across services.
+     * Calls run on bulkhead threads, which get the caller's request attributes from RequestContextPropagator.
      */
     @Bean
     public RequestInterceptor requestInterceptor() {
@@ -81,8 +120,8 @@ public class FeignConfig {
                     methodKey, response.status(), response.reason());
 
             return switch (response.status()) {
-                case 404 -> new RuntimeException("Resource not found: " + methodKey);
-                case 400 -> new RuntimeException("Bad request: " + methodKey);
+                case 404 -> new ClientRequestException("Resource not found: " + methodKey);
+                case 400 -> new ClientRequestException("Bad request: " + methodKey);
                 case 503 -> new RuntimeException("Service unavailable: " + methodKey);
                 default -> defaultErrorDecoder.decode(methodKey, response);
             };
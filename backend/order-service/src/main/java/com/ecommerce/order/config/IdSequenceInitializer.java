@@ -0,0 +1,47 @@
+package com.ecommerce.order.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the order ID sequences past IDs assigned before orders used sequences.
+ * Orders and items used to take identity column values, and the schema update creates their new
+ * sequences starting at 1. Depends on the entity manager factory, so it runs once the schema update
+ * has created them and before requests are served; a sequence that is already ahead of its table is
+ * left alone, so restarts and other instances are no-ops.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class IdSequenceInitializer implements InitializingBean {
+
+    // Table -> sequence; the pooled optimizer hands out the 50 IDs below each sequence value
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders", "orders_seq",
+            "order_items", "order_items_seq");
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        SEQUENCES.forEach((table, sequence) -> {
+            Long next = jdbcTemplate.query(
+                    "SELECT setval('" + sequence + "', MAX(id) + " + ALLOCATION_SIZE + ", false) FROM " + table +
+                    " HAVING MAX(id) >= (SELECT last_value FROM " + sequence + ")",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (next != null) {
+                log.info("Moved sequence {} past the existing IDs of {} to {}", sequence, table, next);
+            }
+        });
+    }
+}
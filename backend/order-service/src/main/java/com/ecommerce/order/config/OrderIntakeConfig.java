@@ -0,0 +1,37 @@
+package com.ecommerce.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for asynchronous order intake.
+ */
+@Configuration
+@EnableScheduling
+public class OrderIntakeConfig {
+
+    /**
+     * Worker pool that validates batches of queued orders.
+     * The dispatcher never hands out more batches than there are workers.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderIntakeExecutor(
+            @Value("${application.order.intake.workers:4}") int workers) {
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-intake-");
+        threadFactory.setDaemon(true);
+
+        return new ThreadPoolExecutor(
+                workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for the executors that run order validation calls concurrently and send batched product lookups.
+ */
+@Configuration
+public class OrderValidationConfig {
+
+    /**
+     * Bounded pool for user and product validation calls.
+     * When the pool and its queue are full new calls are rejected and the order fails fast with 503,
+     * like a full bulkhead, instead of tying up the request thread.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService orderValidationExecutor(
+            @Value("${application.order.validation.pool-size:32}") int poolSize,
+            @Value("${application.order.validation.queue-capacity:256}") int queueCapacity) {
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-validation-");
+        threadFactory.setDaemon(true);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Bounded pool that sends batched product lookups; the batching window is timed by ProductLoader itself.
+     * When the pool and its queue are full a batch is rejected and its lookups fail fast with 503,
+     * so batches are never sent from a caller's thread and never pile up behind a slow Product Service.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService productLoaderExecutor(
+            @Value("${application.order.product-batching.pool-size:16}") int poolSize,
+            @Value("${application.order.product-batching.queue-capacity:64}") int queueCapacity) {
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-loader-");
+        threadFactory.setDaemon(true);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.order.config;
+
+import io.github.resilience4j.core.ContextPropagator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hands the caller's request attributes to the thread-pool bulkhead thread that runs a Feign call,
+ * so the request interceptor can still propagate the caller's headers.
+ * Registered by class name under resilience4j.thread-pool-bulkhead.configs.default.context-propagators.
+ */
+public class RequestContextPropagator implements ContextPropagator<RequestAttributes> {
+
+    @Override
+    public Supplier<Optional<RequestAttributes>> retrieve() {
+        return () -> Optional.ofNullable(RequestContextHolder.getRequestAttributes());
+    }
+
+    @Override
+    public Consumer<Optional<RequestAttributes>> copy() {
+        return attributes -> attributes.ifPresent(RequestContextHolder::setRequestAttributes);
+    }
+
+    @Override
+    public Consumer<Optional<RequestAttributes>> clear() {
+        return attributes -> attributes.ifPresent(ignored -> RequestContextHolder.resetRequestAttributes());
+    }
+}
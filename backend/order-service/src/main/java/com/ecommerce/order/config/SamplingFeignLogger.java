@@ -0,0 +1,56 @@
+package com.ecommerce.order.config;
+
+import feign.Request;
+import feign.Response;
+import feign.slf4j.Slf4jLogger;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Feign logger that logs headers and bodies only for failed calls and a sample of the others.
+ * The other calls are logged at the configured level, so their response bodies are not buffered.
+ */
+public class SamplingFeignLogger extends Slf4jLogger {
+
+    private final double sampleRate;
+
+    // Set when a request is logged and read when its response is, on the same thread
+    private final ThreadLocal<Boolean> sampled = new ThreadLocal<>();
+
+    public SamplingFeignLogger(Class<?> type, double sampleRate) {
+        super(type);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void logRequest(String configKey, Level logLevel, Request request) {
+        boolean full = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        sampled.set(full);
+        super.logRequest(configKey, full ? Level.FULL : logLevel, request);
+    }
+
+    @Override
+    protected Response logAndRebufferResponse(String configKey, Level logLevel, Response response,
+                                              long elapsedTime) throws IOException {
+        boolean full = Boolean.TRUE.equals(sampled.get());
+        sampled.remove();
+        if (full) {
+            return super.logAndRebufferResponse(configKey, Level.FULL, response, elapsedTime);
+        }
+        if (response.status() >= 400) {
+            // The request was logged without its body; log it in full now that it failed
+            if (response.request() != null) {
+                super.logRequest(configKey, Level.FULL, response.request());
+            }
+            return super.logAndRebufferResponse(configKey, Level.FULL, response, elapsedTime);
+        }
+        return super.logAndRebufferResponse(configKey, logLevel, response, elapsedTime);
+    }
+
+    @Override
+    protected IOException logIOException(String configKey, Level logLevel, IOException ioe, long elapsedTime) {
+        sampled.remove();
+        return super.logIOException(configKey, Level.FULL, ioe, elapsedTime);
+    }
+}
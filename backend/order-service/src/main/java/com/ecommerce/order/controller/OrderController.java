@@ -1,23 +1,41 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.dto.OrderFilter;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderStatsResponse;
+import com.ecommerce.order.dto.OrderStatusResponse;
+import com.ecommerce.order.dto.OrderSummaryPageResponse;
+import com.ecommerce.order.dto.OrderSummaryResponse;
 import com.ecommerce.order.dto.PaymentRequest;
 import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.RollupGranularity;
 import com.ecommerce.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -27,31 +45,73 @@ import java.util.List;
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 @Slf4j
+@Validated
 @Tag(name = "Order Management", description = "APIs for managing orders")
 @SecurityRequirement(name = "bearerAuth")
 public class OrderController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final OrderService orderService;
 
+    @Value("${application.order.intake.async-enabled:false}")
+    private boolean asyncIntake;
+
     @PostMapping
     @Operation(summary = "Create a new order", description = "Creates a new order for the authenticated user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order created successfully"),
+            @ApiResponse(responseCode = "202", description = "Order accepted for validation (async intake)"),
             @ApiResponse(responseCode = "400", description = "Invalid order request"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
-            @ApiResponse(responseCode = "409", description = "Insufficient stock")
+            @ApiResponse(responseCode = "409", description = "Insufficient stock, or a request with the same Idempotency-Key is still running"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request"),
+            @ApiResponse(responseCode = "503", description = "Order intake queue is full")
     })
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+            description = "Client-generated key; repeating the request with it returns the original response")
     public ResponseEntity<OrderResponse> createOrder(
             @Parameter(description = "User ID from authentication token", required = true)
             @RequestHeader("X-User-Id") Long userId,
             @Parameter(description = "Order creation request", required = true)
             @Valid @RequestBody OrderRequest orderRequest) {
 
+        if (asyncIntake) {
+            log.info("Accepting order for user ID: {}", userId);
+            OrderResponse orderResponse = orderService.submitOrder(userId, orderRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + orderResponse.getId() + "/status"))
+                    .body(orderResponse);
+        }
+
         log.info("Creating order for user ID: {}", userId);
         OrderResponse orderResponse = orderService.createOrder(userId, orderRequest);
         return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
     }
 
+    @GetMapping("/{orderId}/status")
+    @Operation(summary = "Get order status", description = "Polls the status of an order, e.g. while it is being validated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Order status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "403", description = "Not authorized to access this order")
+    })
+    public ResponseEntity<OrderStatusResponse> getOrderStatus(
+            @Parameter(description = "Order ID", required = true)
+            @PathVariable Long orderId,
+            @Parameter(description = "User ID from authentication token", required = true)
+            @RequestHeader("X-User-Id") Long userId) {
+
+        OrderStatusResponse statusResponse = orderService.getOrderStatus(orderId, userId);
+        if (statusResponse.getStatus() == OrderStatus.PENDING_VALIDATION) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(statusResponse);
+        }
+        return ResponseEntity.ok(statusResponse);
+    }
+
     @GetMapping("/{orderId}")
     @Operation(summary = "Get order by ID", description = "Retrieves order details by ID")
     @ApiResponses(value = {
@@ -71,34 +131,132 @@ public class OrderController {
     }
 
     @GetMapping("/user")
-    @Operation(summary = "Get user orders", description = "Retrieves all orders for the authenticated user")
+    @Operation(summary = "Get user orders",
+            description = "Retrieves the orders of the authenticated user, newest first. When more orders exist, " +
+                    "the X-Next-Cursor response header holds the cursor of the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
     })
     public ResponseEntity<List<OrderResponse>> getUserOrders(
             @Parameter(description = "User ID from authentication token", required = true)
-            @RequestHeader("X-User-Id") Long userId) {
+            @RequestHeader("X-User-Id") Long userId,
+            @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "100") @Min(1) @Max(100) Integer limit) {
+
+        log.info("Fetching orders for user ID: {}", userId);
+        OrderPageResponse page = orderService.getUserOrders(userId, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getOrders());
+    }
+
+    @GetMapping("/user/summaries")
+    @Operation(summary = "Get user order summaries",
+            description = "Retrieves one list-view row per order of the authenticated user, newest first. " +
+                    "Full order details are available from GET /api/orders/{orderId}. When more orders exist, " +
+                    "the X-Next-Cursor response header holds the cursor of the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Order summaries retrieved successfully")
+    })
+    public ResponseEntity<List<OrderSummaryResponse>> getUserOrderSummaries(
+            @Parameter(description = "User ID from authentication token", required = true)
+            @RequestHeader("X-User-Id") Long userId,
+            @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit) {
 
-        log.info("Fetching all orders for user ID: {}", userId);
-        List<OrderResponse> orders = orderService.getUserOrders(userId);
-        return ResponseEntity.ok(orders);
+        log.info("Fetching order summaries for user ID: {}", userId);
+        OrderSummaryPageResponse page = orderService.getUserOrderSummaries(userId, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getSummaries());
     }
 
     @GetMapping
-    @Operation(summary = "Get all orders (Admin only)", description = "Retrieves all orders in the system")
+    @Operation(summary = "Get all orders (Admin only)",
+            description = "Retrieves one page of orders, newest first, optionally filtered by status, user and " +
+                    "creation time. Uses keyset pagination: pass the returned nextCursor to get the following page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or cursor"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    public ResponseEntity<List<OrderResponse>> getAllOrders(
+    public ResponseEntity<OrderPageResponse> getAllOrders(
+            @Parameter(description = "Order status") @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "User ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Created at or after (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Created before (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit,
             @Parameter(description = "User role from authentication token")
             @RequestHeader(value = "X-User-Role", required = false) String userRole) {
 
-        log.info("Fetching all orders (Admin access)");
+        log.info("Fetching orders (Admin access)");
         // In a real application, you would check the user role here
         // For now, we'll allow the request to proceed
-        List<OrderResponse> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+        OrderFilter filter = OrderFilter.builder()
+                .status(status)
+                .userId(userId)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+        return ResponseEntity.ok(orderService.getOrders(filter, cursor, limit));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export orders (Admin only)",
+            description = "Streams all orders matching the filters as newline-delimited JSON, one order per line, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders streamed successfully"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Order status") @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "User ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Created at or after (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Created before (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+
+        log.info("Exporting orders (Admin access)");
+        OrderFilter filter = OrderFilter.builder()
+                .status(status)
+                .userId(userId)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+        StreamingResponseBody body = outputStream -> orderService.exportOrders(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get order volume and revenue (Admin only)",
+            description = "Returns order counts by status, revenue and average order value of the orders created in " +
+                    "a time range, in total and per minute, hour or day. Answered from rollups maintained as orders " +
+                    "change status, which trail live orders by up to the rollup flush interval.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stats retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid range, or too many buckets for the granularity"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<OrderStatsResponse> getOrderStats(
+            @Parameter(description = "Bucket size") @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @Parameter(description = "Created at or after (ISO date-time)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before (ISO date-time)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        log.info("Fetching {} order stats (Admin access)", granularity);
+        return ResponseEntity.ok(orderService.getOrderStats(granularity, from, to));
     }
 
     @PutMapping("/{orderId}/status")
@@ -142,10 +300,15 @@ public class OrderController {
     @Operation(summary = "Process payment", description = "Processes payment for an order")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Payment processed successfully"),
+            @ApiResponse(responseCode = "202", description = "Payment in progress, a step is being retried"),
             @ApiResponse(responseCode = "400", description = "Invalid payment request"),
             @ApiResponse(responseCode = "402", description = "Payment failed"),
-            @ApiResponse(responseCode = "404", description = "Order not found")
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still running"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
     })
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+            description = "Client-generated key; repeating the request with it returns the original response")
     public ResponseEntity<OrderResponse> processPayment(
             @Parameter(description = "Order ID", required = true)
             @PathVariable Long orderId,
@@ -154,22 +317,40 @@ public class OrderController {
 
         log.info("Processing payment for order {}", orderId);
         OrderResponse orderResponse = orderService.processPayment(orderId, paymentRequest);
+        if (orderResponse.getStatus() != OrderStatus.CONFIRMED) {
+            // A step is waiting for a retry; the order is confirmed or the payment fails later
+            return ResponseEntity.accepted().body(orderResponse);
+        }
         return ResponseEntity.ok(orderResponse);
     }
 
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get orders by status (Admin only)", description = "Retrieves all orders with a specific status")
+    @Operation(summary = "Get orders by status (Admin only)",
+            description = "Retrieves one page of orders with a specific status, newest first. Uses keyset pagination: " +
+                    "pass the returned nextCursor to get the following page. With countOnly=true only the number " +
+                    "of orders is returned, read from maintained counters instead of counting rows.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(
+    public ResponseEntity<OrderPageResponse> getOrdersByStatus(
             @Parameter(description = "Order status", required = true)
-            @PathVariable OrderStatus status) {
+            @PathVariable OrderStatus status,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit,
+            @Parameter(description = "Return only the number of orders") @RequestParam(defaultValue = "false") boolean countOnly) {
 
-        log.info("Fetching orders with status: {}", status);
         // This would typically be restricted to admin users
         // For simplicity, we're not implementing full authorization logic here
-        return ResponseEntity.ok(List.of());
+        if (countOnly) {
+            log.info("Counting orders with status: {}", status);
+            return ResponseEntity.ok(OrderPageResponse.builder()
+                    .count(orderService.countOrdersByStatus(status))
+                    .build());
+        }
+
+        log.info("Fetching orders with status: {}", status);
+        return ResponseEntity.ok(orderService.getOrdersByStatus(status, cursor, limit));
     }
 }
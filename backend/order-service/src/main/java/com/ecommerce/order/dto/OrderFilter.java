@@ -0,0 +1,32 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the admin order listing; null fields are not filtered on.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFilter {
+
+    private OrderStatus status;
+    private Long userId;
+
+    /**
+     * Inclusive lower bound of the creation time.
+     */
+    private LocalDateTime createdFrom;
+
+    /**
+     * Exclusive upper bound of the creation time.
+     */
+    private LocalDateTime createdTo;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for keyset-paginated order listings.
+ * nextCursor is null on the last page. count is only set for count-only requests, which omit orders.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponse {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<OrderResponse> orders;
+
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long count;
+}
@@ -24,6 +24,7 @@ public class OrderResponse {
     private List<OrderItemResponse> orderItems;
     private BigDecimal totalAmount;
     private OrderStatus status;
+    private String rejectionReason;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
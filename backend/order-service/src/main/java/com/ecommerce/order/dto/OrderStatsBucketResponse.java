@@ -0,0 +1,29 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO for the volume and revenue of the orders created in one time bucket.
+ * Revenue and average order value cover the paid orders only.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsBucketResponse {
+
+    private LocalDateTime bucketStart;
+    private long orderCount;
+    private long paidOrderCount;
+    private BigDecimal revenue;
+    private BigDecimal averageOrderValue;
+    private Map<OrderStatus, Long> ordersByStatus;
+}
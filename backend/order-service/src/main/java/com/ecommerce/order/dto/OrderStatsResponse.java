@@ -0,0 +1,27 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for order volume and revenue over a time range, in total and per bucket.
+ * Buckets without orders are omitted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsResponse {
+
+    private RollupGranularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private OrderStatsBucketResponse totals;
+    private List<OrderStatsBucketResponse> buckets;
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for polling the status of an order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResponse {
+
+    private Long id;
+    private OrderStatus status;
+    private String rejectionReason;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for keyset-paginated order summaries.
+ * nextCursor is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryPageResponse {
+
+    private List<OrderSummaryResponse> summaries;
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one row of an order list view.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private Long id;
+    private OrderStatus status;
+    private int itemCount;
+    private BigDecimal totalAmount;
+    private String firstItemName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
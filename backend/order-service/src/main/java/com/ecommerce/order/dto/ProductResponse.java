@@ -1,5 +1,6 @@
 package com.ecommerce.order.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,7 @@ public class ProductResponse {
     private String name;
     private String description;
     private BigDecimal price;
+    @JsonAlias("quantity")
     private Integer stockQuantity;
     private String category;
 }
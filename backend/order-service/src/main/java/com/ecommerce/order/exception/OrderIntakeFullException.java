@@ -0,0 +1,11 @@
+package com.ecommerce.order.exception;
+
+/**
+ * Exception thrown when the order intake queue is full and new orders have to be retried later.
+ */
+public class OrderIntakeFullException extends RuntimeException {
+
+    public OrderIntakeFullException(long depth) {
+        super(String.format("Order intake is at capacity with %d orders waiting. Please retry later", depth));
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.order.exception;
+
+/**
+ * Exception thrown when the user and product checks of an order do not finish before the deadline.
+ */
+public class OrderValidationTimeoutException extends RuntimeException {
+
+    public OrderValidationTimeoutException(long deadlineMs) {
+        super(String.format("Order validation did not complete within %d ms", deadlineMs));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.order.exception;
+
+/**
+ * Exception thrown when a call to another service fails fast: its circuit breaker is open, its bulkhead
+ * or the executor that would run it is full, or it did not answer within its time limit.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super("Service unavailable: " + message, cause);
+    }
+}
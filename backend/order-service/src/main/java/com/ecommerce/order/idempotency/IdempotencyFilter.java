@@ -0,0 +1,259 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.order.exception.ErrorResponse;
+import com.ecommerce.order.model.IdempotencyRecord;
+import com.ecommerce.order.model.IdempotencyStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Makes order creation and payment safe to retry with an Idempotency-Key header.
+ * The first request with a key is executed and its response stored; repeating the request with the
+ * same key returns the stored response without executing it again. A duplicate that arrives while
+ * the first request is still running waits for its response. Reusing a key for a different request
+ * is rejected with 422. Responses with a 5xx status are not stored, so such requests can be retried.
+ * Keys are scoped to the calling user and the endpoint.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern IDEMPOTENT_PATHS = Pattern.compile("/api/orders(/\\d+/payment)?/?");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.order.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.order.idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !IDEMPOTENT_PATHS.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String userId = Optional.ofNullable(request.getHeader("X-User-Id")).orElse("");
+        String keyHash = digest(userId, request.getRequestURI(), key);
+        String requestHash = digest(cachedRequest.body);
+
+        String ownerToken = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + waitMs;
+        while (true) {
+            Optional<IdempotencyRecord> existing = idempotencyStore.begin(keyHash, requestHash, ownerToken);
+            if (existing.isEmpty()) {
+                execute(cachedRequest, response, filterChain, keyHash, ownerToken);
+                return;
+            }
+
+            IdempotencyRecord record = existing.get();
+            if (!record.getRequestHash().equals(requestHash)) {
+                writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+                return;
+            }
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                replay(record, response);
+                return;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(request, response, HttpStatus.CONFLICT,
+                        "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+                return;
+            }
+            try {
+                idempotencyStore.await(keyHash, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for a duplicate request", e);
+            }
+        }
+    }
+
+    private void execute(HttpServletRequest request,
+                         HttpServletResponse response,
+                         FilterChain filterChain,
+                         String keyHash,
+                         String ownerToken) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (status < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                idempotencyStore.complete(keyHash, ownerToken, status, cachingResponse.getContentType(),
+                        cachingResponse.getHeader(HttpHeaders.LOCATION), cachingResponse.getContentAsByteArray());
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(keyHash, ownerToken);
+            }
+            idempotencyStore.finish(keyHash, ownerToken);
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.getResponseStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getResponseContentType() != null) {
+            response.setContentType(record.getResponseContentType());
+        }
+        if (record.getResponseLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.getResponseLocation());
+        }
+        byte[] body = record.getResponseBody();
+        if (body != null && body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private void writeError(HttpServletRequest request,
+                            HttpServletResponse response,
+                            HttpStatus status,
+                            String message) throws IOException {
+        log.warn("Rejected idempotent request to {}: {}", request.getRequestURI(), message);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static String digest(String... parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    private static String digest(byte[] body) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256().digest(body));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request whose body has been read up front so it can be hashed and then read again by the controller.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.order.model.IdempotencyRecord;
+import com.ecommerce.order.model.IdempotencyStatus;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store of requests made with an Idempotency-Key, backed by the idempotency_keys table.
+ * The first request with a key inserts an in-progress record and executes; duplicates find the
+ * record and wait for its response. Duplicates arriving at this instance are woken up as soon as the
+ * execution finishes, duplicates at other instances poll the table.
+ * Each execution holds a lease under its own owner token. The lease is renewed while the execution
+ * runs, so only executions whose instance stopped are taken over, and storing or releasing the record
+ * only succeeds while the token still owns it.
+ * Records are kept for the TTL and then deleted by a background cleanup.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final Map<String, Execution> executions = new ConcurrentHashMap<>();
+
+    @Value("${application.order.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${application.order.idempotency.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${application.order.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Value("${application.order.idempotency.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository) {
+        this.recordRepository = recordRepository;
+    }
+
+    /**
+     * Starts the execution of a request unless the key is already taken.
+     *
+     * @param keyHash the key digest.
+     * @param requestHash the request digest.
+     * @param ownerToken the token the execution is started under, unique per attempt.
+     * @return empty if the caller now owns the execution, otherwise the existing record.
+     */
+    @Transactional
+    public Optional<IdempotencyRecord> begin(String keyHash, String requestHash, String ownerToken) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime lockedUntil = now.plus(leaseMs, ChronoUnit.MILLIS);
+            if (recordRepository.insertIfAbsent(keyHash, requestHash, ownerToken, lockedUntil,
+                    now.plus(ttlMs, ChronoUnit.MILLIS)) == 1) {
+                executions.put(keyHash, new Execution(ownerToken));
+                return Optional.empty();
+            }
+
+            Optional<IdempotencyRecord> existing = recordRepository.findById(keyHash);
+            if (existing.isEmpty()) {
+                // Released or expired in the meantime
+                continue;
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                recordRepository.delete(record);
+                recordRepository.flush();
+                continue;
+            }
+            if (recordRepository.takeOver(keyHash, requestHash, ownerToken,
+                    IdempotencyStatus.IN_PROGRESS, now, lockedUntil) == 1) {
+                log.warn("Taking over abandoned execution of idempotency key {}", keyHash);
+                Execution abandoned = executions.put(keyHash, new Execution(ownerToken));
+                if (abandoned != null) {
+                    abandoned.done.countDown();
+                }
+                return Optional.empty();
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Stores the response of an execution, which is replayed for every later request with the key.
+     *
+     * @param keyHash the key digest.
+     * @param ownerToken the token of the execution.
+     * @param status the HTTP status.
+     * @param contentType the content type, if any.
+     * @param location the Location header, if any.
+     * @param body the response body.
+     * @return false if the execution had lost its lease and the response was not stored.
+     */
+    @Transactional
+    public boolean complete(String keyHash, String ownerToken, int status, String contentType, String location, byte[] body) {
+        if (recordRepository.complete(keyHash, ownerToken, status, contentType, location, body) == 1) {
+            return true;
+        }
+        log.warn("Execution of idempotency key {} lost its lease, its response is not stored", keyHash);
+        return false;
+    }
+
+    /**
+     * Forgets an execution that did not produce a response worth replaying, so the request can be retried.
+     * Does nothing if another execution has taken the key over.
+     *
+     * @param keyHash the key digest.
+     * @param ownerToken the token of the execution.
+     */
+    @Transactional
+    public void release(String keyHash, String ownerToken) {
+        recordRepository.deleteOwned(keyHash, ownerToken, IdempotencyStatus.IN_PROGRESS);
+    }
+
+    /**
+     * Stops renewing the lease and wakes up duplicates waiting at this instance.
+     * Called after complete or release has committed.
+     *
+     * @param keyHash the key digest.
+     * @param ownerToken the token of the execution.
+     */
+    public void finish(String keyHash, String ownerToken) {
+        Execution execution = executions.get(keyHash);
+        if (execution != null && execution.ownerToken.equals(ownerToken) && executions.remove(keyHash, execution)) {
+            execution.done.countDown();
+        }
+    }
+
+    /**
+     * Waits until an execution at this instance finishes or, for executions elsewhere, one poll interval.
+     *
+     * @param keyHash the key digest.
+     * @param timeoutMs the maximum time to wait.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public void await(String keyHash, long timeoutMs) throws InterruptedException {
+        Execution execution = executions.get(keyHash);
+        if (execution != null) {
+            execution.done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } else {
+            Thread.sleep(Math.min(timeoutMs, pollIntervalMs));
+        }
+    }
+
+    /**
+     * Renews the leases of the executions running at this instance, well before they run out.
+     */
+    @Scheduled(fixedDelayString = "${application.order.idempotency.heartbeat-interval-ms:20000}")
+    @Transactional
+    public void renewLeases() {
+        if (executions.isEmpty()) {
+            return;
+        }
+        List<String> ownerTokens = executions.values().stream().map(execution -> execution.ownerToken).toList();
+        int renewed = recordRepository.renewLeases(ownerTokens, IdempotencyStatus.IN_PROGRESS,
+                LocalDateTime.now().plus(leaseMs, ChronoUnit.MILLIS));
+        if (renewed < ownerTokens.size()) {
+            log.debug("Renewed {} of {} idempotency leases", renewed, ownerTokens.size());
+        }
+    }
+
+    /**
+     * Deletes expired records in batches.
+     */
+    @Scheduled(fixedDelayString = "${application.order.idempotency.cleanup-interval-ms:600000}")
+    @Transactional
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted;
+        int total = 0;
+        do {
+            deleted = recordRepository.deleteExpired(now, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.debug("Deleted {} expired idempotency keys", total);
+        }
+    }
+
+    private static final class Execution {
+
+        private final String ownerToken;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Execution(String ownerToken) {
+            this.ownerToken = ownerToken;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.exception.OrderIntakeFullException;
+import com.ecommerce.order.model.OrderIntake;
+import com.ecommerce.order.repository.OrderIntakeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable queue of orders waiting for asynchronous validation, backed by the order_intake table.
+ * Workers claim entries with a lease instead of holding row locks while they call other services;
+ * an entry whose worker dies becomes available again when the lease runs out.
+ * New orders are refused once the queue holds max-depth entries.
+ */
+@Component
+@Slf4j
+public class OrderIntakeQueue {
+
+    private final OrderIntakeRepository intakeRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong depth = new AtomicLong();
+
+    @Value("${application.order.intake.max-depth:10000}")
+    private long maxDepth;
+
+    @Value("${application.order.intake.lease-ms:30000}")
+    private long leaseMs;
+
+    public OrderIntakeQueue(OrderIntakeRepository intakeRepository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.intakeRepository = intakeRepository;
+        this.objectMapper = objectMapper;
+        Gauge.builder("orders.intake.depth", depth, AtomicLong::get)
+                .description("Orders waiting for asynchronous validation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues an order in the caller's transaction.
+     *
+     * @param orderId the ID of the order, saved in PENDING_VALIDATION status.
+     * @param userId the ID of the user placing the order.
+     * @param userVerified whether the user has already been verified.
+     * @param orderRequest the order request to validate.
+     * @throws OrderIntakeFullException if the queue is full.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long orderId, Long userId, boolean userVerified, OrderRequest orderRequest) {
+        long current = depth.get();
+        if (current >= maxDepth) {
+            throw new OrderIntakeFullException(current);
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(orderRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Order request cannot be serialized", e);
+        }
+
+        intakeRepository.save(OrderIntake.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .userVerified(userVerified)
+                .payload(payload)
+                .availableAt(LocalDateTime.now())
+                .build());
+        depth.incrementAndGet();
+    }
+
+    /**
+     * Claims the oldest available entries for the lease time.
+     *
+     * @param limit the maximum number of entries.
+     * @return the claimed entries in queue order.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<OrderIntake> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderIntake> entries = intakeRepository.findAvailableForUpdate(now, PageRequest.of(0, limit));
+        LocalDateTime leaseEnd = now.plus(leaseMs, ChronoUnit.MILLIS);
+        entries.forEach(entry -> entry.setAvailableAt(leaseEnd));
+        return entries;
+    }
+
+    /**
+     * Makes claimed entries available again after a delay and counts the failed attempt.
+     *
+     * @param entries the claimed entries.
+     * @param delayMs the delay before the entries can be claimed again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void retryLater(List<OrderIntake> entries, long delayMs) {
+        LocalDateTime availableAt = LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS);
+        for (OrderIntake entry : entries) {
+            intakeRepository.findById(entry.getId()).ifPresent(current -> {
+                current.setAttempts(current.getAttempts() + 1);
+                current.setAvailableAt(availableAt);
+                entry.setAttempts(current.getAttempts());
+            });
+        }
+    }
+
+    /**
+     * Removes finished entries in the caller's transaction.
+     *
+     * @param entries the finished entries.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(List<OrderIntake> entries) {
+        intakeRepository.deleteAllInBatch(entries);
+        depth.addAndGet(-entries.size());
+    }
+
+    /**
+     * Reads the order request of an entry.
+     *
+     * @param entry the queue entry.
+     * @return the order request.
+     */
+    public OrderRequest requestOf(OrderIntake entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), OrderRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload of order " + entry.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Corrects the in-memory depth from the table, including entries enqueued by other instances.
+     */
+    public void refreshDepth() {
+        depth.set(intakeRepository.count());
+    }
+
+    public long depth() {
+        return depth.get();
+    }
+}
@@ -0,0 +1,305 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.ProductBatchRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.InsufficientStockException;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderIntake;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.projection.OrderSummaryProjector;
+import com.ecommerce.order.stats.OrderStatusCounter;
+import com.ecommerce.order.service.UserVerifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Validates queued orders in batches.
+ * A dispatcher claims one batch per idle worker. A worker looks up all products of its batch with
+ * shared batch calls, verifies each distinct unverified user once, then accepts or rejects every
+ * order of the batch in a single transaction. Stock is checked against the quantities fetched for
+ * the batch, with earlier orders served first. If a lookup fails, the batch is retried with backoff
+ * and its orders are rejected once the attempts are used up.
+ */
+@Component
+@Slf4j
+public class OrderIntakeWorker {
+
+    private static final int MAX_PRODUCTS_PER_CALL = 1000;
+
+    private final OrderIntakeQueue intakeQueue;
+    private final OrderRepository orderRepository;
+    private final ProductClient productClient;
+    private final UserVerifier userVerifier;
+    private final OrderStatusCounter statusCounter;
+    private final OrderSummaryProjector summaryProjector;
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore idleWorkers;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Timer batchTimer;
+
+    @Value("${application.order.intake.batch-size:100}")
+    private int batchSize;
+
+    @Value("${application.order.intake.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${application.order.intake.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    public OrderIntakeWorker(OrderIntakeQueue intakeQueue,
+                             OrderRepository orderRepository,
+                             ProductClient productClient,
+                             UserVerifier userVerifier,
+                             OrderStatusCounter statusCounter,
+                             OrderSummaryProjector summaryProjector,
+                             @Qualifier("orderIntakeExecutor") ExecutorService executor,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${application.order.intake.workers:4}") int workers) {
+        this.intakeQueue = intakeQueue;
+        this.orderRepository = orderRepository;
+        this.productClient = productClient;
+        this.userVerifier = userVerifier;
+        this.statusCounter = statusCounter;
+        this.summaryProjector = summaryProjector;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idleWorkers = new Semaphore(workers);
+        this.acceptedCounter = Counter.builder("orders.intake.validated")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("orders.intake.validated")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.intake.batch")
+                .description("Time to validate a batch of queued orders")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands a claimed batch to every idle worker.
+     */
+    @Scheduled(fixedDelayString = "${application.order.intake.poll-interval-ms:200}")
+    public void dispatch() {
+        intakeQueue.refreshDepth();
+        while (idleWorkers.tryAcquire()) {
+            List<OrderIntake> batch;
+            try {
+                batch = intakeQueue.claim(batchSize);
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                log.warn("Failed to claim queued orders: {}", e.getMessage());
+                return;
+            }
+            if (batch.isEmpty()) {
+                idleWorkers.release();
+                return;
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        batchTimer.record(() -> process(batch));
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the claimed entries become available again when their lease runs out
+                idleWorkers.release();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Validates a claimed batch and records the outcome of every order.
+     */
+    void process(List<OrderIntake> batch) {
+        Map<Long, ProductResponse> products;
+        Set<Long> unknownUsers;
+        try {
+            products = fetchProducts(batch);
+            unknownUsers = verifyUsers(batch);
+        } catch (RuntimeException e) {
+            retryOrReject(batch, e);
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> complete(batch, products, unknownUsers, null));
+        } catch (RuntimeException e) {
+            // The entries stay queued and are claimed again when their lease runs out
+            log.error("Failed to record the validation of {} queued orders: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private Map<Long, ProductResponse> fetchProducts(List<OrderIntake> batch) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderIntake entry : batch) {
+            intakeQueue.requestOf(entry).getOrderItems()
+                    .forEach(item -> productIds.add(item.getProductId()));
+        }
+
+        List<Long> ids = new ArrayList<>(productIds);
+        Map<Long, ProductResponse> products = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += MAX_PRODUCTS_PER_CALL) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_PRODUCTS_PER_CALL, ids.size()));
+            productClient.getProducts(new ProductBatchRequest(new ArrayList<>(chunk)))
+                    .forEach(product -> products.put(product.getId(), product));
+        }
+        log.debug("Fetched {} of {} products for {} queued orders", products.size(), ids.size(), batch.size());
+        return products;
+    }
+
+    private Set<Long> verifyUsers(List<OrderIntake> batch) {
+        Set<Long> unknownUsers = new HashSet<>();
+        Set<Long> verified = new HashSet<>();
+        for (OrderIntake entry : batch) {
+            Long userId = entry.getUserId();
+            if (entry.isUserVerified() || verified.contains(userId) || unknownUsers.contains(userId)) {
+                continue;
+            }
+            if (userVerifier.isKnown(userId)) {
+                verified.add(userId);
+                continue;
+            }
+            try {
+                userVerifier.verify(userId);
+                verified.add(userId);
+            } catch (ResourceNotFoundException e) {
+                unknownUsers.add(userId);
+            }
+        }
+        return unknownUsers;
+    }
+
+    private void retryOrReject(List<OrderIntake> batch, RuntimeException cause) {
+        int attempts = batch.stream().mapToInt(OrderIntake::getAttempts).max().orElse(0) + 1;
+        if (attempts < maxAttempts) {
+            log.warn("Validation of {} queued orders failed (attempt {} of {}), retrying: {}",
+                    batch.size(), attempts, maxAttempts, cause.getMessage());
+            intakeQueue.retryLater(batch, retryDelayMs * attempts);
+            return;
+        }
+
+        log.error("Validation of {} queued orders failed after {} attempts, rejecting them: {}",
+                batch.size(), attempts, cause.getMessage());
+        String reason = "Order could not be validated: " + cause.getMessage();
+        transactionTemplate.executeWithoutResult(status -> complete(batch, Map.of(), Set.of(), reason));
+    }
+
+    /**
+     * Accepts or rejects every order of the batch and removes the batch from the queue.
+     * Orders cancelled while they were queued are left as they are.
+     */
+    private void complete(List<OrderIntake> batch, Map<Long, ProductResponse> products,
+                          Set<Long> unknownUsers, String failure) {
+        Map<Long, Order> orders = orderRepository.findAllByIdForUpdate(
+                        batch.stream().map(OrderIntake::getOrderId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        Map<Long, Integer> remainingStock = new HashMap<>();
+        products.values().forEach(product -> remainingStock.put(product.getId(),
+                product.getStockQuantity() != null ? product.getStockQuantity() : 0));
+
+        for (OrderIntake entry : batch) {
+            Order order = orders.get(entry.getOrderId());
+            if (order == null || order.getStatus() != OrderStatus.PENDING_VALIDATION) {
+                continue;
+            }
+            if (failure != null) {
+                reject(order, failure);
+            } else if (unknownUsers.contains(entry.getUserId())) {
+                reject(order, new ResourceNotFoundException("User", "id", entry.getUserId()).getMessage());
+            } else {
+                validate(order, intakeQueue.requestOf(entry), products, remainingStock);
+            }
+        }
+
+        intakeQueue.remove(batch);
+    }
+
+    private void validate(Order order, OrderRequest orderRequest,
+                          Map<Long, ProductResponse> products, Map<Long, Integer> remainingStock) {
+        Map<Long, Integer> demand = new LinkedHashMap<>();
+        for (OrderItemRequest itemRequest : orderRequest.getOrderItems()) {
+            demand.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            Long productId = entry.getKey();
+            if (!products.containsKey(productId)) {
+                reject(order, new ResourceNotFoundException("Product", "id", productId).getMessage());
+                return;
+            }
+            if (remainingStock.get(productId) < entry.getValue()) {
+                reject(order, new InsufficientStockException(productId, entry.getValue()).getMessage());
+                return;
+            }
+        }
+        demand.forEach((productId, quantity) -> remainingStock.merge(productId, -quantity, Integer::sum));
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItemRequest itemRequest : orderRequest.getOrderItems()) {
+            ProductResponse product = products.get(itemRequest.getProductId());
+            OrderItem orderItem = OrderItem.builder()
+                    .orderId(order.getId())
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .quantity(itemRequest.getQuantity())
+                    .price(product.getPrice())
+                    .build();
+            order.getOrderItems().add(orderItem);
+            totalAmount = totalAmount.add(orderItem.getSubtotal());
+        }
+
+        order.setTotalAmount(totalAmount);
+        order.setStatus(OrderStatus.PENDING);
+        statusCounter.recordTransition(order, OrderStatus.PENDING_VALIDATION, OrderStatus.PENDING);
+        summaryProjector.project(order);
+        acceptedCounter.increment();
+        log.info("Order {} validated", order.getId());
+    }
+
+    private void reject(Order order, String reason) {
+        order.setStatus(OrderStatus.REJECTED);
+        statusCounter.recordTransition(order, OrderStatus.PENDING_VALIDATION, OrderStatus.REJECTED);
+        order.setRejectionReason(reason.length() > 500 ? reason.substring(0, 500) : reason);
+        summaryProjector.updateStatus(order);
+        rejectedCounter.increment();
+        log.info("Order {} rejected: {}", order.getId(), reason);
+    }
+}
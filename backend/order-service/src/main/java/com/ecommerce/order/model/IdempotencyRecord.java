@@ -0,0 +1,68 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a request made with an Idempotency-Key and, once it has completed, its response.
+ * The key and the request are stored as SHA-256 digests, so every row has the same small key size.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    /**
+     * Digest of the caller, the endpoint and the Idempotency-Key.
+     */
+    @Id
+    @Column(name = "key_hash", length = 43)
+    private String keyHash;
+
+    /**
+     * Digest of the request body; a key may only be reused with the same request.
+     */
+    @Column(name = "request_hash", nullable = false, length = 43)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_content_type", length = 100)
+    private String responseContentType;
+
+    @Column(name = "response_location")
+    private String responseLocation;
+
+    @Column(name = "response_body")
+    private byte[] responseBody;
+
+    /**
+     * Token of the execution that holds the lease; only it may renew the lease and store or release the record.
+     */
+    @Column(name = "owner_token", length = 36)
+    private String ownerToken;
+
+    /**
+     * An execution still in progress after this time is considered abandoned and can be taken over.
+     */
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.order.model;
+
+/**
+ * Enum representing the state of a request made with an Idempotency-Key.
+ */
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -18,9 +18,10 @@ import java.util.List;
  */
 @Entity
 @Table(name = "orders", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_user_status", columnList = "user_id, status")
+    @Index(name = "idx_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_status_created_at_id", columnList = "status, created_at, id"),
+    @Index(name = "idx_user_created_at_id", columnList = "user_id, created_at, id")
 })
 @Data
 @Builder
@@ -28,15 +29,20 @@ import java.util.List;
 @AllArgsConstructor
 public class Order {
 
+    // Pooled sequence: IDs are reserved 50 at a time, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
+    // order_id is written through OrderItem.orderId, not by extra UPDATEs from this side.
+    // No foreign key: once partitioned, orders is unique on (id, created_at) only
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id")
+    @JoinColumn(name = "order_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -48,6 +54,9 @@ public class Order {
     @Builder.Default
     private OrderStatus status = OrderStatus.PENDING;
 
+    @Column(name = "rejection_reason", length = 500)
+    private String rejectionReason;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -91,6 +100,8 @@ public class Order {
      * @return true if the order can be cancelled, false otherwise
      */
     public boolean canBeCancelled() {
-        return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
+        return status == OrderStatus.PENDING_VALIDATION
+            || status == OrderStatus.PENDING
+            || status == OrderStatus.CONFIRMED;
     }
 }
@@ -0,0 +1,60 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an order waiting in the intake queue for asynchronous validation.
+ */
+@Entity
+@Table(name = "order_intake", indexes = {
+    @Index(name = "idx_order_intake_available_at", columnList = "available_at, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntake {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Whether the user was already verified when the order was accepted.
+     */
+    @Column(name = "user_verified", nullable = false)
+    private boolean userVerified;
+
+    /**
+     * The order request as JSON.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    /**
+     * The entry can be claimed by a worker from this time on; claiming moves it forward by the lease.
+     */
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity holding the number and total amount of the orders created in a time bucket that are in a status,
+ * as of the last flush of the rollup accumulators.
+ */
+@Entity
+@Table(name = "order_rollups", indexes = {
+    @Index(name = "idx_order_rollups_granularity_bucket", columnList = "granularity, bucket_start")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRollup {
+
+    @EmbeddedId
+    private OrderRollupId id;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Key of an order rollup: one status in one time bucket.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRollupId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus status;
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the persisted state of the payment saga of an order.
+ */
+@Entity
+@Table(name = "order_sagas", indexes = {
+    @Index(name = "idx_order_saga_order_id", columnList = "order_id"),
+    @Index(name = "idx_order_saga_step_next_attempt", columnList = "step, next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSaga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SagaStep step;
+
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * Reference of the charge, set once the payment succeeded.
+     */
+    @Column(name = "payment_reference", length = 100)
+    private String paymentReference;
+
+    /**
+     * Number of order items, in item ID order, whose inventory is currently reserved.
+     */
+    @Column(name = "reserved_items", nullable = false)
+    @Builder.Default
+    private int reservedItems = 0;
+
+    /**
+     * Failed attempts of the current step.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    /**
+     * When the saga may next be run; while a runner holds the saga this is the end of its lease.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -4,6 +4,16 @@ package com.ecommerce.order.model;
  * Enum representing the various states of an order in its lifecycle.
  */
 public enum OrderStatus {
+    /**
+     * Order has been accepted for asynchronous validation
+     */
+    PENDING_VALIDATION,
+
+    /**
+     * Order failed asynchronous validation
+     */
+    REJECTED,
+
     /**
      * Order has been created but not yet confirmed
      */
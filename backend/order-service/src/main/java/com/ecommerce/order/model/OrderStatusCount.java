@@ -0,0 +1,27 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity holding the number of orders in a status, as of the last flush of the count deltas.
+ */
+@Entity
+@Table(name = "order_status_counts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusCount {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized list-view row of an order, maintained by OrderSummaryProjector.
+ * Holds what an order list shows, so a user's orders are listed from one narrow table
+ * without loading orders or items.
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+    @Index(name = "idx_order_summaries_user_created_at", columnList = "user_id, created_at, order_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "first_item_name")
+    private String firstItemName;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Time of the last projected change; older replays never overwrite newer rows
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
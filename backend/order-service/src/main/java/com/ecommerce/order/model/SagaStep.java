@@ -0,0 +1,64 @@
+package com.ecommerce.order.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Enum representing the steps of the payment saga of an order.
+ * Forward steps run in declaration order; a failure switches to the compensating steps.
+ */
+public enum SagaStep {
+    /**
+     * Reserve the inventory of each order item, one item at a time
+     */
+    RESERVE_INVENTORY,
+
+    /**
+     * Charge the payment method
+     */
+    CHARGE_PAYMENT,
+
+    /**
+     * Mark the order as confirmed
+     */
+    CONFIRM_ORDER,
+
+    /**
+     * Compensation: refund the charged payment
+     */
+    REFUND_PAYMENT,
+
+    /**
+     * Compensation: release the reserved inventory, last reserved item first
+     */
+    RELEASE_INVENTORY,
+
+    /**
+     * The order was paid and confirmed
+     */
+    COMPLETED,
+
+    /**
+     * The saga failed and all of its effects were undone
+     */
+    COMPENSATED,
+
+    /**
+     * Compensation gave up; the saga needs manual attention
+     */
+    FAILED;
+
+    /**
+     * Steps of sagas that still have work to do.
+     */
+    public static final Set<SagaStep> ACTIVE =
+            EnumSet.of(RESERVE_INVENTORY, CHARGE_PAYMENT, CONFIRM_ORDER, REFUND_PAYMENT, RELEASE_INVENTORY);
+
+    public boolean isTerminal() {
+        return !ACTIVE.contains(this);
+    }
+
+    public boolean isCompensation() {
+        return this == REFUND_PAYMENT || this == RELEASE_INVENTORY;
+    }
+}
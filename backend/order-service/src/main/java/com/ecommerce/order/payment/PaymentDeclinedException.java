@@ -0,0 +1,12 @@
+package com.ecommerce.order.payment;
+
+/**
+ * Exception thrown by a payment gateway when the provider declines a payment.
+ * Unlike other gateway errors it is final, so the charge is not retried.
+ */
+public class PaymentDeclinedException extends RuntimeException {
+
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
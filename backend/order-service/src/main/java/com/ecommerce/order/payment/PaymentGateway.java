@@ -0,0 +1,28 @@
+package com.ecommerce.order.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * Port to the payment provider used by the payment saga.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Charges a payment method. Repeating a charge with the same idempotency key
+     * must not charge again but return the reference of the first charge.
+     *
+     * @param idempotencyKey the key identifying this charge.
+     * @param amount the amount to charge.
+     * @param paymentMethod the payment method.
+     * @return the reference of the charge.
+     * @throws PaymentDeclinedException if the provider declines the payment.
+     */
+    String charge(String idempotencyKey, BigDecimal amount, String paymentMethod);
+
+    /**
+     * Refunds a charge in full. Refunding an already refunded charge has no effect.
+     *
+     * @param paymentReference the reference of the charge.
+     */
+    void refund(String paymentReference);
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.order.payment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Payment gateway that accepts every payment.
+ * In a real-world scenario, this would integrate with actual payment providers.
+ */
+@Component
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    @Override
+    public String charge(String idempotencyKey, BigDecimal amount, String paymentMethod) {
+        log.info("Processing payment with method: {} for amount: {}", paymentMethod, amount);
+        return "sim-" + UUID.nameUUIDFromBytes(idempotencyKey.getBytes());
+    }
+
+    @Override
+    public void refund(String paymentReference) {
+        log.info("Refunding payment {}", paymentReference);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.order.projection;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps order_summaries in step with the orders.
+ * Every change is written in the transaction that changes the order, so the list view never shows
+ * an order that was rolled back. Rows carry the time of the change they reflect, and an upsert only
+ * replaces a row with a newer one; replays by OrderSummaryRebuilder therefore cannot undo live changes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSummaryProjector {
+
+    static final String UPSERT_SQL =
+            "INSERT INTO order_summaries (order_id, user_id, status, item_count, total_amount, first_item_name, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (order_id) DO UPDATE SET status = EXCLUDED.status, item_count = EXCLUDED.item_count, " +
+            "total_amount = EXCLUDED.total_amount, first_item_name = EXCLUDED.first_item_name, " +
+            "updated_at = EXCLUDED.updated_at WHERE order_summaries.updated_at <= EXCLUDED.updated_at";
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE order_summaries SET status = ?, updated_at = ? WHERE order_id = ? AND updated_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes the full summary of a new or re-priced order in the caller's transaction.
+     *
+     * @param order the order, with its items
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void project(Order order) {
+        jdbcTemplate.update(UPSERT_SQL, row(order, order.getOrderItems(), LocalDateTime.now()));
+    }
+
+    /**
+     * Writes the status of an order in the caller's transaction without touching its items.
+     *
+     * @param order the order, with its new status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateStatus(Order order) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(UPDATE_STATUS_SQL, order.getStatus().name(), now, order.getId(), now);
+        if (updated == 0) {
+            // Not projected yet, e.g. placed before the projection existed and not replayed so far
+            log.debug("No summary for order {}, projecting it in full", order.getId());
+            project(order);
+        }
+    }
+
+    /**
+     * Builds the upsert parameters of an order.
+     *
+     * @param order the order
+     * @param items the items of the order, in display order
+     * @param updatedAt the time of the change the row reflects
+     * @return the parameters of UPSERT_SQL
+     */
+    static Object[] row(Order order, List<OrderItem> items, LocalDateTime updatedAt) {
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : updatedAt;
+        return new Object[]{
+                order.getId(),
+                order.getUserId(),
+                order.getStatus().name(),
+                items.size(),
+                order.getTotalAmount(),
+                items.isEmpty() ? null : items.get(0).getProductName(),
+                Timestamp.valueOf(createdAt),
+                Timestamp.valueOf(updatedAt)
+        };
+    }
+}
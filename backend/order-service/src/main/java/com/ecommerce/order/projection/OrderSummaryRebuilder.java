@@ -0,0 +1,176 @@
+package com.ecommerce.order.projection;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays existing orders into order_summaries.
+ * The order ID range is split into chunks that are replayed in parallel, each with two queries
+ * (orders, items) and one JDBC batch of upserts in its own transaction. Replays run alongside live
+ * traffic: a replayed row never replaces a row written by a later change.
+ */
+@Component
+@Slf4j
+public class OrderSummaryRebuilder {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderSummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${application.order.summaries.rebuild-if-empty:true}")
+    private boolean rebuildIfEmpty;
+
+    @Value("${application.order.summaries.rebuild-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${application.order.summaries.rebuild-parallelism:4}")
+    private int parallelism;
+
+    public OrderSummaryRebuilder(OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 OrderSummaryRepository summaryRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TaskScheduler taskScheduler,
+                                 PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.summaryRepository = summaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Builds the projection in the background on first start, when orders exist but no summaries.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rebuildIfEmpty && !summaryRepository.anyExists()) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Starts a full replay in the background unless one is already running.
+     *
+     * @return true if a replay was started
+     */
+    public boolean scheduleRebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        taskScheduler.schedule(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Order summary rebuild failed", e);
+            } finally {
+                running.set(false);
+            }
+        }, Instant.now());
+        return true;
+    }
+
+    /**
+     * Replays every order into the projection and waits for it to finish.
+     *
+     * @return the number of orders replayed
+     */
+    public long rebuild() {
+        Object[] range = orderRepository.findIdRange().get(0);
+        if (range[0] == null) {
+            return 0;
+        }
+        long minId = (Long) range[0];
+        long maxId = (Long) range[1];
+        long start = System.nanoTime();
+        log.info("Rebuilding order summaries of orders {} to {}", minId, maxId);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "order-summary-rebuild-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+                long chunkFrom = fromId;
+                long chunkTo = Math.min(fromId + chunkSize - 1, maxId);
+                chunks.add(executor.submit(() -> replay(chunkFrom, chunkTo)));
+            }
+            long replayed = 0;
+            for (Future<Integer> chunk : chunks) {
+                replayed += chunk.get();
+            }
+            log.info("Rebuilt {} order summaries in {} chunks in {} ms",
+                    replayed, chunks.size(), (System.nanoTime() - start) / 1_000_000);
+            return replayed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order summary rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Order summary rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Replays the orders of one ID range.
+     *
+     * @param fromId the inclusive lower bound
+     * @param toId the inclusive upper bound
+     * @return the number of orders replayed
+     */
+    int replay(long fromId, long toId) {
+        return transactionTemplate.execute(status -> {
+            List<Order> orders = orderRepository.findByIdBetweenOrderById(fromId, toId);
+            if (orders.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = orders.stream().map(Order::getId).toList();
+            Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+            for (OrderItem item : orderItemRepository.findByOrderIdInOrderByOrderIdAscIdAsc(ids)) {
+                itemsByOrder.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>()).add(item);
+            }
+
+            // Rows reflect the order as of its last update, so later live changes win
+            List<Object[]> rows = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                rows.add(OrderSummaryProjector.row(order,
+                        itemsByOrder.getOrDefault(order.getId(), List.of()), order.getUpdatedAt()));
+            }
+            jdbcTemplate.batchUpdate(OrderSummaryProjector.UPSERT_SQL, rows);
+            return orders.size();
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.IdempotencyRecord;
+import com.ecommerce.order.model.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository interface for IdempotencyRecord entity.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts an in-progress record unless the key is already taken.
+     *
+     * @param keyHash the key digest
+     * @param requestHash the request digest
+     * @param ownerToken the token of the execution
+     * @param lockedUntil the end of the execution lease
+     * @param expiresAt the time the record may be deleted
+     * @return 1 if the record was inserted, 0 if the key is taken
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key_hash, request_hash, status, owner_token, locked_until, expires_at) " +
+            "VALUES (:keyHash, :requestHash, 'IN_PROGRESS', :ownerToken, :lockedUntil, :expiresAt) " +
+            "ON CONFLICT (key_hash) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("keyHash") String keyHash,
+                       @Param("requestHash") String requestHash,
+                       @Param("ownerToken") String ownerToken,
+                       @Param("lockedUntil") LocalDateTime lockedUntil,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Takes over an execution whose lease has run out.
+     *
+     * @param keyHash the key digest
+     * @param requestHash the request digest, which must match the stored one
+     * @param ownerToken the token of the new execution
+     * @param status the in-progress status
+     * @param now the current time
+     * @param lockedUntil the end of the new lease
+     * @return 1 if the execution was taken over, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.ownerToken = :ownerToken, r.lockedUntil = :lockedUntil " +
+            "WHERE r.keyHash = :keyHash AND r.requestHash = :requestHash " +
+            "AND r.status = :status AND r.lockedUntil < :now")
+    int takeOver(@Param("keyHash") String keyHash,
+                 @Param("requestHash") String requestHash,
+                 @Param("ownerToken") String ownerToken,
+                 @Param("status") IdempotencyStatus status,
+                 @Param("now") LocalDateTime now,
+                 @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * Extends the leases of executions that are still running.
+     *
+     * @param ownerTokens the tokens of the executions
+     * @param status the in-progress status
+     * @param lockedUntil the end of the renewed leases
+     * @return the number of renewed leases
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedUntil = :lockedUntil " +
+            "WHERE r.ownerToken IN :ownerTokens AND r.status = :status")
+    int renewLeases(@Param("ownerTokens") Collection<String> ownerTokens,
+                    @Param("status") IdempotencyStatus status,
+                    @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * Stores the response of an execution that still holds the lease.
+     *
+     * @param keyHash the key digest
+     * @param ownerToken the token of the execution
+     * @param responseStatus the HTTP status
+     * @param contentType the content type, if any
+     * @param location the Location header, if any
+     * @param body the response body
+     * @return 1 if the response was stored, 0 if the execution lost its lease
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.ecommerce.order.model.IdempotencyStatus.COMPLETED, " +
+            "r.responseStatus = :responseStatus, r.responseContentType = :contentType, " +
+            "r.responseLocation = :location, r.responseBody = :body " +
+            "WHERE r.keyHash = :keyHash AND r.ownerToken = :ownerToken " +
+            "AND r.status = com.ecommerce.order.model.IdempotencyStatus.IN_PROGRESS")
+    int complete(@Param("keyHash") String keyHash,
+                 @Param("ownerToken") String ownerToken,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType,
+                 @Param("location") String location,
+                 @Param("body") byte[] body);
+
+    /**
+     * Deletes an in-progress record that is still owned by the given execution.
+     *
+     * @param keyHash the key digest
+     * @param ownerToken the token of the execution
+     * @param status the in-progress status
+     * @return the number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+            "WHERE r.keyHash = :keyHash AND r.ownerToken = :ownerToken AND r.status = :status")
+    int deleteOwned(@Param("keyHash") String keyHash,
+                    @Param("ownerToken") String ownerToken,
+                    @Param("status") IdempotencyStatus status);
+
+    /**
+     * Deletes up to limit expired records.
+     *
+     * @param now the current time
+     * @param limit the maximum number of records to delete
+     * @return the number of deleted records
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE key_hash IN " +
+            "(SELECT key_hash FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderIntake;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the order intake queue.
+ */
+@Repository
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, Long> {
+
+    /**
+     * Locks the oldest available entries, skipping entries being claimed by another worker.
+     *
+     * @param now the current time
+     * @param pageable the maximum number of entries
+     * @return the locked entries in queue order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM OrderIntake i WHERE i.availableAt <= :now ORDER BY i.id")
+    List<OrderIntake> findAvailableForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -4,6 +4,7 @@ import com.ecommerce.order.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,4 +28,12 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      * @return list of order items containing the product
      */
     List<OrderItem> findByProductId(Long productId);
+
+    /**
+     * Finds the items of several orders with one query.
+     *
+     * @param orderIds the order IDs
+     * @return the order items, ordered by order and item ID
+     */
+    List<OrderItem> findByOrderIdInOrderByOrderIdAscIdAsc(Collection<Long> orderIds);
 }
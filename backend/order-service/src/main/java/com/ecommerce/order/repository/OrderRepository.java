@@ -2,13 +2,20 @@ package com.ecommerce.order.repository;
 
 import com.ecommerce.order.model.Order;
 import com.ecommerce.order.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity operations.
@@ -16,6 +23,27 @@ import java.util.Optional;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    /*
+     * Keyset queries for the admin listing, newest first. Each is answered from one of the
+     * (created_at, id), (status, created_at, id) and (user_id, created_at, id) indexes.
+     */
+    String KEYSET = "SELECT o.id FROM orders o WHERE o.created_at >= :createdFrom " +
+            "AND (o.created_at, o.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit";
+
+    String KEYSET_BY_STATUS = "SELECT o.id FROM orders o WHERE o.status = :status " +
+            "AND o.created_at >= :createdFrom AND (o.created_at, o.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit";
+
+    String KEYSET_BY_USER = "SELECT o.id FROM orders o WHERE o.user_id = :userId " +
+            "AND o.created_at >= :createdFrom AND (o.created_at, o.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit";
+
+    // A user has few orders, so the status is filtered on the rows of (user_id, created_at, id)
+    String KEYSET_BY_USER_AND_STATUS = "SELECT o.id FROM orders o WHERE o.user_id = :userId AND o.status = :status " +
+            "AND o.created_at >= :createdFrom AND (o.created_at, o.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit";
+
     /**
      * Finds all orders for a specific user.
      *
@@ -51,11 +79,118 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByIdWithItems(@Param("id") Long id);
 
     /**
-     * Finds all orders for a user with order items fetched eagerly.
+     * Finds orders by ID and locks them for update.
+     *
+     * @param ids the order IDs
+     * @return the orders found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the orders in an ID range.
+     *
+     * @param fromId the inclusive lower bound
+     * @param toId the inclusive upper bound
+     * @return the orders, by ID
+     */
+    List<Order> findByIdBetweenOrderById(Long fromId, Long toId);
+
+    /**
+     * Finds the lowest and highest order ID.
+     *
+     * @return one row of (min, max), both null if there are no orders
+     */
+    @Query("SELECT MIN(o.id), MAX(o.id) FROM Order o")
+    List<Object[]> findIdRange();
+
+    /**
+     * Finds IDs of a page of orders created in a time range, newest first, before a (createdAt, id) cursor.
+     *
+     * @param createdFrom the inclusive lower bound of the creation time
+     * @param afterCreatedAt the creation time of the cursor
+     * @param afterId the order ID of the cursor
+     * @param limit the page size
+     * @return the order IDs in listing order
+     */
+    @Query(value = KEYSET, nativeQuery = true)
+    List<Long> findPageIds(@Param("createdFrom") LocalDateTime createdFrom,
+                           @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                           @Param("afterId") Long afterId,
+                           @Param("limit") int limit);
+
+    /**
+     * Finds IDs of a page of orders with a status, newest first, before a (createdAt, id) cursor.
+     *
+     * @param status the order status name
+     * @param createdFrom the inclusive lower bound of the creation time
+     * @param afterCreatedAt the creation time of the cursor
+     * @param afterId the order ID of the cursor
+     * @param limit the page size
+     * @return the order IDs in listing order
+     */
+    @Query(value = KEYSET_BY_STATUS, nativeQuery = true)
+    List<Long> findPageIdsByStatus(@Param("status") String status,
+                                   @Param("createdFrom") LocalDateTime createdFrom,
+                                   @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                   @Param("afterId") Long afterId,
+                                   @Param("limit") int limit);
+
+    /**
+     * Finds IDs of a page of a user's orders, newest first, before a (createdAt, id) cursor.
      *
      * @param userId the user ID
-     * @return list of orders with items
+     * @param createdFrom the inclusive lower bound of the creation time
+     * @param afterCreatedAt the creation time of the cursor
+     * @param afterId the order ID of the cursor
+     * @param limit the page size
+     * @return the order IDs in listing order
+     */
+    @Query(value = KEYSET_BY_USER, nativeQuery = true)
+    List<Long> findPageIdsByUser(@Param("userId") Long userId,
+                                 @Param("createdFrom") LocalDateTime createdFrom,
+                                 @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                 @Param("afterId") Long afterId,
+                                 @Param("limit") int limit);
+
+    /**
+     * Finds IDs of a page of a user's orders with a status, newest first, before a (createdAt, id) cursor.
+     *
+     * @param userId the user ID
+     * @param status the order status name
+     * @param createdFrom the inclusive lower bound of the creation time
+     * @param afterCreatedAt the creation time of the cursor
+     * @param afterId the order ID of the cursor
+     * @param limit the page size
+     * @return the order IDs in listing order
+     */
+    @Query(value = KEYSET_BY_USER_AND_STATUS, nativeQuery = true)
+    List<Long> findPageIdsByUserAndStatus(@Param("userId") Long userId,
+                                          @Param("status") String status,
+                                          @Param("createdFrom") LocalDateTime createdFrom,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") Long afterId,
+                                          @Param("limit") int limit);
+
+    /**
+     * Streams orders joined with their items with a server-side cursor, newest first.
+     * Each row is an Order and one of its OrderItems (null for orders without items); rows of an
+     * order are adjacent. Must be consumed inside a transaction and closed afterwards.
+     *
+     * @param status the order status, or null for all
+     * @param userId the user ID, or null for all
+     * @param createdFrom the inclusive lower bound of the creation time
+     * @param createdTo the exclusive upper bound of the creation time
+     * @return the rows
      */
-    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.userId = :userId")
-    List<Order> findByUserIdWithItems(@Param("userId") Long userId);
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT o, i FROM Order o LEFT JOIN o.orderItems i " +
+            "WHERE (:status IS NULL OR o.status = :status) AND (:userId IS NULL OR o.userId = :userId) " +
+            "AND o.createdAt >= :createdFrom AND o.createdAt < :createdTo " +
+            "ORDER BY o.createdAt DESC, o.id DESC, i.id")
+    Stream<Object[]> streamWithItems(@Param("status") OrderStatus status,
+                                     @Param("userId") Long userId,
+                                     @Param("createdFrom") LocalDateTime createdFrom,
+                                     @Param("createdTo") LocalDateTime createdTo);
 }
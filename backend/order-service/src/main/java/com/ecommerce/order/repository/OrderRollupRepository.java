@@ -0,0 +1,41 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderRollup;
+import com.ecommerce.order.model.OrderRollupId;
+import com.ecommerce.order.model.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for order rollups.
+ */
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollupId> {
+
+    /**
+     * Finds the rollups of the buckets starting in a time range, oldest first.
+     *
+     * @param granularity the bucket size
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @return the rollups of every status in the buckets
+     */
+    @Query("SELECT r FROM OrderRollup r WHERE r.id.granularity = :granularity " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to ORDER BY r.id.bucketStart")
+    List<OrderRollup> findRange(@Param("granularity") RollupGranularity granularity,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    /**
+     * Checks whether any rollup exists.
+     *
+     * @return true if at least one rollup exists
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM order_rollups)", nativeQuery = true)
+    boolean anyExists();
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderSaga;
+import com.ecommerce.order.model.SagaStep;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for payment saga state.
+ */
+@Repository
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, Long> {
+
+    /**
+     * Locks unfinished sagas that are due to run, skipping sagas being claimed by another runner.
+     *
+     * @param steps the unfinished steps
+     * @param now the current time
+     * @param pageable the maximum number of sagas
+     * @return the locked sagas, oldest attempt first
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM OrderSaga s WHERE s.step IN :steps AND s.nextAttemptAt <= :now ORDER BY s.nextAttemptAt")
+    List<OrderSaga> findDueForUpdate(@Param("steps") Collection<SagaStep> steps,
+                                     @Param("now") LocalDateTime now,
+                                     Pageable pageable);
+
+    /**
+     * Checks whether an order has a saga in one of the given steps.
+     *
+     * @param orderId the order ID
+     * @param steps the steps
+     * @return true if such a saga exists
+     */
+    boolean existsByOrderIdAndStepIn(Long orderId, Collection<SagaStep> steps);
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusCountDelta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for pending order status count changes.
+ */
+@Repository
+public interface OrderStatusCountDeltaRepository extends JpaRepository<OrderStatusCountDelta, Long> {
+
+    /**
+     * Locks the oldest pending deltas, skipping deltas already claimed by another flusher.
+     *
+     * @param pageable the maximum number of deltas
+     * @return the locked deltas
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM OrderStatusCountDelta d ORDER BY d.id")
+    List<OrderStatusCountDelta> findPendingForUpdate(Pageable pageable);
+
+    /**
+     * Sums the pending deltas of a status.
+     *
+     * @param status the order status
+     * @return the sum, 0 if there are none
+     */
+    @Query("SELECT COALESCE(SUM(d.delta), 0) FROM OrderStatusCountDelta d WHERE d.status = :status")
+    Long sumPendingByStatus(@Param("status") OrderStatus status);
+}
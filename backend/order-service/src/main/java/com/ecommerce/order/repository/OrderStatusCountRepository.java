@@ -0,0 +1,13 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for OrderStatusCount entity.
+ */
+@Repository
+public interface OrderStatusCountRepository extends JpaRepository<OrderStatusCount, OrderStatus> {
+}
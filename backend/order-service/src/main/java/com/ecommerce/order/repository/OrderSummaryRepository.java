@@ -0,0 +1,45 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the order summary projection.
+ */
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    // Answered from (user_id, created_at, order_id); the rows themselves are narrow enough to read directly
+    String KEYSET_BY_USER = "SELECT * FROM order_summaries s WHERE s.user_id = :userId " +
+            "AND (s.created_at, s.order_id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY s.created_at DESC, s.order_id DESC LIMIT :limit";
+
+    /**
+     * Finds a page of a user's order summaries, newest first, before a (createdAt, orderId) cursor.
+     *
+     * @param userId the user ID
+     * @param afterCreatedAt the creation time of the cursor
+     * @param afterId the order ID of the cursor
+     * @param limit the page size
+     * @return the summaries in listing order
+     */
+    @Query(value = KEYSET_BY_USER, nativeQuery = true)
+    List<OrderSummary> findPageByUser(@Param("userId") Long userId,
+                                      @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                      @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+
+    /**
+     * Checks whether the projection holds any row.
+     *
+     * @return true if at least one summary exists
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM order_summaries)", nativeQuery = true)
+    boolean anyExists();
+}
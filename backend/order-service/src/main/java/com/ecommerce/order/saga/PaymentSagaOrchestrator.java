@@ -0,0 +1,356 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.order.client.ClientRequestException;
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.PaymentRequest;
+import com.ecommerce.order.exception.InvalidOrderException;
+import com.ecommerce.order.exception.PaymentFailedException;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderSaga;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.SagaStep;
+import com.ecommerce.order.payment.PaymentDeclinedException;
+import com.ecommerce.order.payment.PaymentGateway;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSagaRepository;
+import com.ecommerce.order.projection.OrderSummaryProjector;
+import com.ecommerce.order.stats.OrderStatusCounter;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the payment saga of an order: reserve inventory, charge the payment, confirm the order.
+ * Every step's progress is persisted before the next step starts. A failing step is retried with
+ * exponential backoff by the scheduler; a final failure runs the compensating steps, refunding the
+ * payment and releasing the reserved inventory. Sagas interrupted by a restart are picked up again
+ * once their lease runs out.
+ */
+@Component
+@Slf4j
+public class PaymentSagaOrchestrator {
+
+    private final OrderSagaRepository sagaRepository;
+    private final OrderRepository orderRepository;
+    private final ProductClient productClient;
+    private final PaymentGateway paymentGateway;
+    private final OrderStatusCounter statusCounter;
+    private final OrderSummaryProjector summaryProjector;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.order.saga.batch-size:50}")
+    private int batchSize;
+
+    @Value("${application.order.saga.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${application.order.saga.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${application.order.saga.compensation-max-attempts:20}")
+    private int compensationMaxAttempts;
+
+    @Value("${application.order.saga.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${application.order.saga.max-retry-delay-ms:60000}")
+    private long maxRetryDelayMs;
+
+    public PaymentSagaOrchestrator(OrderSagaRepository sagaRepository,
+                                   OrderRepository orderRepository,
+                                   ProductClient productClient,
+                                   PaymentGateway paymentGateway,
+                                   OrderStatusCounter statusCounter,
+                                   OrderSummaryProjector summaryProjector,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.sagaRepository = sagaRepository;
+        this.orderRepository = orderRepository;
+        this.productClient = productClient;
+        this.paymentGateway = paymentGateway;
+        this.statusCounter = statusCounter;
+        this.summaryProjector = summaryProjector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts the payment saga of a pending order and runs it on the calling thread
+     * until it finishes or waits for a retry.
+     *
+     * @param orderId the order ID.
+     * @param paymentRequest the payment details.
+     * @return the saga state after the run.
+     * @throws ResourceNotFoundException if the order does not exist.
+     * @throws InvalidOrderException if the order is not pending or already being paid.
+     * @throws PaymentFailedException if the amount does not match the order total.
+     */
+    public OrderSaga start(Long orderId, PaymentRequest paymentRequest) {
+        OrderSaga saga = transactionTemplate.execute(status -> {
+            Order order = orderRepository.findAllByIdForUpdate(List.of(orderId)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+
+            // Validate order status
+            if (order.getStatus() != OrderStatus.PENDING) {
+                log.error("Order {} is not in PENDING status. Current status: {}", orderId, order.getStatus());
+                throw new InvalidOrderException("Order must be in PENDING status to process payment");
+            }
+            if (sagaRepository.existsByOrderIdAndStepIn(orderId, SagaStep.ACTIVE)) {
+                throw new InvalidOrderException("Payment is already in progress for this order");
+            }
+
+            // Validate payment amount
+            if (paymentRequest.getAmount().compareTo(order.getTotalAmount()) != 0) {
+                log.error("Payment amount mismatch for order {}. Expected: {}, Received: {}",
+                        orderId, order.getTotalAmount(), paymentRequest.getAmount());
+                throw new PaymentFailedException("Payment amount does not match order total");
+            }
+
+            return sagaRepository.save(OrderSaga.builder()
+                    .orderId(orderId)
+                    .step(SagaStep.RESERVE_INVENTORY)
+                    .paymentMethod(paymentRequest.getPaymentMethod())
+                    .amount(order.getTotalAmount())
+                    .nextAttemptAt(leaseEnd())
+                    .build());
+        });
+
+        log.info("Started payment saga {} for order {}", saga.getId(), orderId);
+        return run(saga);
+    }
+
+    /**
+     * Runs sagas whose retry is due or whose runner stopped without finishing them.
+     */
+    @Scheduled(fixedDelayString = "${application.order.saga.poll-interval-ms:1000}")
+    public void resume() {
+        List<OrderSaga> due = transactionTemplate.execute(status -> {
+            List<OrderSaga> sagas = sagaRepository.findDueForUpdate(
+                    SagaStep.ACTIVE, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            LocalDateTime leaseEnd = leaseEnd();
+            sagas.forEach(saga -> saga.setNextAttemptAt(leaseEnd));
+            return sagas;
+        });
+
+        for (OrderSaga saga : due) {
+            log.info("Resuming payment saga {} of order {} at step {}", saga.getId(), saga.getOrderId(), saga.getStep());
+            run(saga);
+        }
+    }
+
+    /**
+     * Runs steps until the saga finishes or a step has to wait for a retry.
+     */
+    OrderSaga run(OrderSaga saga) {
+        List<OrderItem> items = null;
+        while (!saga.getStep().isTerminal()) {
+            SagaStep step = saga.getStep();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                if (items == null && (step == SagaStep.RESERVE_INVENTORY || step == SagaStep.RELEASE_INVENTORY)) {
+                    items = itemsOf(saga.getOrderId());
+                }
+                execute(saga, items);
+                stop(sample, step, "success");
+            } catch (RuntimeException e) {
+                boolean retryable = isRetryable(e);
+                stop(sample, step, retryable ? "retry" : "failure");
+                if (!handleFailure(saga, items, e, retryable)) {
+                    return saga;
+                }
+            }
+        }
+        Counter.builder("orders.saga.finished")
+                .tag("result", saga.getStep().name())
+                .register(meterRegistry)
+                .increment();
+        return saga;
+    }
+
+    private void execute(OrderSaga saga, List<OrderItem> items) {
+        switch (saga.getStep()) {
+            case RESERVE_INVENTORY -> {
+                if (saga.getReservedItems() < items.size()) {
+                    OrderItem item = items.get(saga.getReservedItems());
+                    productClient.reduceInventory(item.getProductId(), item.getQuantity(),
+                            reservationKey(saga, saga.getReservedItems()));
+                    log.info("Reduced inventory for product {}: {} units", item.getProductId(), item.getQuantity());
+                    saga.setReservedItems(saga.getReservedItems() + 1);
+                    saveProgress(saga);
+                } else {
+                    advance(saga, SagaStep.CHARGE_PAYMENT);
+                }
+            }
+            case CHARGE_PAYMENT -> {
+                String reference = paymentGateway.charge(
+                        "order-" + saga.getOrderId() + "-saga-" + saga.getId(), saga.getAmount(), saga.getPaymentMethod());
+                saga.setPaymentReference(reference);
+                advance(saga, SagaStep.CONFIRM_ORDER);
+            }
+            case CONFIRM_ORDER -> {
+                // The order and the saga change in one transaction
+                transactionTemplate.executeWithoutResult(status -> {
+                    Order order = orderRepository.findAllByIdForUpdate(List.of(saga.getOrderId())).stream()
+                            .findFirst()
+                            .orElseThrow(() -> new ResourceNotFoundException("Order", "id", saga.getOrderId()));
+                    if (order.getStatus() != OrderStatus.PENDING) {
+                        throw new InvalidOrderException("Order is no longer PENDING: " + order.getStatus());
+                    }
+                    order.setStatus(OrderStatus.CONFIRMED);
+                    statusCounter.recordTransition(order, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+                    summaryProjector.updateStatus(order);
+                    OrderSaga current = sagaRepository.findById(saga.getId())
+                            .orElseThrow(() -> new IllegalStateException("Saga " + saga.getId() + " disappeared"));
+                    current.setStep(SagaStep.COMPLETED);
+                    current.setAttempts(0);
+                });
+                saga.setStep(SagaStep.COMPLETED);
+                saga.setAttempts(0);
+                log.info("Payment processed successfully for order {}", saga.getOrderId());
+            }
+            case REFUND_PAYMENT -> {
+                if (saga.getPaymentReference() != null) {
+                    paymentGateway.refund(saga.getPaymentReference());
+                    log.info("Refunded payment {} of order {}", saga.getPaymentReference(), saga.getOrderId());
+                }
+                advance(saga, SagaStep.RELEASE_INVENTORY);
+            }
+            case RELEASE_INVENTORY -> {
+                if (saga.getReservedItems() > 0) {
+                    OrderItem item = items.get(saga.getReservedItems() - 1);
+                    productClient.restoreInventory(item.getProductId(), item.getQuantity(),
+                            reservationKey(saga, saga.getReservedItems() - 1));
+                    log.info("Restored inventory for product {}: {} units", item.getProductId(), item.getQuantity());
+                    saga.setReservedItems(saga.getReservedItems() - 1);
+                    saveProgress(saga);
+                } else {
+                    advance(saga, SagaStep.COMPENSATED);
+                    log.warn("Payment saga {} of order {} compensated: {}", saga.getId(), saga.getOrderId(), saga.getLastError());
+                }
+            }
+            default -> throw new IllegalStateException("Saga " + saga.getId() + " is already " + saga.getStep());
+        }
+    }
+
+    /**
+     * Records a failed step.
+     *
+     * @return true if the saga can continue right away, false if it has to wait for a retry.
+     */
+    private boolean handleFailure(OrderSaga saga, List<OrderItem> items, RuntimeException e, boolean retryable) {
+        int attempts = saga.getAttempts() + 1;
+        saga.setLastError(truncate(saga.getStep() + ": " + e.getMessage()));
+
+        if (saga.getStep().isCompensation()) {
+            if (attempts >= compensationMaxAttempts) {
+                log.error("Compensation of payment saga {} of order {} gave up at step {}: {}",
+                        saga.getId(), saga.getOrderId(), saga.getStep(), e.getMessage());
+                advance(saga, SagaStep.FAILED);
+                return true;
+            }
+            scheduleRetry(saga, attempts);
+            return false;
+        }
+
+        if (retryable && attempts < maxAttempts) {
+            scheduleRetry(saga, attempts);
+            return false;
+        }
+
+        log.error("Payment saga {} of order {} failed at step {}, compensating: {}",
+                saga.getId(), saga.getOrderId(), saga.getStep(), e.getMessage());
+        // A reservation that failed with a transient error may still have been applied; releasing its key
+        // undoes it if so and otherwise makes sure it is never applied later
+        if (saga.getStep() == SagaStep.RESERVE_INVENTORY && retryable
+                && items != null && saga.getReservedItems() < items.size()) {
+            saga.setReservedItems(saga.getReservedItems() + 1);
+        }
+        advance(saga, saga.getPaymentReference() != null ? SagaStep.REFUND_PAYMENT : SagaStep.RELEASE_INVENTORY);
+        return true;
+    }
+
+    private void scheduleRetry(OrderSaga saga, int attempts) {
+        long delay = Math.min(maxRetryDelayMs, retryDelayMs << Math.min(attempts - 1, 20));
+        saga.setAttempts(attempts);
+        saga.setNextAttemptAt(LocalDateTime.now().plus(delay, ChronoUnit.MILLIS));
+        sagaRepository.save(saga);
+        log.warn("Payment saga {} of order {} will retry step {} in {} ms (attempt {}): {}",
+                saga.getId(), saga.getOrderId(), saga.getStep(), delay, attempts, saga.getLastError());
+    }
+
+    private void advance(OrderSaga saga, SagaStep next) {
+        saga.setStep(next);
+        saga.setAttempts(0);
+        saveProgress(saga);
+    }
+
+    private void saveProgress(OrderSaga saga) {
+        saga.setNextAttemptAt(leaseEnd());
+        sagaRepository.save(saga);
+    }
+
+    private List<OrderItem> itemsOf(Long orderId) {
+        return orderRepository.findByIdWithItems(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId))
+                .getOrderItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getId))
+                .collect(Collectors.toList());
+    }
+
+    private void stop(Timer.Sample sample, SagaStep step, String outcome) {
+        sample.stop(Timer.builder("orders.saga.step")
+                .description("Duration of payment saga steps")
+                .tag("step", step.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private LocalDateTime leaseEnd() {
+        return LocalDateTime.now().plus(leaseMs, ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Transport errors and server errors are retried; rejected requests and declined payments are not.
+     */
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof PaymentDeclinedException
+                || e instanceof InvalidOrderException
+                || e instanceof ResourceNotFoundException
+                || e instanceof ClientRequestException) {
+            return false;
+        }
+        if (e instanceof FeignException feignException) {
+            return feignException.status() < 0 || feignException.status() >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * Key under which Product Service applies the reservation of one order item, and its release, once
+     */
+    static String reservationKey(OrderSaga saga, int itemIndex) {
+        return "saga-" + saga.getId() + "-item-" + itemIndex;
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,10 +1,19 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.dto.OrderFilter;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderStatsResponse;
+import com.ecommerce.order.dto.OrderStatusResponse;
+import com.ecommerce.order.dto.OrderSummaryPageResponse;
 import com.ecommerce.order.dto.PaymentRequest;
 import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.RollupGranularity;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,6 +30,26 @@ public interface OrderService {
      */
     OrderResponse createOrder(Long userId, OrderRequest orderRequest);
 
+    /**
+     * Accepts a new order for asynchronous validation.
+     * The order is saved in PENDING_VALIDATION status and queued; a worker later moves it
+     * to PENDING or REJECTED.
+     *
+     * @param userId the user ID
+     * @param orderRequest the order creation request
+     * @return the accepted order response
+     */
+    OrderResponse submitOrder(Long userId, OrderRequest orderRequest);
+
+    /**
+     * Retrieves the status of an order.
+     *
+     * @param orderId the order ID
+     * @param userId the user ID (for authorization)
+     * @return the order status response
+     */
+    OrderStatusResponse getOrderStatus(Long orderId, Long userId);
+
     /**
      * Retrieves an order by ID.
      *
@@ -31,19 +60,73 @@ public interface OrderService {
     OrderResponse getOrderById(Long orderId, Long userId);
 
     /**
-     * Retrieves all orders for a user.
+     * Retrieves one page of a user's orders, newest first.
+     *
+     * @param userId the user ID
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the page size
+     * @return the page of orders
+     */
+    OrderPageResponse getUserOrders(Long userId, String cursor, int limit);
+
+    /**
+     * Retrieves one page of a user's order summaries, newest first, from the summary projection.
      *
      * @param userId the user ID
-     * @return list of order responses
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the page size
+     * @return the page of order summaries
+     */
+    OrderSummaryPageResponse getUserOrderSummaries(Long userId, String cursor, int limit);
+
+    /**
+     * Retrieves one page of orders, newest first (admin only).
+     *
+     * @param filter the filters to apply
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the page size
+     * @return the page of orders
+     */
+    OrderPageResponse getOrders(OrderFilter filter, String cursor, int limit);
+
+    /**
+     * Retrieves one page of orders with a status, newest first (admin only).
+     *
+     * @param status the order status
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the page size
+     * @return the page of orders
+     */
+    OrderPageResponse getOrdersByStatus(OrderStatus status, String cursor, int limit);
+
+    /**
+     * Counts the orders with a status from incrementally maintained counters (admin only).
+     *
+     * @param status the order status
+     * @return the number of orders
+     */
+    long countOrdersByStatus(OrderStatus status);
+
+    /**
+     * Returns order volume and revenue by creation time from incrementally maintained rollups (admin only).
+     *
+     * @param granularity the bucket size
+     * @param from the start of the range, rounded down to a bucket
+     * @param to the end of the range (exclusive)
+     * @return the totals of the range and of each of its buckets
      */
-    List<OrderResponse> getUserOrders(Long userId);
+    OrderStatsResponse getOrderStats(RollupGranularity granularity, LocalDateTime from, LocalDateTime to);
 
     /**
-     * Retrieves all orders (admin only).
+     * Writes all orders matching the filters as newline-delimited JSON, newest first (admin only).
+     * Orders are read with a database cursor, so memory use does not grow with the number of orders.
      *
-     * @return list of all order responses
+     * @param filter the filters to apply
+     * @param outputStream the stream to write to
+     * @return the number of orders written
+     * @throws IOException if writing fails
      */
-    List<OrderResponse> getAllOrders();
+    long exportOrders(OrderFilter filter, OutputStream outputStream) throws IOException;
 
     /**
      * Updates the status of an order.
@@ -1,25 +1,53 @@
 package com.ecommerce.order.service;
 
 import com.ecommerce.order.client.ProductClient;
-import com.ecommerce.order.client.UserClient;
 import com.ecommerce.order.dto.*;
-import com.ecommerce.order.exception.InsufficientStockException;
 import com.ecommerce.order.exception.InvalidOrderException;
 import com.ecommerce.order.exception.PaymentFailedException;
 import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.intake.OrderIntakeQueue;
 import com.ecommerce.order.model.Order;
 import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderRollup;
+import com.ecommerce.order.model.OrderSaga;
 import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderSummary;
+import com.ecommerce.order.model.RollupGranularity;
+import com.ecommerce.order.model.SagaStep;
+import com.ecommerce.order.projection.OrderSummaryProjector;
+import com.ecommerce.order.repository.OrderItemRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderRollupRepository;
+import com.ecommerce.order.repository.OrderSagaRepository;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import com.ecommerce.order.saga.PaymentSagaOrchestrator;
+import com.ecommerce.order.stats.OrderStatusCounter;
+import com.ecommerce.order.storage.OrderArchive;
+import com.ecommerce.order.util.OrderCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of OrderService interface.
@@ -30,86 +58,129 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    // A day of minutes, two months of hours or four years of days
+    private static final int MAX_STATS_BUCKETS = 1500;
+    private static final Set<OrderStatus> PAID_STATUSES =
+            EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductClient productClient;
-    private final UserClient userClient;
+    private final OrderValidator orderValidator;
+    private final UserVerifier userVerifier;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final OrderSagaRepository orderSagaRepository;
+    private final PaymentSagaOrchestrator paymentSagaOrchestrator;
+    private final OrderStatusCounter orderStatusCounter;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderArchive orderArchive;
+    private final OrderRollupRepository orderRollupRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     @Transactional
     public OrderResponse createOrder(Long userId, OrderRequest orderRequest) {
         log.info("Creating order for user ID: {}", userId);
 
-        // Validate user exists
-        try {
-            userClient.getUser(userId);
-        } catch (Exception e) {
-            log.error("User not found: {}", userId);
-            throw new ResourceNotFoundException("User", "id", userId);
-        }
+        // Validate user, products and stock concurrently
+        List<OrderItemRequest> itemRequests = orderRequest.getOrderItems();
+        List<ProductResponse> products = orderValidator.validate(userId, itemRequests);
 
-        // Validate order items and check stock
-        List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (OrderItemRequest itemRequest : orderRequest.getOrderItems()) {
-            // Get product details
-            ProductResponse product;
-            try {
-                product = productClient.getProduct(itemRequest.getProductId());
-            } catch (Exception e) {
-                log.error("Product not found: {}", itemRequest.getProductId());
-                throw new ResourceNotFoundException("Product", "id", itemRequest.getProductId());
-            }
-
-            // Check stock availability
-            Boolean stockAvailable = productClient.checkStock(
-                    itemRequest.getProductId(),
-                    itemRequest.getQuantity()
-            );
+        // The ID is taken from the pooled sequence without an INSERT, so items can reference it up front
+        // and the order and all of its items are inserted together in JDBC batches
+        Order savedOrder = orderRepository.save(Order.builder()
+                .userId(userId)
+                .totalAmount(BigDecimal.ZERO)
+                .status(OrderStatus.PENDING)
+                .build());
 
-            if (!stockAvailable) {
-                log.error("Insufficient stock for product: {}", product.getName());
-                throw new InsufficientStockException(product.getId(), itemRequest.getQuantity());
-            }
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (int i = 0; i < itemRequests.size(); i++) {
+            OrderItemRequest itemRequest = itemRequests.get(i);
+            ProductResponse product = products.get(i);
 
             // Create order item
             BigDecimal itemPrice = product.getPrice();
             BigDecimal itemSubtotal = itemPrice.multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
 
-            OrderItem orderItem = OrderItem.builder()
+            savedOrder.addOrderItem(OrderItem.builder()
                     .productId(product.getId())
                     .productName(product.getName())
                     .quantity(itemRequest.getQuantity())
                     .price(itemPrice)
-                    .build();
-
-            orderItems.add(orderItem);
+                    .build());
             totalAmount = totalAmount.add(itemSubtotal);
         }
+        savedOrder.setTotalAmount(totalAmount);
+        // Sends the batched inserts now, so the response carries the item IDs and creation time
+        orderRepository.flush();
+
+        orderStatusCounter.recordTransition(savedOrder, null, OrderStatus.PENDING);
+        orderSummaryProjector.project(savedOrder);
+
+        log.info("Order created successfully with ID: {}", savedOrder.getId());
+
+        return mapToOrderResponse(savedOrder);
+    }
+
+    @Override
+    @Transactional
+    public OrderResponse submitOrder(Long userId, OrderRequest orderRequest) {
+        log.info("Accepting order for user ID: {}", userId);
+
+        // Users vouched for by the gateway need no lookup by the intake worker
+        boolean userVerified = userVerifier.isKnown(userId);
 
-        // Create order
         Order order = Order.builder()
                 .userId(userId)
-                .orderItems(orderItems)
-                .totalAmount(totalAmount)
-                .status(OrderStatus.PENDING)
+                .totalAmount(BigDecimal.ZERO)
+                .status(OrderStatus.PENDING_VALIDATION)
                 .build();
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        orderStatusCounter.recordTransition(savedOrder, null, OrderStatus.PENDING_VALIDATION);
+        orderSummaryProjector.project(savedOrder);
+        orderIntakeQueue.enqueue(savedOrder.getId(), userId, userVerified, orderRequest);
 
-        // Set order ID for each order item
-        Order savedOrder = orderRepository.save(order);
-        orderItems.forEach(item -> item.setOrderId(savedOrder.getId()));
-
-        log.info("Order created successfully with ID: {}", savedOrder.getId());
+        log.info("Order {} accepted for validation", savedOrder.getId());
 
         return mapToOrderResponse(savedOrder);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public OrderStatusResponse getOrderStatus(Long orderId, Long userId) {
+        Order order = orderRepository.findById(orderId)
+                .or(() -> orderArchive.findByIdWithItems(orderId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+
+        // Check if user owns the order
+        if (!order.getUserId().equals(userId)) {
+            log.error("User {} is not authorized to access order {}", userId, orderId);
+            throw new InvalidOrderException("You are not authorized to access this order");
+        }
+
+        return OrderStatusResponse.builder()
+                .id(order.getId())
+                .status(order.getStatus())
+                .rejectionReason(order.getRejectionReason())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId, Long userId) {
         log.info("Fetching order ID: {} for user ID: {}", orderId, userId);
 
         Order order = orderRepository.findByIdWithItems(orderId)
+                .or(() -> orderArchive.findByIdWithItems(orderId))
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
 
         // Check if user owns the order
@@ -123,24 +194,146 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponse> getUserOrders(Long userId) {
-        log.info("Fetching all orders for user ID: {}", userId);
+    public OrderPageResponse getUserOrders(Long userId, String cursor, int limit) {
+        return getOrders(OrderFilter.builder().userId(userId).build(), cursor, limit);
+    }
 
-        List<Order> orders = orderRepository.findByUserIdWithItems(userId);
-        return orders.stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public OrderSummaryPageResponse getUserOrderSummaries(Long userId, String cursor, int limit) {
+        log.info("Fetching order summaries for user ID: {} from cursor {}", userId, cursor);
+
+        OrderCursor after = cursor != null ? OrderCursor.parse(cursor) : null;
+        List<OrderSummary> summaries = orderSummaryRepository.findPageByUser(userId,
+                after != null ? after.getCreatedAt() : LATEST, after != null ? after.getId() : 0L, limit);
+
+        String nextCursor = null;
+        if (summaries.size() == limit) {
+            OrderSummary last = summaries.get(summaries.size() - 1);
+            nextCursor = OrderCursor.of(last.getCreatedAt(), last.getOrderId());
+        }
+        return OrderSummaryPageResponse.builder()
+                .summaries(summaries.stream().map(this::mapToOrderSummaryResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponse> getAllOrders() {
-        log.info("Fetching all orders");
+    public OrderPageResponse getOrders(OrderFilter filter, String cursor, int limit) {
+        log.info("Fetching orders matching {} from cursor {}", filter, cursor);
+
+        // The first page starts right before createdTo, which makes the upper bound exclusive
+        OrderCursor after = cursor != null ? OrderCursor.parse(cursor) : null;
+        LocalDateTime createdFrom = filter.getCreatedFrom() != null ? filter.getCreatedFrom() : EARLIEST;
+        LocalDateTime afterCreatedAt = after != null ? after.getCreatedAt()
+                : filter.getCreatedTo() != null ? filter.getCreatedTo() : LATEST;
+        long afterId = after != null ? after.getId() : 0L;
+        if (createdFrom.isAfter(afterCreatedAt)) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
 
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+        String status = filter.getStatus() != null ? filter.getStatus().name() : null;
+        Long userId = filter.getUserId();
+        List<Long> ids;
+        if (userId != null && status != null) {
+            ids = orderRepository.findPageIdsByUserAndStatus(userId, status, createdFrom, afterCreatedAt, afterId, limit);
+        } else if (userId != null) {
+            ids = orderRepository.findPageIdsByUser(userId, createdFrom, afterCreatedAt, afterId, limit);
+        } else if (status != null) {
+            ids = orderRepository.findPageIdsByStatus(status, createdFrom, afterCreatedAt, afterId, limit);
+        } else {
+            ids = orderRepository.findPageIds(createdFrom, afterCreatedAt, afterId, limit);
+        }
+
+        List<OrderResponse> orders = loadOrders(ids);
+        String nextCursor = null;
+        if (ids.size() == limit && !orders.isEmpty()) {
+            OrderResponse last = orders.get(orders.size() - 1);
+            nextCursor = OrderCursor.of(last.getCreatedAt(), last.getId());
+        }
+        return OrderPageResponse.builder()
+                .orders(orders)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageResponse getOrdersByStatus(OrderStatus status, String cursor, int limit) {
+        return getOrders(OrderFilter.builder().status(status).build(), cursor, limit);
+    }
+
+    @Override
+    public long countOrdersByStatus(OrderStatus status) {
+        return orderStatusCounter.count(status);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderStatsResponse getOrderStats(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.bucketOf(from);
+        if (!to.isAfter(start)) {
+            throw new InvalidOrderException("The end of the range must be after its start");
+        }
+        if (granularity.getUnit().between(start, to) >= MAX_STATS_BUCKETS) {
+            throw new InvalidOrderException("The range spans more than " + MAX_STATS_BUCKETS + " " +
+                    granularity.name().toLowerCase() + " buckets; use a coarser granularity");
+        }
+        log.info("Fetching {} order stats from {} to {}", granularity, start, to);
+
+        List<OrderRollup> rollups = orderRollupRepository.findRange(granularity, start, to);
+        Map<LocalDateTime, List<OrderRollup>> byBucket = rollups.stream()
+                .collect(Collectors.groupingBy(rollup -> rollup.getId().getBucketStart(),
+                        LinkedHashMap::new, Collectors.toList()));
+        return OrderStatsResponse.builder()
+                .granularity(granularity)
+                .from(start)
+                .to(to)
+                .totals(mapToOrderStatsBucketResponse(start, rollups))
+                .buckets(byBucket.entrySet().stream()
+                        .map(bucket -> mapToOrderStatsBucketResponse(bucket.getKey(), bucket.getValue()))
+                        .filter(bucket -> bucket.getOrderCount() > 0)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderFilter filter, OutputStream outputStream) throws IOException {
+        log.info("Exporting orders matching {}", filter);
+
+        long count = 0;
+        try (Stream<Object[]> rows = orderRepository.streamWithItems(filter.getStatus(), filter.getUserId(),
+                filter.getCreatedFrom() != null ? filter.getCreatedFrom() : EARLIEST,
+                filter.getCreatedTo() != null ? filter.getCreatedTo() : LATEST)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            Order current = null;
+            List<OrderItem> items = new ArrayList<>();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Order order = (Order) row[0];
+                OrderItem item = (OrderItem) row[1];
+                if (current != null && !current.getId().equals(order.getId())) {
+                    writeLine(outputStream, mapToOrderResponse(current, items), ++count);
+                    items = new ArrayList<>();
+                }
+                current = order;
+                if (item != null) {
+                    items.add(item);
+                    entityManager.detach(item);
+                }
+                // Keep the persistence context empty while scanning
+                entityManager.detach(order);
+            }
+            if (current != null) {
+                writeLine(outputStream, mapToOrderResponse(current, items), ++count);
+            }
+        }
+        outputStream.flush();
+
+        log.info("Exported {} orders", count);
+        return count;
     }
 
     @Override
@@ -154,8 +347,10 @@ public class OrderServiceImpl implements OrderService {
         // Validate status transition
         validateStatusTransition(order.getStatus(), status);
 
+        orderStatusCounter.recordTransition(order, order.getStatus(), status);
         order.setStatus(status);
         Order updatedOrder = orderRepository.save(order);
+        orderSummaryProjector.updateStatus(updatedOrder);
 
         log.info("Order {} status updated to {}", orderId, status);
 
@@ -182,11 +377,17 @@ public class OrderServiceImpl implements OrderService {
             throw new InvalidOrderException("Order cannot be cancelled in current status: " + order.getStatus());
         }
 
+        // Inventory and payment of an order being paid are owned by its saga
+        if (orderSagaRepository.existsByOrderIdAndStepIn(orderId, SagaStep.ACTIVE)) {
+            log.error("Order {} cannot be cancelled while its payment is in progress", orderId);
+            throw new InvalidOrderException("Order cannot be cancelled while its payment is in progress");
+        }
+
         // Restore inventory for confirmed orders
         if (order.getStatus() == OrderStatus.CONFIRMED) {
             for (OrderItem item : order.getOrderItems()) {
                 try {
-                    productClient.restoreInventory(item.getProductId(), item.getQuantity());
+                    productClient.restoreInventory(item.getProductId(), item.getQuantity(), null);
                     log.info("Restored inventory for product {}: {} units", item.getProductId(), item.getQuantity());
                 } catch (Exception e) {
                     log.error("Failed to restore inventory for product {}", item.getProductId(), e);
@@ -194,8 +395,10 @@ public class OrderServiceImpl implements OrderService {
             }
         }
 
+        orderStatusCounter.recordTransition(order, order.getStatus(), OrderStatus.CANCELLED);
         order.setStatus(OrderStatus.CANCELLED);
         Order cancelledOrder = orderRepository.save(order);
+        orderSummaryProjector.updateStatus(cancelledOrder);
 
         log.info("Order {} cancelled successfully", orderId);
 
@@ -203,69 +406,19 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Transactional
     public OrderResponse processPayment(Long orderId, PaymentRequest paymentRequest) {
         log.info("Processing payment for order {}", orderId);
 
-        Order order = orderRepository.findByIdWithItems(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-
-        // Validate order status
-        if (order.getStatus() != OrderStatus.PENDING) {
-            log.error("Order {} is not in PENDING status. Current status: {}", orderId, order.getStatus());
-            throw new InvalidOrderException("Order must be in PENDING status to process payment");
-        }
-
-        // Validate payment amount
-        if (paymentRequest.getAmount().compareTo(order.getTotalAmount()) != 0) {
-            log.error("Payment amount mismatch for order {}. Expected: {}, Received: {}",
-                    orderId, order.getTotalAmount(), paymentRequest.getAmount());
-            throw new PaymentFailedException("Payment amount does not match order total");
+        OrderSaga saga = paymentSagaOrchestrator.start(orderId, paymentRequest);
+        if (saga.getStep() == SagaStep.COMPENSATED || saga.getStep() == SagaStep.FAILED) {
+            log.error("Payment processing failed for order {}: {}", orderId, saga.getLastError());
+            throw new PaymentFailedException("Payment processing failed: " + saga.getLastError());
         }
 
-        try {
-            // Simulate payment processing
-            boolean paymentSuccess = processPaymentWithGateway(paymentRequest);
-
-            if (!paymentSuccess) {
-                throw new PaymentFailedException("Payment processing failed");
-            }
-
-            // Reduce inventory after successful payment
-            for (OrderItem item : order.getOrderItems()) {
-                productClient.reduceInventory(item.getProductId(), item.getQuantity());
-                log.info("Reduced inventory for product {}: {} units", item.getProductId(), item.getQuantity());
-            }
-
-            // Update order status to CONFIRMED
-            order.setStatus(OrderStatus.CONFIRMED);
-            Order confirmedOrder = orderRepository.save(order);
-
-            log.info("Payment processed successfully for order {}", orderId);
-
-            return mapToOrderResponse(confirmedOrder);
-
-        } catch (Exception e) {
-            log.error("Payment processing failed for order {}: {}", orderId, e.getMessage());
-            throw new PaymentFailedException("Payment processing failed: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Simulates payment processing with a payment gateway.
-     * In a real-world scenario, this would integrate with actual payment providers.
-     *
-     * @param paymentRequest the payment details
-     * @return true if payment is successful
-     */
-    private boolean processPaymentWithGateway(PaymentRequest paymentRequest) {
-        // Simulate payment processing logic
-        log.info("Processing payment with method: {} for amount: {}",
-                paymentRequest.getPaymentMethod(), paymentRequest.getAmount());
-
-        // In a real implementation, this would call a payment gateway API
-        // For now, we'll assume payment is successful
-        return true;
+        // Either confirmed, or still PENDING while a step waits for its retry
+        Order order = orderRepository.findByIdWithItems(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return mapToOrderResponse(order);
     }
 
     /**
@@ -279,7 +432,8 @@ public class OrderServiceImpl implements OrderService {
             case PENDING -> newStatus == OrderStatus.CONFIRMED || newStatus == OrderStatus.CANCELLED;
             case CONFIRMED -> newStatus == OrderStatus.SHIPPED || newStatus == OrderStatus.CANCELLED;
             case SHIPPED -> newStatus == OrderStatus.DELIVERED;
-            case DELIVERED, CANCELLED -> false;
+            case PENDING_VALIDATION -> newStatus == OrderStatus.CANCELLED;
+            case DELIVERED, CANCELLED, REJECTED -> false;
         };
 
         if (!isValid) {
@@ -289,6 +443,44 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    /**
+     * Loads orders and their items with one query each, in the order of the given IDs.
+     * Second phase of every listing: the IDs are paged first, so the item query never needs
+     * a JOIN FETCH that would have to be paginated in memory.
+     *
+     * @param ids the order IDs
+     * @return the order response DTOs
+     */
+    private List<OrderResponse> loadOrders(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Order> ordersById = orderRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        Map<Long, List<OrderItem>> itemsByOrderId = orderItemRepository.findByOrderIdInOrderByOrderIdAscIdAsc(ids).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        return ids.stream()
+                .filter(ordersById::containsKey)
+                .map(id -> mapToOrderResponse(ordersById.get(id), itemsByOrderId.getOrDefault(id, List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes an order as one line of newline-delimited JSON.
+     *
+     * @param outputStream the stream to write to
+     * @param order the order response DTO
+     * @param count the number of orders written including this one
+     * @throws IOException if writing fails
+     */
+    private void writeLine(OutputStream outputStream, OrderResponse order, long count) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(order));
+        outputStream.write('\n');
+        if (count % EXPORT_FLUSH_INTERVAL == 0) {
+            outputStream.flush();
+        }
+    }
+
     /**
      * Maps an Order entity to OrderResponse DTO.
      *
@@ -296,7 +488,18 @@ public class OrderServiceImpl implements OrderService {
      * @return the order response DTO
      */
     private OrderResponse mapToOrderResponse(Order order) {
-        List<OrderItemResponse> itemResponses = order.getOrderItems().stream()
+        return mapToOrderResponse(order, order.getOrderItems());
+    }
+
+    /**
+     * Maps an Order entity and its separately loaded items to OrderResponse DTO.
+     *
+     * @param order the order entity
+     * @param items the items of the order
+     * @return the order response DTO
+     */
+    private OrderResponse mapToOrderResponse(Order order, List<OrderItem> items) {
+        List<OrderItemResponse> itemResponses = items.stream()
                 .map(this::mapToOrderItemResponse)
                 .collect(Collectors.toList());
 
@@ -306,11 +509,62 @@ public class OrderServiceImpl implements OrderService {
                 .orderItems(itemResponses)
                 .totalAmount(order.getTotalAmount())
                 .status(order.getStatus())
+                .rejectionReason(order.getRejectionReason())
                 .createdAt(order.getCreatedAt())
                 .updatedAt(order.getUpdatedAt())
                 .build();
     }
 
+    /**
+     * Maps an OrderSummary projection row to OrderSummaryResponse DTO.
+     *
+     * @param summary the order summary
+     * @return the order summary response DTO
+     */
+    private OrderSummaryResponse mapToOrderSummaryResponse(OrderSummary summary) {
+        return OrderSummaryResponse.builder()
+                .id(summary.getOrderId())
+                .status(summary.getStatus())
+                .itemCount(summary.getItemCount())
+                .totalAmount(summary.getTotalAmount())
+                .firstItemName(summary.getFirstItemName())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Adds up the rollups of a bucket, or of a whole range, into OrderStatsBucketResponse DTO.
+     *
+     * @param bucketStart the start of the bucket or range
+     * @param rollups the rollups of every status
+     * @return the order stats response DTO
+     */
+    private OrderStatsBucketResponse mapToOrderStatsBucketResponse(LocalDateTime bucketStart, List<OrderRollup> rollups) {
+        Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        long paidOrderCount = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (OrderRollup rollup : rollups) {
+            OrderStatus status = rollup.getId().getStatus();
+            ordersByStatus.merge(status, rollup.getOrderCount(), Long::sum);
+            if (PAID_STATUSES.contains(status)) {
+                paidOrderCount += rollup.getOrderCount();
+                revenue = revenue.add(rollup.getTotalAmount());
+            }
+        }
+        ordersByStatus.values().removeIf(count -> count == 0);
+        return OrderStatsBucketResponse.builder()
+                .bucketStart(bucketStart)
+                .orderCount(ordersByStatus.values().stream().mapToLong(Long::longValue).sum())
+                .paidOrderCount(paidOrderCount)
+                .revenue(revenue)
+                .averageOrderValue(paidOrderCount > 0
+                        ? revenue.divide(BigDecimal.valueOf(paidOrderCount), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO)
+                .ordersByStatus(ordersByStatus)
+                .build();
+    }
+
     /**
      * Maps an OrderItem entity to OrderItemResponse DTO.
      *
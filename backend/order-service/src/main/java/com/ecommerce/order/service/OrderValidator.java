@@ -0,0 +1,182 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.client.ProductLoader;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.InsufficientStockException;
+import com.ecommerce.order.exception.InvalidOrderException;
+import com.ecommerce.order.exception.OrderValidationTimeoutException;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates the user and the order items of a new order.
+ * The user lookup (unless the user is already verified) and, for every item, the product lookup
+ * and the stock check run concurrently on the validation executor. The first failing call cancels
+ * the others, and all of them together must finish within a per-order deadline.
+ * Product lookups go through ProductLoader, which batches them with those of concurrent orders.
+ */
+@Component
+@Slf4j
+public class OrderValidator {
+
+    private final ProductClient productClient;
+    private final ProductLoader productLoader;
+    private final UserVerifier userVerifier;
+    private final ExecutorService executor;
+
+    @Value("${application.order.validation.deadline-ms:3000}")
+    private long deadlineMs;
+
+    public OrderValidator(ProductClient productClient,
+                          ProductLoader productLoader,
+                          UserVerifier userVerifier,
+                          @Qualifier("orderValidationExecutor") ExecutorService executor) {
+        this.productClient = productClient;
+        this.productLoader = productLoader;
+        this.userVerifier = userVerifier;
+        this.executor = executor;
+    }
+
+    /**
+     * Validates an order and returns the product of every item.
+     *
+     * @param userId the ID of the user placing the order.
+     * @param items the requested order items.
+     * @return the products, in the same order as the items.
+     * @throws ResourceNotFoundException if the user or a product does not exist.
+     * @throws InvalidOrderException if the user's account is not active.
+     * @throws InsufficientStockException if an item's quantity is not in stock.
+     * @throws OrderValidationTimeoutException if validation does not finish before the deadline.
+     * @throws ServiceUnavailableException if the User or Product Service is failing fast, or the
+     *         validation executor is saturated.
+     */
+    public List<ProductResponse> validate(Long userId, List<OrderItemRequest> items) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        CompletionService<Object> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Object>> calls = new ArrayList<>(1 + 2 * items.size());
+        List<Future<Object>> productCalls = new ArrayList<>(items.size());
+
+        try {
+            if (!userVerifier.isKnown(userId)) {
+                calls.add(completionService.submit(withRequestContext(requestAttributes, () -> {
+                    userVerifier.verify(userId);
+                    return null;
+                })));
+            }
+            for (OrderItemRequest item : items) {
+                Future<Object> productCall = completionService.submit(
+                        withRequestContext(requestAttributes, () -> fetchProduct(item.getProductId())));
+                productCalls.add(productCall);
+                calls.add(productCall);
+                calls.add(completionService.submit(withRequestContext(requestAttributes, () -> {
+                    checkStock(item, productCall);
+                    return null;
+                })));
+            }
+
+            for (int completed = 0; completed < calls.size(); completed++) {
+                Future<Object> call = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (call == null) {
+                    log.error("Validation of order for user {} timed out after {} ms", userId, deadlineMs);
+                    throw new OrderValidationTimeoutException(deadlineMs);
+                }
+                call.get();
+            }
+
+            List<ProductResponse> products = new ArrayList<>(productCalls.size());
+            for (Future<Object> productCall : productCalls) {
+                products.add((ProductResponse) productCall.get());
+            }
+            return products;
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (RejectedExecutionException e) {
+            log.warn("Validation of order for user {} rejected, validation executor is saturated", userId);
+            throw new ServiceUnavailableException("order validation executor is saturated", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating order", e);
+        } finally {
+            calls.forEach(call -> call.cancel(true));
+        }
+    }
+
+    private ProductResponse fetchProduct(Long productId) {
+        try {
+            return productLoader.getProduct(productId);
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Product not found: {}", productId);
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+    }
+
+    /**
+     * Checks stock for an item. If the check itself fails, a missing product is reported
+     * instead, as it would have been had the product been looked up first.
+     */
+    private void checkStock(OrderItemRequest item, Future<Object> productCall) throws Exception {
+        Boolean stockAvailable;
+        try {
+            stockAvailable = productClient.checkStock(item.getProductId(), item.getQuantity());
+        } catch (RuntimeException e) {
+            try {
+                productCall.get();
+            } catch (ExecutionException productFailure) {
+                throw propagate(productFailure.getCause());
+            }
+            throw e;
+        }
+
+        if (!Boolean.TRUE.equals(stockAvailable)) {
+            log.error("Insufficient stock for product: {}", item.getProductId());
+            throw new InsufficientStockException(item.getProductId(), item.getQuantity());
+        }
+    }
+
+    /**
+     * Runs a call with the caller's request attributes, so Feign propagates the caller's headers.
+     */
+    private static <T> Callable<T> withRequestContext(RequestAttributes requestAttributes, Callable<T> call) {
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                return call.call();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Order validation failed", cause);
+    }
+}
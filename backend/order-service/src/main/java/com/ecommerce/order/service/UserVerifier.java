@@ -0,0 +1,114 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.UserClient;
+import com.ecommerce.order.exception.InvalidOrderException;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies that the user placing an order exists and is active.
+ * The gateway puts the user ID and account status from the signed token into the X-User-Id and
+ * X-User-Status headers, so a request carrying X-User-Status needs no call to the User Service.
+ * Requests without it (older tokens, internal callers) are checked against the User Service,
+ * and users found there are remembered for a short time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserVerifier {
+
+    private static final String USER_STATUS_HEADER = "X-User-Status";
+    private static final String ACTIVE = "ACTIVE";
+
+    private final UserClient userClient;
+    private final Map<Long, Long> knownUsers = new ConcurrentHashMap<>();
+
+    @Value("${application.order.identity.trust-gateway:true}")
+    private boolean trustGateway;
+
+    @Value("${application.order.identity.known-user-ttl-ms:60000}")
+    private long knownUserTtlMs;
+
+    @Value("${application.order.identity.known-user-cache-size:10000}")
+    private int knownUserCacheSize;
+
+    /**
+     * Verifies a user without a remote call, if possible.
+     *
+     * @param userId the ID of the user.
+     * @return true if the user is verified, false if the User Service has to be asked.
+     * @throws InvalidOrderException if the gateway asserts that the account is not active.
+     */
+    public boolean isKnown(Long userId) {
+        String assertedStatus = trustGateway ? gatewayAssertedStatus() : null;
+        if (assertedStatus != null) {
+            if (!ACTIVE.equals(assertedStatus)) {
+                log.error("User {} has account status {}", userId, assertedStatus);
+                throw new InvalidOrderException("User account is not active: " + assertedStatus);
+            }
+            return true;
+        }
+
+        Long expiresAt = knownUsers.get(userId);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt - System.nanoTime() > 0) {
+            return true;
+        }
+        knownUsers.remove(userId, expiresAt);
+        return false;
+    }
+
+    /**
+     * Verifies a user with the User Service.
+     *
+     * @param userId the ID of the user.
+     * @throws ResourceNotFoundException if the user does not exist.
+     * @throws ServiceUnavailableException if the User Service is failing fast.
+     */
+    public void verify(Long userId) {
+        try {
+            userClient.getUser(userId);
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("User not found: {}", userId);
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        remember(userId);
+    }
+
+    private void remember(Long userId) {
+        if (knownUserTtlMs <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (knownUsers.size() >= knownUserCacheSize) {
+            knownUsers.values().removeIf(expiresAt -> expiresAt - now <= 0);
+            if (knownUsers.size() >= knownUserCacheSize) {
+                return;
+            }
+        }
+        knownUsers.put(userId, now + TimeUnit.MILLISECONDS.toNanos(knownUserTtlMs));
+    }
+
+    private static String gatewayAssertedStatus() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getHeader(USER_STATUS_HEADER);
+        }
+        return null;
+    }
+}
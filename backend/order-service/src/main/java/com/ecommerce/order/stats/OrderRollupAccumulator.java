@@ -0,0 +1,133 @@
+package com.ecommerce.order.stats;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.RollupGranularity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory order rollups by minute of creation and status, waiting to be flushed.
+ * A status change moves the order's count and amount from the old status to the new one in the
+ * minute the order was created. Cells are LongAdders found through a concurrent map, so recording
+ * takes no lock and concurrent orders do not contend on a busy minute. OrderRollupFlusher drains
+ * the cells and adds them to order_rollups.
+ */
+@Component
+public class OrderRollupAccumulator {
+
+    /**
+     * Count and amount in cents accumulated for one status in one minute.
+     */
+    record Sums(long count, long cents) {
+
+        boolean isEmpty() {
+            return count == 0 && cents == 0;
+        }
+    }
+
+    record Bucket(LocalDateTime minute, OrderStatus status) {
+    }
+
+    // sumThenReset swaps each stripe out atomically, so every increment is taken by exactly one drain
+    private static final class Cell {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+
+        private Sums take() {
+            return new Sums(count.sumThenReset(), cents.sumThenReset());
+        }
+    }
+
+    private final ConcurrentHashMap<Bucket, Cell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Records a status change of an order once the caller's transaction commits.
+     *
+     * @param order the order, with its current total
+     * @param from the previous status, or null for a new order
+     * @param to the new status
+     */
+    public void record(Order order, OrderStatus from, OrderStatus to) {
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        LocalDateTime minute = RollupGranularity.MINUTE.bucketOf(createdAt);
+        long cents = toCents(order.getTotalAmount());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(minute, from, to, cents);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(minute, from, to, cents);
+            }
+        });
+    }
+
+    /**
+     * Takes the sums accumulated since the last drain.
+     * Cells that saw no change since the last drain are removed and drained once more; an increment
+     * that reaches a cell after that is moved to a new cell by the thread that made it.
+     *
+     * @return the sums per minute and status, without empty ones
+     */
+    synchronized Map<Bucket, Sums> drain() {
+        Map<Bucket, Sums> drained = new HashMap<>();
+        cells.forEach((bucket, cell) -> {
+            Sums sums = cell.take();
+            if (sums.isEmpty() && cells.remove(bucket, cell)) {
+                sums = cell.take();
+            }
+            if (!sums.isEmpty()) {
+                drained.put(bucket, sums);
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * Puts back sums that could not be flushed.
+     *
+     * @param sums the sums taken by drain
+     */
+    void restore(Map<Bucket, Sums> sums) {
+        sums.forEach((bucket, sum) -> add(bucket, sum.count(), sum.cents()));
+    }
+
+    private void apply(LocalDateTime minute, OrderStatus from, OrderStatus to, long cents) {
+        // Orders awaiting validation have no total yet; it is set when they move on
+        if (from != null) {
+            add(new Bucket(minute, from), -1, from == OrderStatus.PENDING_VALIDATION ? 0 : -cents);
+        }
+        add(new Bucket(minute, to), 1, to == OrderStatus.PENDING_VALIDATION ? 0 : cents);
+    }
+
+    private void add(Bucket bucket, long count, long cents) {
+        Cell cell = cells.get(bucket);
+        if (cell == null) {
+            cell = cells.computeIfAbsent(bucket, key -> new Cell());
+        }
+        cell.count.add(count);
+        cell.cents.add(cents);
+        // The cell was removed by a drain that may have missed this increment: take back whatever is left
+        if (cells.get(bucket) != cell) {
+            Sums rest = cell.take();
+            if (!rest.isEmpty()) {
+                add(bucket, rest.count(), rest.cents());
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,167 @@
+package com.ecommerce.order.stats;
+
+import com.ecommerce.order.model.OrderRollupId;
+import com.ecommerce.order.model.RollupGranularity;
+import com.ecommerce.order.repository.OrderRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the sums drained from OrderRollupAccumulator to order_rollups.
+ * Each minute's sums are also added to its hour and day, with one JDBC batch of relative upserts, so
+ * instances flush independently. Minute and hour rows are kept for a limited time only. On first start
+ * the rollups are seeded from the orders table.
+ */
+@Component
+@Slf4j
+public class OrderRollupFlusher {
+
+    private static final String APPLY_SQL =
+            "INSERT INTO order_rollups (granularity, bucket_start, status, order_count, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (granularity, bucket_start, status) DO UPDATE SET " +
+            "order_count = order_rollups.order_count + EXCLUDED.order_count, " +
+            "total_amount = order_rollups.total_amount + EXCLUDED.total_amount";
+
+    private static final String SEED_SQL =
+            "INSERT INTO order_rollups (granularity, bucket_start, status, order_count, total_amount) " +
+            "SELECT g.granularity, date_trunc(g.unit, o.created_at), o.status, COUNT(*), SUM(o.total_amount) " +
+            "FROM orders o JOIN (VALUES ('MINUTE', 'minute', CAST(? AS TIMESTAMP)), " +
+            "('HOUR', 'hour', CAST(? AS TIMESTAMP)), ('DAY', 'day', CAST(? AS TIMESTAMP))) " +
+            "AS g (granularity, unit, since) ON o.created_at >= g.since " +
+            "GROUP BY g.granularity, date_trunc(g.unit, o.created_at), o.status";
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRollupAccumulator accumulator;
+    private final OrderRollupRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.order.rollups.minute-retention-days:7}")
+    private long minuteRetentionDays;
+
+    @Value("${application.order.rollups.hour-retention-days:90}")
+    private long hourRetentionDays;
+
+    private volatile boolean seeded;
+
+    public OrderRollupFlusher(OrderRollupAccumulator accumulator,
+                              OrderRollupRepository rollupRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.accumulator = accumulator;
+        this.rollupRepository = rollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Seeds the rollups from the orders table if there are none yet.
+     * Order writes are blocked while the orders are grouped, and sums recorded before are dropped,
+     * as their changes are already in the orders being grouped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (rollupRepository.anyExists()) {
+                return;
+            }
+            jdbcTemplate.execute("LOCK TABLE orders IN SHARE MODE");
+            // Another instance may have seeded the rollups while this one waited for the lock
+            if (rollupRepository.anyExists()) {
+                return;
+            }
+            accumulator.drain();
+            int rows = jdbcTemplate.update(SEED_SQL, Timestamp.valueOf(retainedSince(RollupGranularity.MINUTE)),
+                    Timestamp.valueOf(retainedSince(RollupGranularity.HOUR)),
+                    Timestamp.valueOf(retainedSince(RollupGranularity.DAY)));
+            log.info("Seeded {} order rollups", rows);
+        });
+        seeded = true;
+    }
+
+    @Scheduled(fixedDelayString = "${application.order.rollups.flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        // Flushing before the seed would mark the rollups as initialized without the existing orders
+        if (!seeded) {
+            return;
+        }
+        Map<OrderRollupAccumulator.Bucket, OrderRollupAccumulator.Sums> drained = accumulator.drain();
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Map<OrderRollupId, long[]> totals = new HashMap<>();
+        drained.forEach((bucket, sums) -> {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                LocalDateTime start = granularity.bucketOf(bucket.minute());
+                // Changes to orders older than the retention would recreate pruned rows
+                if (start.isBefore(retainedSince(granularity))) {
+                    continue;
+                }
+                long[] total = totals.computeIfAbsent(new OrderRollupId(granularity, start, bucket.status()),
+                        key -> new long[2]);
+                total[0] += sums.count();
+                total[1] += sums.cents();
+            }
+        });
+
+        List<Object[]> updates = new ArrayList<>(totals.size());
+        totals.forEach((id, total) -> updates.add(new Object[]{id.getGranularity().name(),
+                Timestamp.valueOf(id.getBucketStart()), id.getStatus().name(), total[0], BigDecimal.valueOf(total[1], 2)}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(APPLY_SQL, updates));
+            log.debug("Flushed {} order rollups", updates.size());
+        } catch (RuntimeException e) {
+            accumulator.restore(drained);
+            log.warn("Failed to flush {} order rollups, keeping them for the next run: {}", updates.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes minute and hour rollups older than their retention.
+     */
+    @Scheduled(fixedDelayString = "${application.order.rollups.prune-interval-ms:3600000}")
+    public void prune() {
+        int rows = 0;
+        for (RollupGranularity granularity : List.of(RollupGranularity.MINUTE, RollupGranularity.HOUR)) {
+            rows += jdbcTemplate.update("DELETE FROM order_rollups WHERE granularity = ? AND bucket_start < ?",
+                    granularity.name(), Timestamp.valueOf(retainedSince(granularity)));
+        }
+        if (rows > 0) {
+            log.info("Pruned {} order rollups", rows);
+        }
+    }
+
+    /**
+     * Returns the start of the oldest bucket kept for a granularity.
+     *
+     * @param granularity the bucket size
+     * @return the start of the oldest retained bucket
+     */
+    LocalDateTime retainedSince(RollupGranularity granularity) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (granularity) {
+            case MINUTE -> granularity.bucketOf(now.minusDays(minuteRetentionDays));
+            case HOUR -> granularity.bucketOf(now.minusDays(hourRetentionDays));
+            case DAY -> EARLIEST;
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.order.stats;
+
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusCountDelta;
+import com.ecommerce.order.repository.OrderStatusCountDeltaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds pending order status count deltas into order_status_counts.
+ * Each run claims a batch of deltas, sums them per status and applies the sums with one JDBC batch
+ * of relative upserts. On first start the counts are seeded from the orders table.
+ */
+@Component
+@Slf4j
+public class OrderStatusCountFlusher {
+
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO order_status_counts (status, order_count) VALUES (?, ?) " +
+            "ON CONFLICT (status) DO UPDATE SET order_count = order_status_counts.order_count + EXCLUDED.order_count";
+
+    private final OrderStatusCountDeltaRepository deltaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.order.status-counts.batch-size:1000}")
+    private int batchSize;
+
+    private volatile boolean seeded;
+
+    public OrderStatusCountFlusher(OrderStatusCountDeltaRepository deltaRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager) {
+        this.deltaRepository = deltaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Seeds the counts from the orders table if they have never been initialized.
+     * Order writes are blocked while the orders are counted, so no change is counted twice or lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (isSeeded()) {
+                return;
+            }
+            jdbcTemplate.execute("LOCK TABLE orders IN SHARE MODE");
+            // Another instance may have seeded the counts while this one waited for the lock
+            if (isSeeded()) {
+                return;
+            }
+            // Pending deltas are already reflected in the orders being counted
+            jdbcTemplate.update("DELETE FROM order_status_count_deltas");
+            int statuses = jdbcTemplate.update("INSERT INTO order_status_counts (status, order_count) " +
+                    "SELECT status, COUNT(*) FROM orders GROUP BY status");
+            log.info("Seeded order counts of {} statuses", statuses);
+        });
+        seeded = true;
+    }
+
+    @Scheduled(fixedDelayString = "${application.order.status-counts.flush-interval-ms:1000}")
+    public void flush() {
+        // Flushing before the seed would mark the counts as initialized without the existing orders
+        if (!seeded) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<OrderStatusCountDelta> batch = deltaRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            // Sorted by status so concurrent flushers lock rows in a consistent order
+            Map<OrderStatus, Long> totals = new EnumMap<>(OrderStatus.class);
+            batch.forEach(delta -> totals.merge(delta.getStatus(), (long) delta.getDelta(), Long::sum));
+
+            List<Object[]> updates = new ArrayList<>(totals.size());
+            totals.forEach((orderStatus, total) -> updates.add(new Object[]{orderStatus.name(), total}));
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, updates);
+            deltaRepository.deleteAllInBatch(batch);
+            log.debug("Applied {} order count deltas to {} statuses", batch.size(), totals.size());
+        });
+    }
+
+    private boolean isSeeded() {
+        Boolean seeded = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM order_status_counts)", Boolean.class);
+        return Boolean.TRUE.equals(seeded);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.order.stats;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusCount;
+import com.ecommerce.order.model.OrderStatusCountDelta;
+import com.ecommerce.order.repository.OrderStatusCountDeltaRepository;
+import com.ecommerce.order.repository.OrderStatusCountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Number of orders per status, maintained incrementally instead of counted.
+ * A status change appends -1/+1 deltas in the transaction that changes the order; appending is an
+ * insert, so concurrent orders do not serialize on the counter row of a busy status. Deltas are
+ * folded into order_status_counts by OrderStatusCountFlusher, and reads add pending deltas meanwhile.
+ * The change is also passed on to the order rollups.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusCounter {
+
+    private final OrderStatusCountRepository countRepository;
+    private final OrderStatusCountDeltaRepository deltaRepository;
+    private final OrderRollupAccumulator rollupAccumulator;
+
+    /**
+     * Records a status change of an order in the caller's transaction.
+     *
+     * @param order the order, with its current total
+     * @param from the previous status, or null for a new order
+     * @param to the new status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderStatusCountDelta> deltas = new ArrayList<>(2);
+        if (from != null) {
+            deltas.add(OrderStatusCountDelta.builder().status(from).delta(-1).createdAt(now).build());
+        }
+        deltas.add(OrderStatusCountDelta.builder().status(to).delta(1).createdAt(now).build());
+        deltaRepository.saveAll(deltas);
+        rollupAccumulator.record(order, from, to);
+        log.debug("Recorded order status change {} -> {}", from, to);
+    }
+
+    /**
+     * Returns the number of orders in a status, including changes not yet flushed.
+     *
+     * @param status the order status
+     * @return the number of orders
+     */
+    @Transactional(readOnly = true)
+    public long count(OrderStatus status) {
+        long flushed = countRepository.findById(status)
+                .map(OrderStatusCount::getOrderCount)
+                .orElse(0L);
+        return flushed + deltaRepository.sumPendingByStatus(status);
+    }
+}
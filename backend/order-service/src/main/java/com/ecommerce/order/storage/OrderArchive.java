@@ -0,0 +1,99 @@
+package com.ecommerce.order.storage;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to orders moved to the order_archive schema by OrderArchiver.
+ * Archived orders are in a final status and never change, so they are returned as detached entities.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderArchive {
+
+    static final String ORDER_COLUMNS = "id, user_id, total_amount, status, rejection_reason, created_at, updated_at";
+    static final String ITEM_COLUMNS = "id, order_id, product_id, product_name, quantity, price, created_at";
+
+    static final List<String> CREATE_SQL = List.of(
+            "CREATE SCHEMA IF NOT EXISTS order_archive",
+            "CREATE TABLE IF NOT EXISTS order_archive.orders (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+            "total_amount NUMERIC(10,2) NOT NULL, status VARCHAR(20) NOT NULL, rejection_reason VARCHAR(500), " +
+            "created_at TIMESTAMP(6) NOT NULL, updated_at TIMESTAMP(6) NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS order_archive.order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, " +
+            "product_id BIGINT NOT NULL, product_name VARCHAR(255) NOT NULL, quantity INTEGER NOT NULL, " +
+            "price NUMERIC(10,2) NOT NULL, created_at TIMESTAMP(6) NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_archived_order_items_order_id ON order_archive.order_items (order_id)");
+
+    private static final RowMapper<Order> ORDER_MAPPER = (rs, rowNum) -> Order.builder()
+            .id(rs.getLong("id"))
+            .userId(rs.getLong("user_id"))
+            .totalAmount(rs.getBigDecimal("total_amount"))
+            .status(OrderStatus.valueOf(rs.getString("status")))
+            .rejectionReason(rs.getString("rejection_reason"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .orderItems(new ArrayList<>())
+            .build();
+
+    private static final RowMapper<OrderItem> ITEM_MAPPER = (rs, rowNum) -> OrderItem.builder()
+            .id(rs.getLong("id"))
+            .orderId(rs.getLong("order_id"))
+            .productId(rs.getLong("product_id"))
+            .productName(rs.getString("product_name"))
+            .quantity(rs.getInt("quantity"))
+            .price(rs.getBigDecimal("price"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean present;
+
+    /**
+     * Finds an archived order with its items.
+     *
+     * @param id the order ID
+     * @return the archived order, empty if there is no such archived order
+     */
+    public Optional<Order> findByIdWithItems(Long id) {
+        if (!isPresent()) {
+            return Optional.empty();
+        }
+        List<Order> orders = jdbcTemplate.query(
+                "SELECT " + ORDER_COLUMNS + " FROM order_archive.orders WHERE id = ?", ORDER_MAPPER, id);
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = orders.get(0);
+        order.getOrderItems().addAll(jdbcTemplate.query(
+                "SELECT " + ITEM_COLUMNS + " FROM order_archive.order_items WHERE order_id = ? ORDER BY id",
+                ITEM_MAPPER, id));
+        return Optional.of(order);
+    }
+
+    /**
+     * Creates the archive schema and tables if they do not exist.
+     */
+    void create() {
+        CREATE_SQL.forEach(jdbcTemplate::execute);
+        present = true;
+    }
+
+    // The archive exists once any instance has archived; until then misses cost one catalog lookup
+    private boolean isPresent() {
+        if (!present) {
+            present = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass('order_archive.orders') IS NOT NULL", Boolean.class));
+        }
+        return present;
+    }
+}
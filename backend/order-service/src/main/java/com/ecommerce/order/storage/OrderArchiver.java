@@ -0,0 +1,100 @@
+package com.ecommerce.order.storage;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves old orders in a final status, with their items, from the live tables to the order_archive schema.
+ * Each batch is moved by one statement in its own transaction: the live rows are deleted and their
+ * returned values inserted into the archive, so an order is never in both places or in neither.
+ * Archived orders keep their summary row and their place in the status counts, and are still
+ * found by ID through OrderArchive.
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+
+    private final OrderArchive orderArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String moveBatchSql;
+
+    @Value("${application.order.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${application.order.archive.after-days:365}")
+    private long afterDays;
+
+    @Value("${application.order.archive.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean created;
+
+    public OrderArchiver(OrderArchive orderArchive,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${application.order.archive.statuses:DELIVERED,CANCELLED}") List<OrderStatus> statuses) {
+        this.orderArchive = orderArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.moveBatchSql = moveBatchSql(statuses);
+    }
+
+    @Scheduled(fixedDelayString = "${application.order.archive.interval-ms:600000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        if (!created) {
+            orderArchive.create();
+            created = true;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofDays(afterDays)));
+        long start = System.nanoTime();
+        long archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> jdbcTemplate.update(moveBatchSql, cutoff, batchSize));
+            archived += moved;
+        } while (moved == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} orders created before {} in {} ms",
+                    archived, cutoff, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Builds the statement that moves one batch of orders and their items to the archive.
+     *
+     * @param statuses the final statuses of archivable orders
+     * @return the statement; parameters are the creation time cutoff and the batch size
+     */
+    static String moveBatchSql(List<OrderStatus> statuses) {
+        String inStatuses = statuses.stream()
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", "));
+        String columns = OrderArchive.ORDER_COLUMNS;
+        String itemColumns = OrderArchive.ITEM_COLUMNS;
+        // Locked orders are being read for update elsewhere and are left for the next run
+        return "WITH batch AS (SELECT id FROM orders WHERE status IN (" + inStatuses + ") AND created_at < ? " +
+                "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED), " +
+                "moved_items AS (DELETE FROM order_items WHERE order_id IN (SELECT id FROM batch) " +
+                "RETURNING " + itemColumns + "), " +
+                "archived_items AS (INSERT INTO order_archive.order_items (" + itemColumns + ") " +
+                "SELECT " + itemColumns + " FROM moved_items), " +
+                "moved AS (DELETE FROM orders WHERE id IN (SELECT id FROM batch) RETURNING " + columns + ") " +
+                "INSERT INTO order_archive.orders (" + columns + ") SELECT " + columns + " FROM moved";
+    }
+}
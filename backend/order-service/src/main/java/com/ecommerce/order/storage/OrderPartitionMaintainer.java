@@ -0,0 +1,206 @@
+package com.ecommerce.order.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps orders and order_items range-partitioned by month of created_at.
+ * On first run each table is converted in place: the existing table becomes the partition of everything
+ * created before next month, so no row is copied. After that, partitions are created ahead of time and
+ * old partitions left empty by OrderArchiver are dropped, which retires their indexes with them.
+ * Each pass runs under a transaction-scoped advisory lock; an instance that does not get it skips the
+ * pass, since another instance is doing the same work.
+ */
+@Component
+@Slf4j
+public class OrderPartitionMaintainer {
+
+    static final List<String> TABLES = List.of("orders", "order_items");
+
+    // Covered by (user_id, created_at, id) and (status, created_at, id); not recreated on partitioned tables
+    static final List<String> RETIRED_INDEXES = List.of("idx_user_id", "idx_status");
+
+    static final long MAINTENANCE_LOCK = 0x6f72646572730001L;
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.order.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${application.order.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    public OrderPartitionMaintainer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${application.order.partitioning.maintenance-interval-ms:3600000}",
+            fixedDelayString = "${application.order.partitioning.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth now = YearMonth.now();
+        for (String table : TABLES) {
+            try {
+                Boolean locked = transactionTemplate.execute(status -> {
+                    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                            "SELECT pg_try_advisory_xact_lock(" + MAINTENANCE_LOCK + ")", Boolean.class))) {
+                        return false;
+                    }
+                    if (!isPartitioned(table)) {
+                        convert(table, now.plusMonths(1));
+                    }
+                    createPartitions(table, now.plusMonths(monthsAhead));
+                    dropEmptyPartitions(table, now);
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Partition maintenance is running on another instance, skipping this pass");
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Partition maintenance of {} failed", table, e);
+            }
+        }
+    }
+
+    /**
+     * Turns a plain table into a partitioned one whose first partition is the original table.
+     * Holds an exclusive lock on the table while the (id, created_at) key of the old rows is indexed.
+     * Runs in the caller's transaction, which holds the maintenance lock.
+     *
+     * @param table the table
+     * @param firstMonth the first month that gets a partition of its own
+     */
+    void convert(String table, YearMonth firstMonth) {
+        transactionTemplate.executeWithoutResult(status -> {
+            String legacy = table + "_legacy";
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + table + "_pkey TO " + legacy + "_pkey");
+
+            // A foreign key cannot reference a partitioned table by id alone
+            List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                    "SELECT conrelid::regclass::text AS owner, conname FROM pg_constraint " +
+                    "WHERE contype = 'f' AND (conrelid = ?::regclass OR confrelid = ?::regclass)", legacy, legacy);
+            for (Map<String, Object> foreignKey : foreignKeys) {
+                jdbcTemplate.execute("ALTER TABLE " + foreignKey.get("owner") + " DROP CONSTRAINT " + foreignKey.get("conname"));
+            }
+
+            // Secondary indexes keep their names on the partitioned table and are attached from the old one
+            List<Map<String, Object>> indexes = jdbcTemplate.queryForList(
+                    "SELECT i.relname AS name, pg_get_indexdef(i.oid) AS definition FROM pg_index x " +
+                    "JOIN pg_class i ON i.oid = x.indexrelid WHERE x.indrelid = ?::regclass AND NOT x.indisprimary", legacy);
+
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS) " +
+                    "PARTITION BY RANGE (created_at)");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (id, created_at)");
+            // The partition's own primary key must match the parent's; lookups by id still use its leading column
+            jdbcTemplate.execute("CREATE UNIQUE INDEX " + legacy + "_id_created_at ON " + legacy + " (id, created_at)");
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " DROP CONSTRAINT " + legacy + "_pkey, " +
+                    "ADD CONSTRAINT " + legacy + "_pkey PRIMARY KEY USING INDEX " + legacy + "_id_created_at");
+            for (Map<String, Object> index : indexes) {
+                String name = (String) index.get("name");
+                if (RETIRED_INDEXES.contains(name)) {
+                    jdbcTemplate.execute("DROP INDEX " + name);
+                    continue;
+                }
+                jdbcTemplate.execute("ALTER INDEX " + name + " RENAME TO " + name + "_legacy");
+                String definition = ((String) index.get("definition"))
+                        .replaceFirst(" INDEX " + name + " ON (\\w+\\.)?" + legacy + " ", " INDEX " + name + " ON " + table + " ");
+                jdbcTemplate.execute(definition);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + legacy +
+                    " FOR VALUES FROM (MINVALUE) TO ('" + firstMonth.atDay(1) + "')");
+            log.info("Partitioned {} by month, rows created before {} are kept in {}", table, firstMonth, legacy);
+        });
+    }
+
+    /**
+     * Creates the monthly partitions after the last existing one, up to and including a month.
+     *
+     * @param table the partitioned table
+     * @param lastMonth the last month to create a partition for
+     */
+    void createPartitions(String table, YearMonth lastMonth) {
+        YearMonth month = partitionBounds(table).values().stream()
+                .map(YearMonth::from)
+                .max(YearMonth::compareTo)
+                .filter(after -> !after.isBefore(YearMonth.now()))
+                .orElse(YearMonth.now());
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            String partition = table + "_" + month.format(SUFFIX);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table +
+                    " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            log.info("Created partition {}", partition);
+        }
+    }
+
+    /**
+     * Drops partitions that ended before the current month and hold no rows anymore.
+     *
+     * @param table the partitioned table
+     * @param currentMonth the current month
+     */
+    void dropEmptyPartitions(String table, YearMonth currentMonth) {
+        LocalDate currentMonthStart = currentMonth.atDay(1);
+        partitionBounds(table).forEach((partition, upperBound) -> {
+            if (upperBound.isAfter(currentMonthStart)) {
+                return;
+            }
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped empty partition {}", partition);
+            }
+        });
+    }
+
+    /**
+     * Checks whether a table is partitioned.
+     *
+     * @param table the table
+     * @return true if the table is partitioned
+     */
+    boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table));
+    }
+
+    private Map<String, LocalDate> partitionBounds(String table) {
+        Map<String, LocalDate> bounds = new TreeMap<>();
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass", rs -> {
+            Matcher matcher = UPPER_BOUND.matcher(rs.getString(2));
+            if (matcher.find()) {
+                bounds.put(rs.getString(1), LocalDateTime.parse(matcher.group(1).replace(' ', 'T')).toLocalDate());
+            }
+        }, table);
+        return bounds;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of order inserts against an embedded PostgreSQL
+ * Persists one order with its items per transaction, the way OrderServiceImpl.createOrder does,
+ * with the pooled sequence IDs of the entities and with the identity column IDs they used before
+ * (mapped by benchmark/identity-ids.orm.xml). The rows counter reports inserted rows per second.
+ *
+ * Run with (JMH forks need the test classpath on the command line):
+ *   mvn -pl order-service test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp order-service/target/test-classes:order-service/target/classes:$(cat order-service/target/cp.txt) \
+ *       com.ecommerce.order.benchmark.OrderInsertBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderInsertBenchmark {
+
+    @Param({"identity", "pooled"})
+    private String ids;
+
+    @Param({"1", "50"})
+    private int lines;
+
+    private EmbeddedPostgres postgres;
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    /**
+     * Inserted rows, reported by JMH as a rate next to orders per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, 50)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .build();
+        MetadataSources sources = new MetadataSources(registry)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class);
+        if ("identity".equals(ids)) {
+            sources.addResource("benchmark/identity-ids.orm.xml");
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sessionFactory.close();
+        dataSource.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Long insertOrder(Rows rows) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Order order = Order.builder()
+                    .userId(7L)
+                    .totalAmount(BigDecimal.ZERO)
+                    .status(OrderStatus.PENDING)
+                    .build();
+            session.persist(order);
+            for (int i = 0; i < lines; i++) {
+                order.addOrderItem(OrderItem.builder()
+                        .productId((long) i)
+                        .productName("Product " + i)
+                        .quantity(1)
+                        .price(new BigDecimal("9.99"))
+                        .build());
+            }
+            transaction.commit();
+            rows.rows += lines + 1;
+            return order.getId();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
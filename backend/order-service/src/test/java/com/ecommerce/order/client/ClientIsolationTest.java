@@ -0,0 +1,280 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.config.FeignConfig;
+import com.ecommerce.order.dto.UserResponse;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.springboot3.bulkhead.autoconfigure.BulkheadAutoConfiguration;
+import io.github.resilience4j.springboot3.bulkhead.autoconfigure.ThreadPoolBulkheadMetricsAutoConfiguration;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerMetricsAutoConfiguration;
+import io.github.resilience4j.springboot3.timelimiter.autoconfigure.TimeLimiterAutoConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JAutoConfiguration;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the circuit breaker, time limiter, bulkhead and pooled transport of the Feign clients against a local
+ * stub whose Product Service endpoints hang until the stub is stopped
+ */
+@SpringBootTest(classes = ClientIsolationTest.Clients.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "resilience4j.timelimiter.configs.default.timeout-duration=300ms",
+                "resilience4j.circuitbreaker.configs.default.sliding-window-size=4",
+                "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=4",
+                "resilience4j.circuitbreaker.configs.default.wait-duration-in-open-state=60s",
+                "resilience4j.thread-pool-bulkhead.instances.product-service.core-thread-pool-size=2",
+                "resilience4j.thread-pool-bulkhead.instances.product-service.max-thread-pool-size=2",
+                "resilience4j.thread-pool-bulkhead.instances.product-service.queue-capacity=2",
+                "spring.cloud.openfeign.client.config.default.read-timeout=1000"
+        })
+class ClientIsolationTest {
+
+    private static final CountDownLatch STOPPED = new CountDownLatch(1);
+    private static final AtomicInteger PRODUCT_REQUESTS = new AtomicInteger();
+    private static final AtomicReference<Headers> USER_REQUEST_HEADERS = new AtomicReference<>();
+    private static final HttpServer STUB = startStub();
+
+    @Autowired
+    private ProductClient productClient;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private ThreadPoolBulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void stubUrls(DynamicPropertyRegistry registry) {
+        String url = "http://localhost:" + STUB.getAddress().getPort();
+        registry.add("spring.cloud.openfeign.client.config.product-service.url", () -> url);
+        registry.add("spring.cloud.openfeign.client.config.user-service.url", () -> url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STOPPED.countDown();
+        STUB.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+        // Calls abandoned by an earlier test hold their bulkhead thread until the read timeout
+        ThreadPoolBulkhead bulkhead = bulkheadRegistry.bulkhead("product-service");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getMetrics().getActiveThreadCount() > 0 || bulkhead.getMetrics().getQueueDepth() > 0) {
+            assertTrue(System.nanoTime() < deadline, "product-service bulkhead did not drain");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void slowProductServiceDoesNotHoldUpUserCalls() throws Exception {
+        int requestsBefore = PRODUCT_REQUESTS.get();
+        ExecutorService requestThreads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> productCalls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long id = i;
+                productCalls.add(requestThreads.submit(() -> {
+                    long start = System.nanoTime();
+                    assertThrows(ServiceUnavailableException.class, () -> productClient.getProduct(id));
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }));
+            }
+
+            long start = System.nanoTime();
+            UserResponse user = userClient.getUser(7L);
+            assertEquals(7L, user.getId());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 250);
+
+            // Two calls run and two wait in the queue until the time limit; the rest are refused at once
+            int refused = 0;
+            for (Future<Long> call : productCalls) {
+                long elapsedMs = call.get(5, TimeUnit.SECONDS);
+                assertTrue(elapsedMs < 1000, "product call took " + elapsedMs + " ms");
+                if (elapsedMs < 150) {
+                    refused++;
+                }
+            }
+            assertTrue(refused >= 4, refused + " calls refused");
+            assertTrue(PRODUCT_REQUESTS.get() - requestsBefore <= 4);
+        } finally {
+            requestThreads.shutdownNow();
+        }
+
+        assertEquals(2.0, meterRegistry.get("resilience4j.bulkhead.max.thread.pool.size")
+                .tag("name", "product-service").gauge().value());
+        assertNotNull(meterRegistry.find("resilience4j.bulkhead.queue.depth").tag("name", "product-service").gauge());
+        assertNotNull(meterRegistry.find("resilience4j.bulkhead.queue.depth").tag("name", "user-service").gauge());
+        assertEquals(128.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "feign").gauge().value());
+    }
+
+    @Test
+    void circuitOpensOnTimeoutsAndThenFailsFast() {
+        for (long id = 0; id < 4; id++) {
+            long productId = id;
+            assertThrows(ServiceUnavailableException.class, () -> productClient.getProduct(productId));
+        }
+        int requests = PRODUCT_REQUESTS.get();
+
+        long start = System.nanoTime();
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class, () -> productClient.getProduct(9L));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+        assertTrue(e.getMessage().contains("circuit breaker is open"));
+        assertEquals(requests, PRODUCT_REQUESTS.get());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("product-service").getState());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakerRegistry.circuitBreaker("user-service").getState());
+        assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tags("name", "product-service", "state", "open").gauge().value());
+        assertEquals(7L, userClient.getUser(7L).getId());
+    }
+
+    @Test
+    void missingUserDoesNotCountAgainstTheCircuit() {
+        for (int i = 0; i < 6; i++) {
+            ClientRequestException e = assertThrows(ClientRequestException.class, () -> userClient.getUser(404L));
+            assertTrue(e.getMessage().startsWith("Resource not found"));
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("user-service");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void callerHeadersReachTheServiceFromTheBulkheadThread() {
+        // The first calls of a client can take longer than the short time limit of this test
+        for (int attempt = 0; attempt < 3; attempt++) {
+            try {
+                userClient.getUser(8L);
+                break;
+            } catch (ServiceUnavailableException e) {
+                // Warming up
+            }
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.addHeader("X-User-Id", "7");
+        request.addHeader("Authorization", "Bearer token-7");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertEquals(7L, userClient.getUser(7L).getId());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        Headers headers = USER_REQUEST_HEADERS.get();
+        assertEquals("7", headers.getFirst("X-User-Id"));
+        assertEquals("Bearer token-7", headers.getFirst("Authorization"));
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/products/", exchange -> {
+                PRODUCT_REQUESTS.incrementAndGet();
+                try {
+                    STOPPED.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 503, "{}");
+            });
+            server.createContext("/api/users/", exchange -> {
+                USER_REQUEST_HEADERS.set(exchange.getRequestHeaders());
+                String id = exchange.getRequestURI().getPath().substring("/api/users/".length());
+                if ("404".equals(id)) {
+                    respond(exchange, 404, "{}");
+                } else {
+                    respond(exchange, 200, "{\"id\":" + id + ",\"status\":\"ACTIVE\"}");
+                }
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({
+            JacksonAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            MetricsAutoConfiguration.class,
+            CompositeMeterRegistryAutoConfiguration.class,
+            SimpleMetricsExportAutoConfiguration.class,
+            CircuitBreakerAutoConfiguration.class,
+            CircuitBreakerMetricsAutoConfiguration.class,
+            BulkheadAutoConfiguration.class,
+            ThreadPoolBulkheadMetricsAutoConfiguration.class,
+            TimeLimiterAutoConfiguration.class,
+            Resilience4JAutoConfiguration.class,
+            FeignAutoConfiguration.class
+    })
+    @EnableFeignClients(clients = {ProductClient.class, UserClient.class})
+    @Import({FeignConfig.class, ProductClientFallbackFactory.class, UserClientFallbackFactory.class})
+    static class Clients {
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.dto.ProductBatchRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProductLoader
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductLoaderTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService executor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        callers = Executors.newFixedThreadPool(6);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookupsShareOneDeduplicatedBatch() throws Exception {
+        ProductLoader loader = new ProductLoader(productClient, executor, meterRegistry, true, 200, 100);
+        when(productClient.getProducts(any())).thenAnswer(invocation -> products(invocation.getArgument(0)));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ProductResponse>> lookups = new ArrayList<>();
+        for (long id : new long[] {1, 2, 3, 1, 2, 3}) {
+            lookups.add(callers.submit(() -> {
+                start.await();
+                return loader.getProduct(id);
+            }));
+        }
+        start.countDown();
+
+        long[] expected = {1, 2, 3, 1, 2, 3};
+        for (int i = 0; i < lookups.size(); i++) {
+            assertEquals(expected[i], lookups.get(i).get(5, TimeUnit.SECONDS).getId());
+        }
+
+        ArgumentCaptor<ProductBatchRequest> request = ArgumentCaptor.forClass(ProductBatchRequest.class);
+        verify(productClient, times(1)).getProducts(request.capture());
+        assertEquals(3, request.getValue().getIds().size());
+
+        DistributionSummary batchSize = meterRegistry.get("orders.product.batch.size").summary();
+        assertEquals(1, batchSize.count());
+        assertEquals(3.0, batchSize.totalAmount());
+        assertEquals(1, meterRegistry.get("orders.product.batch.wait").timer().count());
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        ProductLoader loader = new ProductLoader(productClient, executor, meterRegistry, true, 60000, 2);
+        when(productClient.getProducts(any())).thenAnswer(invocation -> products(invocation.getArgument(0)));
+
+        CompletableFuture<ProductResponse> first = loader.load(1L);
+        CompletableFuture<ProductResponse> second = loader.load(2L);
+        CompletableFuture<ProductResponse> third = loader.load(3L);
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(2L, second.get(5, TimeUnit.SECONDS).getId());
+        assertFalse(third.isDone());
+    }
+
+    @Test
+    void missingProductsAndFailedBatchesReachEveryCaller() {
+        ProductLoader loader = new ProductLoader(productClient, executor, meterRegistry, true, 1, 100);
+        when(productClient.getProducts(any()))
+                .thenReturn(List.of(ProductResponse.builder().id(1L).build()))
+                .thenThrow(new ServiceUnavailableException("product-service circuit breaker is open", null));
+
+        assertThrows(ResourceNotFoundException.class, () -> loader.getProduct(2L));
+        assertThrows(ServiceUnavailableException.class, () -> loader.getProduct(1L));
+    }
+
+    @Test
+    void windowsCloseWhileAllSendersAreBusy() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ProductLoader loader = new ProductLoader(productClient, single, meterRegistry, true, 1, 100);
+            when(productClient.getProducts(any())).thenAnswer(invocation -> {
+                sending.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return products(invocation.getArgument(0));
+            });
+
+            CompletableFuture<ProductResponse> first = loader.load(1L);
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            CompletableFuture<ProductResponse> second = loader.load(2L);
+            Thread.sleep(100);
+            // The window of the second lookup closed although the only sender is still blocked
+            CompletableFuture<ProductResponse> third = loader.load(3L);
+            release.countDown();
+
+            assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(2L, second.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(3L, third.get(5, TimeUnit.SECONDS).getId());
+            verify(productClient, times(3)).getProducts(any());
+        } finally {
+            release.countDown();
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void saturatedExecutorFailsTheBatchFast() throws Exception {
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturated.execute(() -> awaitQuietly(release));
+            saturated.execute(() -> awaitQuietly(release));
+            ProductLoader loader = new ProductLoader(productClient, saturated, meterRegistry, true, 60000, 1);
+
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> loader.load(1L).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ServiceUnavailableException.class, failure.getCause());
+            verifyNoInteractions(productClient);
+        } finally {
+            release.countDown();
+            saturated.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<ProductResponse> products(ProductBatchRequest request) {
+        return request.getIds().stream()
+                .map(id -> ProductResponse.builder().id(id).build())
+                .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.order.config;
+
+import feign.Logger;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SamplingFeignLogger
+ */
+class SamplingFeignLoggerTest {
+
+    private static final String CONFIG_KEY = "ProductClient#getProduct(Long)";
+
+    @BeforeEach
+    void setUp() {
+        // Slf4jLogger logs nothing, and buffers nothing, unless debug logging is enabled
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(SamplingFeignLoggerTest.class))
+                .setLevel(ch.qos.logback.classic.Level.DEBUG);
+    }
+
+    @Test
+    void unsampledSuccessIsPassedOnUnbuffered() throws IOException {
+        SamplingFeignLogger logger = new SamplingFeignLogger(SamplingFeignLoggerTest.class, 0);
+        Response response = response(200);
+
+        logger.logRequest(CONFIG_KEY, Logger.Level.BASIC, response.request());
+
+        assertSame(response, logger.logAndRebufferResponse(CONFIG_KEY, Logger.Level.BASIC, response, 5));
+    }
+
+    @Test
+    void sampledSuccessIsLoggedWithBody() throws IOException {
+        SamplingFeignLogger logger = new SamplingFeignLogger(SamplingFeignLoggerTest.class, 1);
+        Response response = response(200);
+
+        logger.logRequest(CONFIG_KEY, Logger.Level.BASIC, response.request());
+        Response logged = logger.logAndRebufferResponse(CONFIG_KEY, Logger.Level.BASIC, response, 5);
+
+        assertNotSame(response, logged);
+        assertEquals("{\"id\":1}", Util.toString(logged.body().asReader(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void failureIsLoggedWithBodyWhenNotSampled() throws IOException {
+        SamplingFeignLogger logger = new SamplingFeignLogger(SamplingFeignLoggerTest.class, 0);
+        Response response = response(500);
+
+        logger.logRequest(CONFIG_KEY, Logger.Level.BASIC, response.request());
+        Response logged = logger.logAndRebufferResponse(CONFIG_KEY, Logger.Level.BASIC, response, 5);
+
+        assertNotSame(response, logged);
+        assertEquals("{\"id\":1}", Util.toString(logged.body().asReader(StandardCharsets.UTF_8)));
+    }
+
+    private static Response response(int status) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://product-service/api/products/1",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of())
+                .body("{\"id\":1}", StandardCharsets.UTF_8)
+                .build();
+    }
+}
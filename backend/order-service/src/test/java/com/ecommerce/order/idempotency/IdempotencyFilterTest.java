@@ -0,0 +1,292 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.order.model.IdempotencyRecord;
+import com.ecommerce.order.model.IdempotencyStatus;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for IdempotencyFilter with an in-memory key store
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    private static final String ORDER = "{\"items\":[{\"productId\":1,\"quantity\":2}]}";
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(recordRepository);
+        ReflectionTestUtils.setField(store, "ttlMs", 60000L);
+        ReflectionTestUtils.setField(store, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(store, "pollIntervalMs", 10L);
+        filter = new IdempotencyFilter(store, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "waitMs", 5000L);
+
+        lenient().when(recordRepository.insertIfAbsent(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> records.putIfAbsent(invocation.getArgument(0), IdempotencyRecord.builder()
+                        .keyHash(invocation.getArgument(0))
+                        .requestHash(invocation.getArgument(1))
+                        .status(IdempotencyStatus.IN_PROGRESS)
+                        .ownerToken(invocation.getArgument(2))
+                        .lockedUntil(invocation.getArgument(3))
+                        .expiresAt(invocation.getArgument(4))
+                        .build()) == null ? 1 : 0);
+        lenient().when(recordRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(records.get(invocation.<String>getArgument(0))));
+        lenient().when(recordRepository.takeOver(anyString(), anyString(), anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> update(invocation.getArgument(0), record ->
+                        record.getRequestHash().equals(invocation.getArgument(1))
+                                && record.getStatus() == IdempotencyStatus.IN_PROGRESS
+                                && record.getLockedUntil().isBefore(invocation.getArgument(4)), record -> {
+                            record.setOwnerToken(invocation.getArgument(2));
+                            record.setLockedUntil(invocation.getArgument(5));
+                        }));
+        lenient().when(recordRepository.renewLeases(anyCollection(), any(), any()))
+                .thenAnswer(invocation -> (int) records.values().stream()
+                        .filter(record -> invocation.<Collection<String>>getArgument(0).contains(record.getOwnerToken())
+                                && record.getStatus() == IdempotencyStatus.IN_PROGRESS)
+                        .peek(record -> record.setLockedUntil(invocation.getArgument(2)))
+                        .count());
+        lenient().when(recordRepository.complete(anyString(), anyString(), anyInt(), any(), any(), any()))
+                .thenAnswer(invocation -> update(invocation.getArgument(0), record ->
+                        record.getOwnerToken().equals(invocation.getArgument(1))
+                                && record.getStatus() == IdempotencyStatus.IN_PROGRESS, record -> {
+                            record.setStatus(IdempotencyStatus.COMPLETED);
+                            record.setResponseStatus(invocation.getArgument(2));
+                            record.setResponseContentType(invocation.getArgument(3));
+                            record.setResponseLocation(invocation.getArgument(4));
+                            record.setResponseBody(invocation.getArgument(5));
+                        }));
+        lenient().when(recordRepository.deleteOwned(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    IdempotencyRecord record = records.get(invocation.<String>getArgument(0));
+                    boolean owned = record != null && record.getOwnerToken().equals(invocation.getArgument(1))
+                            && record.getStatus() == invocation.getArgument(2);
+                    return owned && records.remove(record.getKeyHash(), record) ? 1 : 0;
+                });
+        lenient().when(recordRepository.deleteExpired(any(), anyInt())).thenReturn(0);
+    }
+
+    @Test
+    void repeatedRequest_ReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", ORDER, respondWith(201, "{\"id\":42}"));
+        MockHttpServletResponse second = send("key-1", ORDER, respondWith(201, "{\"id\":43}"));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("/api/orders/42/status", second.getHeader(HttpHeaders.LOCATION));
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void reusedKeyWithDifferentBody_IsRejected() throws Exception {
+        send("key-1", ORDER, respondWith(201, "{\"id\":42}"));
+        MockHttpServletResponse second = send("key-1", "{\"items\":[]}", respondWith(201, "{\"id\":43}"));
+
+        assertEquals(1, executions.get());
+        assertEquals(422, second.getStatus());
+    }
+
+    @Test
+    void keysAreScopedToTheUser() throws Exception {
+        send("key-1", ORDER, respondWith(201, "{\"id\":42}"));
+        MockHttpServletRequest request = request("key-1", ORDER);
+        request.removeHeader("X-User-Id");
+        request.addHeader("X-User-Id", "8");
+        filter.doFilter(request, new MockHttpServletResponse(), respondWith(201, "{\"id\":43}"));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicate_WaitsForFirstExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respondWith(201, "{\"id\":42}").doFilter(request, response);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> send("key-1", ORDER, slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> second = executor.submit(() -> send("key-1", ORDER, slow));
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+
+            proceed.countDown();
+
+            assertEquals("{\"id\":42}", first.get(5, TimeUnit.SECONDS).getContentAsString());
+            MockHttpServletResponse replayed = second.get(5, TimeUnit.SECONDS);
+            assertEquals(201, replayed.getStatus());
+            assertEquals("{\"id\":42}", replayed.getContentAsString());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void serverError_IsNotStored() throws Exception {
+        send("key-1", ORDER, respondWith(503, "{\"message\":\"unavailable\"}"));
+        MockHttpServletResponse retried = send("key-1", ORDER, respondWith(201, "{\"id\":42}"));
+
+        assertEquals(2, executions.get());
+        assertEquals(201, retried.getStatus());
+    }
+
+    @Test
+    void requestWithoutKey_IsNotTracked() throws Exception {
+        MockHttpServletRequest request = request("key-1", ORDER);
+        request.removeHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER);
+        filter.doFilter(request, new MockHttpServletResponse(), respondWith(201, "{\"id\":42}"));
+        filter.doFilter(request("key-2", ORDER), new MockHttpServletResponse(), respondWith(201, "{\"id\":43}"));
+
+        assertEquals(2, executions.get());
+        assertEquals(1, records.size());
+        assertTrue(records.values().iterator().next().getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void runningExecution_RenewsItsLease() throws Exception {
+        ReflectionTestUtils.setField(store, "leaseMs", 1000L);
+        LocalDateTime[] leases = new LocalDateTime[2];
+        FilterChain renewing = (request, response) -> {
+            IdempotencyRecord record = records.values().iterator().next();
+            leases[0] = record.getLockedUntil();
+            ReflectionTestUtils.setField(store, "leaseMs", 60000L);
+            store.renewLeases();
+            leases[1] = record.getLockedUntil();
+            respondWith(201, "{\"id\":42}").doFilter(request, response);
+        };
+
+        send("key-1", ORDER, renewing);
+
+        assertTrue(leases[1].isAfter(leases[0].plusSeconds(30)));
+        assertEquals(IdempotencyStatus.COMPLETED, records.values().iterator().next().getStatus());
+    }
+
+    @Test
+    void executionThatLostItsLease_DoesNotOverwriteTheNewOwner() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FilterChain stalled = (request, response) -> {
+            started.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respondWith(503, "{\"message\":\"unavailable\"}").doFilter(request, response);
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> send("key-1", ORDER, stalled));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // The stalled instance missed its heartbeats
+            records.values().iterator().next().setLockedUntil(LocalDateTime.now().minusSeconds(1));
+
+            MockHttpServletResponse second = send("key-1", ORDER, respondWith(201, "{\"id\":43}"));
+            proceed.countDown();
+            assertEquals(503, first.get(5, TimeUnit.SECONDS).getStatus());
+
+            assertEquals(201, second.getStatus());
+            MockHttpServletResponse replayed = send("key-1", ORDER, respondWith(201, "{\"id\":44}"));
+            assertEquals("{\"id\":43}", replayed.getContentAsString());
+            assertEquals(2, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int update(String keyHash, Predicate<IdempotencyRecord> condition, Consumer<IdempotencyRecord> change) {
+        IdempotencyRecord record = records.get(keyHash);
+        if (record == null || !condition.test(record)) {
+            return 0;
+        }
+        change.accept(record);
+        return 1;
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body), response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.addHeader("X-User-Id", "7");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private FilterChain respondWith(int status, String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            // The controller must still be able to read the body
+            assertFalse(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8).isEmpty());
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            if (status == 201) {
+                http.setHeader(HttpHeaders.LOCATION, "/api/orders/42/status");
+            }
+            http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
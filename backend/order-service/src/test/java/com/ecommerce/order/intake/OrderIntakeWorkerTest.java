@@ -0,0 +1,202 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderIntake;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.UserVerifier;
+import com.ecommerce.order.projection.OrderSummaryProjector;
+import com.ecommerce.order.stats.OrderStatusCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OrderIntakeWorker
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeWorkerTest {
+
+    @Mock
+    private OrderIntakeQueue intakeQueue;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductClient productClient;
+
+    @Mock
+    private UserVerifier userVerifier;
+
+    @Mock
+    private OrderStatusCounter statusCounter;
+
+    @Mock
+    private OrderSummaryProjector summaryProjector;
+
+    @Mock
+    private ExecutorService executor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderIntakeWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new OrderIntakeWorker(intakeQueue, orderRepository, productClient, userVerifier,
+                statusCounter, summaryProjector, executor, transactionManager, new SimpleMeterRegistry(), 2);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+        ReflectionTestUtils.setField(worker, "retryDelayMs", 1000L);
+    }
+
+    @Test
+    void process_ServesStockToEarlierOrdersFirst() {
+        Order first = pendingOrder(1L);
+        Order second = pendingOrder(2L);
+        List<OrderIntake> batch = List.of(entry(1L, item(10L, 3)), entry(2L, item(10L, 3)));
+        when(orderRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(first, second));
+        when(productClient.getProducts(any())).thenReturn(List.of(product(10L, 5)));
+
+        worker.process(batch);
+
+        assertEquals(OrderStatus.PENDING, first.getStatus());
+        assertEquals(new BigDecimal("30.00"), first.getTotalAmount());
+        assertEquals(1, first.getOrderItems().size());
+        assertEquals(OrderStatus.REJECTED, second.getStatus());
+        assertTrue(second.getRejectionReason().contains("Insufficient stock for product ID 10"));
+        verify(intakeQueue).remove(batch);
+        verify(statusCounter).recordTransition(first, OrderStatus.PENDING_VALIDATION, OrderStatus.PENDING);
+        verify(statusCounter).recordTransition(second, OrderStatus.PENDING_VALIDATION, OrderStatus.REJECTED);
+        verify(summaryProjector).project(first);
+        verify(summaryProjector).updateStatus(second);
+    }
+
+    @Test
+    void process_RejectsUnknownProductAndUser() {
+        Order unknownProduct = pendingOrder(1L);
+        Order unknownUser = pendingOrder(2L);
+        OrderIntake unverified = entry(2L, item(10L, 1));
+        unverified.setUserVerified(false);
+        unverified.setUserId(99L);
+        List<OrderIntake> batch = List.of(entry(1L, item(11L, 1)), unverified);
+        when(orderRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(unknownProduct, unknownUser));
+        when(productClient.getProducts(any())).thenReturn(List.of(product(10L, 5)));
+        when(userVerifier.isKnown(99L)).thenReturn(false);
+        doThrow(new ResourceNotFoundException("User", "id", 99L))
+                .when(userVerifier).verify(99L);
+
+        worker.process(batch);
+
+        assertEquals(OrderStatus.REJECTED, unknownProduct.getStatus());
+        assertTrue(unknownProduct.getRejectionReason().startsWith("Product not found"));
+        assertEquals(OrderStatus.REJECTED, unknownUser.getStatus());
+        assertTrue(unknownUser.getRejectionReason().startsWith("User not found"));
+    }
+
+    @Test
+    void process_SkipsOrdersCancelledWhileQueued() {
+        Order cancelled = pendingOrder(1L);
+        cancelled.setStatus(OrderStatus.CANCELLED);
+        List<OrderIntake> batch = List.of(entry(1L, item(10L, 1)));
+        when(orderRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(cancelled));
+        when(productClient.getProducts(any())).thenReturn(List.of(product(10L, 5)));
+
+        worker.process(batch);
+
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        verify(intakeQueue).remove(batch);
+        verify(statusCounter, never()).recordTransition(any(), any(), any());
+    }
+
+    @Test
+    void process_RetriesBatchWhenLookupFails() {
+        List<OrderIntake> batch = List.of(entry(1L, item(10L, 1)));
+        when(productClient.getProducts(any())).thenThrow(new RuntimeException("Service unavailable"));
+
+        worker.process(batch);
+
+        verify(intakeQueue).retryLater(batch, 1000L);
+        verify(intakeQueue, never()).remove(any());
+    }
+
+    @Test
+    void process_RejectsBatchAfterLastAttempt() {
+        Order order = pendingOrder(1L);
+        OrderIntake entry = entry(1L, item(10L, 1));
+        entry.setAttempts(2);
+        when(productClient.getProducts(any())).thenThrow(new RuntimeException("Service unavailable"));
+        when(orderRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(order));
+
+        worker.process(List.of(entry));
+
+        assertEquals(OrderStatus.REJECTED, order.getStatus());
+        assertTrue(order.getRejectionReason().startsWith("Order could not be validated"));
+        verify(intakeQueue, never()).retryLater(any(), anyLong());
+    }
+
+    private OrderIntake entry(Long orderId, OrderItemRequest... items) {
+        OrderIntake entry = OrderIntake.builder()
+                .id(orderId)
+                .orderId(orderId)
+                .userId(7L)
+                .userVerified(true)
+                .payload("{}")
+                .build();
+        OrderRequest request = OrderRequest.builder().orderItems(List.of(items)).build();
+        lenient().when(intakeQueue.requestOf(entry)).thenReturn(request);
+        return entry;
+    }
+
+    private Order pendingOrder(Long id) {
+        return Order.builder()
+                .id(id)
+                .userId(7L)
+                .totalAmount(BigDecimal.ZERO)
+                .status(OrderStatus.PENDING_VALIDATION)
+                .orderItems(new ArrayList<>())
+                .build();
+    }
+
+    private OrderItemRequest item(Long productId, int quantity) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+
+    private ProductResponse product(Long id, int stock) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(stock)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.order.projection;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OrderSummaryRebuilder
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderSummaryRebuilderTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderSummaryRepository summaryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderSummaryRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        rebuilder = new OrderSummaryRebuilder(orderRepository, orderItemRepository, summaryRepository,
+                jdbcTemplate, taskScheduler, transactionManager);
+        ReflectionTestUtils.setField(rebuilder, "rebuildIfEmpty", true);
+        ReflectionTestUtils.setField(rebuilder, "chunkSize", 10);
+        ReflectionTestUtils.setField(rebuilder, "parallelism", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ReplaysIdRangeInChunksWithItemSummaries() {
+        when(orderRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 25L}));
+        when(orderRepository.findByIdBetweenOrderById(1L, 10L)).thenReturn(List.of(order(3L), order(7L)));
+        when(orderRepository.findByIdBetweenOrderById(11L, 20L)).thenReturn(List.of());
+        when(orderRepository.findByIdBetweenOrderById(21L, 25L)).thenReturn(List.of(order(25L)));
+        when(orderItemRepository.findByOrderIdInOrderByOrderIdAscIdAsc(List.of(3L, 7L)))
+                .thenReturn(List.of(item(3L, "Keyboard"), item(3L, "Mouse")));
+        when(orderItemRepository.findByOrderIdInOrderByOrderIdAscIdAsc(List.of(25L)))
+                .thenReturn(List.of(item(25L, "Monitor")));
+
+        assertEquals(3, rebuilder.rebuild());
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(OrderSummaryProjector.UPSERT_SQL), batches.capture());
+        List<Object[]> rows = new ArrayList<>();
+        batches.getAllValues().forEach(rows::addAll);
+        rows.sort((a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[]{3L, 5L, "PENDING", 2, new BigDecimal("20.00"), "Keyboard",
+                Timestamp.valueOf(UPDATED_AT), Timestamp.valueOf(UPDATED_AT)}, rows.get(0));
+        assertEquals(0, rows.get(1)[3]);
+        assertNull(rows.get(1)[5]);
+        assertEquals("Monitor", rows.get(2)[5]);
+    }
+
+    @Test
+    void rebuildIfEmpty_SkipsExistingProjection() {
+        when(summaryRepository.anyExists()).thenReturn(true);
+
+        rebuilder.rebuildIfEmpty();
+
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+        verify(jdbcTemplate, never()).batchUpdate(eq(OrderSummaryProjector.UPSERT_SQL), anyList());
+    }
+
+    private Order order(Long id) {
+        return Order.builder()
+                .id(id)
+                .userId(5L)
+                .totalAmount(new BigDecimal("20.00"))
+                .status(OrderStatus.PENDING)
+                .createdAt(UPDATED_AT)
+                .updatedAt(UPDATED_AT)
+                .build();
+    }
+
+    private OrderItem item(Long orderId, String productName) {
+        return OrderItem.builder()
+                .orderId(orderId)
+                .productId(100L)
+                .productName(productName)
+                .quantity(1)
+                .price(BigDecimal.TEN)
+                .build();
+    }
+}
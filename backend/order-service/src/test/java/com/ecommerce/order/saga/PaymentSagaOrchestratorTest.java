@@ -0,0 +1,302 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.order.client.ClientRequestException;
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.PaymentRequest;
+import com.ecommerce.order.dto.ProductBatchRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderSaga;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.SagaStep;
+import com.ecommerce.order.payment.PaymentDeclinedException;
+import com.ecommerce.order.payment.PaymentGateway;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSagaRepository;
+import com.ecommerce.order.projection.OrderSummaryProjector;
+import com.ecommerce.order.stats.OrderStatusCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for PaymentSagaOrchestrator against local stubs of the Product Service and the payment gateway
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentSagaOrchestratorTest {
+
+    @Mock
+    private OrderSagaRepository sagaRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderStatusCounter statusCounter;
+
+    @Mock
+    private OrderSummaryProjector summaryProjector;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final StubProductService productService = new StubProductService();
+    private final StubPaymentGateway paymentGateway = new StubPaymentGateway();
+    private final Map<Long, OrderSaga> sagas = new HashMap<>();
+    private PaymentSagaOrchestrator orchestrator;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orchestrator = new PaymentSagaOrchestrator(sagaRepository, orderRepository, productService,
+                paymentGateway, statusCounter, summaryProjector, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orchestrator, "leaseMs", 30000L);
+        ReflectionTestUtils.setField(orchestrator, "maxAttempts", 3);
+        ReflectionTestUtils.setField(orchestrator, "compensationMaxAttempts", 5);
+        ReflectionTestUtils.setField(orchestrator, "retryDelayMs", 1000L);
+        ReflectionTestUtils.setField(orchestrator, "maxRetryDelayMs", 60000L);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            items.add(OrderItem.builder().id(i).productId(100 + i).quantity(2).price(BigDecimal.TEN).build());
+            productService.stock.put(100 + i, 10);
+        }
+        order = Order.builder()
+                .id(1L)
+                .userId(7L)
+                .orderItems(items)
+                .totalAmount(new BigDecimal("100.00"))
+                .status(OrderStatus.PENDING)
+                .build();
+
+        lenient().when(orderRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(order));
+        lenient().when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        lenient().when(sagaRepository.save(any(OrderSaga.class))).thenAnswer(invocation -> {
+            OrderSaga saga = invocation.getArgument(0);
+            if (saga.getId() == null) {
+                saga.setId((long) sagas.size() + 1);
+            }
+            sagas.put(saga.getId(), saga);
+            return saga;
+        });
+        lenient().when(sagaRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(sagas.get(invocation.<Long>getArgument(0))));
+    }
+
+    @Test
+    void start_ReservesChargesAndConfirms() {
+        OrderSaga saga = orchestrator.start(1L, payment());
+
+        assertEquals(SagaStep.COMPLETED, saga.getStep());
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(5, saga.getReservedItems());
+        assertEquals(8, productService.stock.get(101L));
+        assertEquals(1, paymentGateway.charges.size());
+        verify(statusCounter).recordTransition(order, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+        verify(summaryProjector).updateStatus(order);
+    }
+
+    @Test
+    void start_ReleasesReservedItemsWhenAnItemIsRejected() {
+        productService.stock.put(103L, 1);
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+
+        assertEquals(SagaStep.COMPENSATED, saga.getStep());
+        assertEquals(0, saga.getReservedItems());
+        assertEquals(10, productService.stock.get(101L));
+        assertEquals(10, productService.stock.get(102L));
+        assertEquals(1, productService.stock.get(103L));
+        assertTrue(paymentGateway.charges.isEmpty());
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+    }
+
+    @Test
+    void start_RefundsAndReleasesWhenConfirmationFails() {
+        lenient().when(orderRepository.findAllByIdForUpdate(anyCollection()))
+                .thenReturn(List.of(order))
+                .thenAnswer(invocation -> {
+                    order.setStatus(OrderStatus.CANCELLED);
+                    return List.of(order);
+                });
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+
+        assertEquals(SagaStep.COMPENSATED, saga.getStep());
+        assertEquals(paymentGateway.charges, paymentGateway.refunds);
+        assertEquals(10, productService.stock.get(105L));
+    }
+
+    @Test
+    void start_DeclinedPaymentIsNotRetried() {
+        paymentGateway.decline = true;
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+
+        assertEquals(SagaStep.COMPENSATED, saga.getStep());
+        assertTrue(paymentGateway.refunds.isEmpty());
+        assertEquals(10, productService.stock.get(101L));
+    }
+
+    @Test
+    void run_RetriesTransientFailureWithBackoff() {
+        productService.unavailableCalls = 1;
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+
+        assertEquals(SagaStep.RESERVE_INVENTORY, saga.getStep());
+        assertEquals(1, saga.getAttempts());
+        assertTrue(saga.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+        // What the scheduler does once the retry is due, e.g. after a restart
+        OrderSaga resumed = orchestrator.run(saga);
+
+        assertEquals(SagaStep.COMPLETED, resumed.getStep());
+        assertEquals(8, productService.stock.get(101L));
+    }
+
+    @Test
+    void run_CompensatesAfterLastAttempt() {
+        productService.unavailableCalls = 10;
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+        orchestrator.run(saga);
+        orchestrator.run(saga);
+        productService.unavailableCalls = 0;
+
+        assertEquals(SagaStep.COMPENSATED, saga.getStep());
+        assertEquals(10, productService.stock.get(101L));
+    }
+
+    @Test
+    void run_RetriedReservationIsAppliedOnce() {
+        productService.lostResponses = 1;
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+        OrderSaga resumed = orchestrator.run(saga);
+
+        assertEquals(SagaStep.COMPLETED, resumed.getStep());
+        assertEquals(8, productService.stock.get(101L));
+        assertTrue(productService.reservations.contains("saga-1-item-0"));
+    }
+
+    @Test
+    void run_ReleasesTheReservationInFlightWhenRetriesRunOut() {
+        productService.lostResponses = 10;
+
+        OrderSaga saga = orchestrator.start(1L, payment());
+        orchestrator.run(saga);
+        orchestrator.run(saga);
+
+        assertEquals(SagaStep.COMPENSATED, saga.getStep());
+        assertEquals(10, productService.stock.get(101L));
+        assertEquals(Set.of("saga-1-item-0"), productService.releases);
+    }
+
+    private PaymentRequest payment() {
+        return PaymentRequest.builder()
+                .paymentMethod("CARD")
+                .amount(new BigDecimal("100.00"))
+                .build();
+    }
+
+    /**
+     * In-memory Product Service that rejects reservations beyond the available stock
+     */
+    private static class StubProductService implements ProductClient {
+
+        private final Map<Long, Integer> stock = new HashMap<>();
+        private final Set<String> reservations = new HashSet<>();
+        private final Set<String> releases = new HashSet<>();
+        private int unavailableCalls;
+        private int lostResponses;
+
+        @Override
+        public ProductResponse getProduct(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ProductResponse> getProducts(ProductBatchRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Boolean checkStock(Long id, Integer quantity) {
+            return stock.getOrDefault(id, 0) >= quantity;
+        }
+
+        @Override
+        public void reduceInventory(Long id, Integer amount, String reservationKey) {
+            if (unavailableCalls > 0) {
+                unavailableCalls--;
+                throw new RuntimeException("Service unavailable: ProductClient#reduceInventory");
+            }
+            if (!releases.contains(reservationKey) && reservations.add(reservationKey)) {
+                if (stock.getOrDefault(id, 0) < amount) {
+                    reservations.remove(reservationKey);
+                    throw new ClientRequestException("Insufficient stock: ProductClient#reduceInventory");
+                }
+                stock.merge(id, -amount, Integer::sum);
+            }
+            if (lostResponses > 0) {
+                lostResponses--;
+                throw new RuntimeException("Read timed out executing PATCH ProductClient#reduceInventory");
+            }
+        }
+
+        @Override
+        public void restoreInventory(Long id, Integer quantity, String reservationKey) {
+            if (releases.add(reservationKey) && reservations.contains(reservationKey)) {
+                stock.merge(id, quantity, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * In-memory payment gateway that honours idempotency keys
+     */
+    private static class StubPaymentGateway implements PaymentGateway {
+
+        private final Set<String> charges = new HashSet<>();
+        private final Set<String> refunds = new HashSet<>();
+        private boolean decline;
+
+        @Override
+        public String charge(String idempotencyKey, BigDecimal amount, String paymentMethod) {
+            if (decline) {
+                throw new PaymentDeclinedException("Card declined");
+            }
+            charges.add(idempotencyKey);
+            return idempotencyKey;
+        }
+
+        @Override
+        public void refund(String paymentReference) {
+            refunds.add(paymentReference);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderFilter;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderSummaryPageResponse;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderSummary;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+import static com.ecommerce.order.support.StatementCounter.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies against an in-memory database that every order listing issues a constant number of
+ * SQL statements, whatever the page size
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ecommerce.order.support.StatementCounter"
+})
+class OrderListingQueryCountTest {
+
+    private static final int ORDERS = 60;
+
+    // The application class enables Feign clients, which a JPA slice cannot create
+    @SpringBootConfiguration
+    @EntityScan("com.ecommerce.order.model")
+    @EnableJpaRepositories("com.ecommerce.order.repository")
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orderRepository.saveAndFlush(Order.builder()
+                    .userId(i % 2 == 0 ? 5L : 6L)
+                    .totalAmount(new BigDecimal("30.00"))
+                    .status(i % 3 == 0 ? OrderStatus.SHIPPED : OrderStatus.PENDING)
+                    .build());
+            orderItemRepository.save(item(order.getId(), 1));
+            orderItemRepository.save(item(order.getId(), 2));
+            orderSummaryRepository.save(OrderSummary.builder()
+                    .orderId(order.getId())
+                    .userId(order.getUserId())
+                    .status(order.getStatus())
+                    .itemCount(2)
+                    .totalAmount(order.getTotalAmount())
+                    .firstItemName("Product 1")
+                    .createdAt(order.getCreatedAt())
+                    .updatedAt(order.getUpdatedAt())
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, null, null, null, null, null, null,
+                null, null, orderSummaryRepository, null, null, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(orderService, "entityManager", testEntityManager.getEntityManager());
+    }
+
+    @Test
+    void getOrders_IssuesThreeStatementsForAnyPageSize() {
+        for (int limit : new int[]{5, 50}) {
+            testEntityManager.clear();
+            OrderPageResponse page = assertStatementCount(3,
+                    () -> orderService.getOrders(OrderFilter.builder().build(), null, limit));
+
+            assertEquals(limit, page.getOrders().size());
+            assertTrue(page.getOrders().stream().allMatch(order -> order.getOrderItems().size() == 2));
+        }
+    }
+
+    @Test
+    void getOrders_FollowingPageIssuesThreeStatements() {
+        OrderPageResponse first = orderService.getOrders(OrderFilter.builder().build(), null, 50);
+        testEntityManager.clear();
+
+        OrderPageResponse second = assertStatementCount(3,
+                () -> orderService.getOrders(OrderFilter.builder().build(), first.getNextCursor(), 50));
+
+        assertEquals(ORDERS - 50, second.getOrders().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getOrdersByStatus_IssuesThreeStatementsForAnyPageSize() {
+        for (int limit : new int[]{5, 50}) {
+            testEntityManager.clear();
+            OrderPageResponse page = assertStatementCount(3,
+                    () -> orderService.getOrdersByStatus(OrderStatus.PENDING, null, limit));
+
+            assertEquals(Math.min(limit, 40), page.getOrders().size());
+            assertTrue(page.getOrders().stream().allMatch(order -> order.getStatus() == OrderStatus.PENDING));
+        }
+    }
+
+    @Test
+    void getUserOrders_IssuesThreeStatementsForAnyPageSize() {
+        for (int limit : new int[]{5, 50}) {
+            testEntityManager.clear();
+            OrderPageResponse page = assertStatementCount(3,
+                    () -> orderService.getUserOrders(5L, null, limit));
+
+            assertEquals(Math.min(limit, ORDERS / 2), page.getOrders().size());
+            assertTrue(page.getOrders().stream().allMatch(order -> order.getUserId() == 5L));
+        }
+    }
+
+    @Test
+    void getUserOrderSummaries_IssuesOneStatementForAnyPageSize() {
+        for (int limit : new int[]{5, 50}) {
+            testEntityManager.clear();
+            OrderSummaryPageResponse page = assertStatementCount(1,
+                    () -> orderService.getUserOrderSummaries(5L, null, limit));
+
+            assertEquals(Math.min(limit, ORDERS / 2), page.getSummaries().size());
+            assertTrue(page.getSummaries().stream().allMatch(summary -> summary.getItemCount() == 2));
+        }
+    }
+
+    @Test
+    void exportOrders_IssuesOneStatement() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = assertStatementCount(1, () -> {
+            try {
+                return orderService.exportOrders(OrderFilter.builder().build(), output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        assertEquals(ORDERS, count);
+    }
+
+    private OrderItem item(Long orderId, long productId) {
+        return OrderItem.builder()
+                .orderId(orderId)
+                .productId(productId)
+                .productName("Product " + productId)
+                .quantity(1)
+                .price(new BigDecimal("15.00"))
+                .build();
+    }
+}
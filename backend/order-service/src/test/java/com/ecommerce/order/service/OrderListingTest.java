@@ -0,0 +1,156 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderFilter;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderItemRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.stats.OrderStatusCounter;
+import com.ecommerce.order.util.OrderCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the paged and streamed admin order listings of OrderServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderListingTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 30, 0, 123_456_000);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private OrderStatusCounter orderStatusCounter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, null, null, null, null, null, null,
+                orderStatusCounter, null, null, null, null, objectMapper);
+        ReflectionTestUtils.setField(orderService, "entityManager", entityManager);
+    }
+
+    @Test
+    void getOrders_LoadsPageWithOneItemQueryAndReturnsCursor() {
+        when(orderRepository.findPageIdsByStatus(eq("PENDING"), any(), any(), eq(0L), eq(2)))
+                .thenReturn(List.of(3L, 1L));
+        when(orderRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(order(1L), order(3L)));
+        when(orderItemRepository.findByOrderIdInOrderByOrderIdAscIdAsc(List.of(3L, 1L)))
+                .thenReturn(List.of(item(10L, 1L), item(30L, 3L), item(31L, 3L)));
+
+        OrderPageResponse page = orderService.getOrders(
+                OrderFilter.builder().status(OrderStatus.PENDING).build(), null, 2);
+
+        assertEquals(List.of(3L, 1L), page.getOrders().stream().map(OrderResponse::getId).collect(Collectors.toList()));
+        assertEquals(2, page.getOrders().get(0).getOrderItems().size());
+        assertEquals(1, page.getOrders().get(1).getOrderItems().size());
+
+        OrderCursor next = OrderCursor.parse(page.getNextCursor());
+        assertEquals(NOW, next.getCreatedAt());
+        assertEquals(1L, next.getId());
+    }
+
+    @Test
+    void getOrders_ContinuesFromCursorAndEndsOnShortPage() {
+        String cursor = OrderCursor.of(NOW, 7L);
+        when(orderRepository.findPageIdsByUser(eq(5L), any(), eq(NOW), eq(7L), eq(20))).thenReturn(List.of());
+
+        OrderPageResponse page = orderService.getOrders(OrderFilter.builder().userId(5L).build(), cursor, 20);
+
+        assertTrue(page.getOrders().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getOrders_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getOrders(OrderFilter.builder().build(), "not a cursor", 20));
+    }
+
+    @Test
+    void countOrdersByStatus_ReadsMaintainedCounter() {
+        when(orderStatusCounter.count(OrderStatus.SHIPPED)).thenReturn(1_250_000L);
+
+        assertEquals(1_250_000L, orderService.countOrdersByStatus(OrderStatus.SHIPPED));
+        verify(orderRepository, never()).count();
+    }
+
+    @Test
+    void exportOrders_WritesOneLinePerOrderWithItsItems() throws Exception {
+        Order first = order(3L);
+        Order second = order(1L);
+        when(orderRepository.streamWithItems(eq(null), eq(null), any(), any())).thenReturn(Stream.of(
+                new Object[]{first, item(30L, 3L)},
+                new Object[]{first, item(31L, 3L)},
+                new Object[]{second, null}));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = orderService.exportOrders(OrderFilter.builder().build(), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        OrderResponse exported = objectMapper.readValue(lines[0], OrderResponse.class);
+        assertEquals(3L, exported.getId());
+        assertEquals(2, exported.getOrderItems().size());
+        assertTrue(objectMapper.readValue(lines[1], OrderResponse.class).getOrderItems().isEmpty());
+        verify(entityManager).detach(second);
+    }
+
+    private Order order(Long id) {
+        return Order.builder()
+                .id(id)
+                .userId(5L)
+                .totalAmount(new BigDecimal("20.00"))
+                .status(OrderStatus.PENDING)
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .build();
+    }
+
+    private OrderItem item(Long id, Long orderId) {
+        return OrderItem.builder()
+                .id(id)
+                .orderId(orderId)
+                .productId(100L)
+                .productName("Product")
+                .quantity(2)
+                .price(BigDecimal.TEN)
+                .build();
+    }
+}
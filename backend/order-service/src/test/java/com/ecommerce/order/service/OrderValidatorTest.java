@@ -0,0 +1,207 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.client.ProductLoader;
+import com.ecommerce.order.client.UserClient;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.InsufficientStockException;
+import com.ecommerce.order.exception.InvalidOrderException;
+import com.ecommerce.order.exception.OrderValidationTimeoutException;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OrderValidator
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderValidatorTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    @Mock
+    private UserClient userClient;
+
+    private ExecutorService executor;
+    private OrderValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        UserVerifier userVerifier = new UserVerifier(userClient);
+        ReflectionTestUtils.setField(userVerifier, "trustGateway", true);
+        ProductLoader productLoader = new ProductLoader(productClient, executor, new SimpleMeterRegistry(), false, 0, 1);
+        validator = new OrderValidator(productClient, productLoader, userVerifier, executor);
+        ReflectionTestUtils.setField(validator, "deadlineMs", 2000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void validate_ReturnsProductsInItemOrder() {
+        stubProduct(1L);
+        stubProduct(2L);
+        stubProduct(3L);
+
+        List<ProductResponse> products = validator.validate(7L, List.of(item(3L, 1), item(1L, 2), item(2L, 3)));
+
+        assertEquals(List.of(3L, 1L, 2L), products.stream().map(ProductResponse::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void validate_MissingUser() {
+        stubProduct(1L);
+        when(userClient.getUser(7L)).thenThrow(new RuntimeException("Resource not found"));
+
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class,
+                () -> validator.validate(7L, List.of(item(1L, 1))));
+        assertTrue(e.getMessage().contains("User"));
+    }
+
+    @Test
+    void validate_TrustsActiveStatusFromGateway() {
+        stubProduct(1L);
+        gatewayAssertsStatus("ACTIVE");
+
+        validator.validate(7L, List.of(item(1L, 1)));
+
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void validate_InactiveStatusFromGateway() {
+        gatewayAssertsStatus("LOCKED");
+
+        assertThrows(InvalidOrderException.class, () -> validator.validate(7L, List.of(item(1L, 1))));
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void validate_MissingProductWinsOverFailedStockCheck() {
+        when(productClient.getProduct(9L)).thenThrow(new RuntimeException("Resource not found"));
+        lenient().when(productClient.checkStock(9L, 1)).thenThrow(new RuntimeException("Resource not found"));
+
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class,
+                () -> validator.validate(7L, List.of(item(9L, 1))));
+        assertTrue(e.getMessage().contains("Product"));
+    }
+
+    @Test
+    void validate_InsufficientStock() {
+        stubProduct(1L);
+        when(productClient.checkStock(2L, 5)).thenReturn(false);
+        lenient().when(productClient.getProduct(2L)).thenReturn(ProductResponse.builder().id(2L).build());
+
+        assertThrows(InsufficientStockException.class,
+                () -> validator.validate(7L, List.of(item(1L, 1), item(2L, 5))));
+    }
+
+    @Test
+    void validate_CancelsRemainingCallsOnFirstFailure() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(userClient.getUser(7L)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        lenient().when(productClient.getProduct(1L)).thenReturn(ProductResponse.builder().id(1L).build());
+        when(productClient.checkStock(1L, 1)).thenReturn(false);
+
+        assertThrows(InsufficientStockException.class, () -> validator.validate(7L, List.of(item(1L, 1))));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void validate_DeadlineExceeded() {
+        ReflectionTestUtils.setField(validator, "deadlineMs", 50L);
+        stubProduct(1L);
+        when(userClient.getUser(7L)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return null;
+        });
+
+        assertThrows(OrderValidationTimeoutException.class, () -> validator.validate(7L, List.of(item(1L, 1))));
+    }
+
+    @Test
+    void validate_FailsFastWhenTheExecutorIsSaturated() throws Exception {
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturated.execute(() -> awaitQuietly(release));
+            saturated.execute(() -> awaitQuietly(release));
+            ProductLoader productLoader = new ProductLoader(productClient, saturated, new SimpleMeterRegistry(), false, 0, 1);
+            OrderValidator saturatedValidator = new OrderValidator(productClient, productLoader,
+                    new UserVerifier(userClient), saturated);
+
+            assertThrows(ServiceUnavailableException.class,
+                    () -> saturatedValidator.validate(7L, List.of(item(1L, 1))));
+            verifyNoInteractions(userClient, productClient);
+        } finally {
+            release.countDown();
+            saturated.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stubProduct(Long id) {
+        lenient().when(productClient.getProduct(id)).thenReturn(ProductResponse.builder().id(id).build());
+        lenient().when(productClient.checkStock(anyLong(), anyInt())).thenReturn(true);
+    }
+
+    private void gatewayAssertsStatus(String status) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Status", status);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private OrderItemRequest item(Long productId, int quantity) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+}
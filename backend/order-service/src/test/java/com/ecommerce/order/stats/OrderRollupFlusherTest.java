@@ -0,0 +1,194 @@
+package com.ecommerce.order.stats;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderRollup;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRollupRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for OrderRollupFlusher and OrderRollupAccumulator
+ * Runs against an embedded PostgreSQL whose schema is generated from the entities.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderRollupFlusherTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.now().minusHours(1).withSecond(30);
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OrderRollupRepository rollupRepository;
+
+    private OrderRollupAccumulator accumulator;
+    private OrderRollupFlusher flusher;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        createSchema();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE orders, order_rollups");
+        accumulator = new OrderRollupAccumulator();
+        flusher = new OrderRollupFlusher(accumulator, rollupRepository, jdbcTemplate,
+                new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(flusher, "minuteRetentionDays", 7L);
+        ReflectionTestUtils.setField(flusher, "hourRetentionDays", 90L);
+    }
+
+    @Test
+    void seed_GroupsExistingOrdersByBucketAndStatus() {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) " +
+                "SELECT i, 1, 10.00 * i, CASE WHEN i <= 3 THEN 'DELIVERED' ELSE 'PENDING' END, ?, now() " +
+                "FROM generate_series(1, 5) i", CREATED_AT);
+        // Old orders only get a day rollup
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) " +
+                "VALUES (6, 1, 5.00, 'DELIVERED', ?, now())", CREATED_AT.minusYears(1));
+        when(rollupRepository.anyExists()).thenReturn(false);
+
+        flusher.seed();
+
+        assertRollup("MINUTE", CREATED_AT, OrderStatus.DELIVERED, 3, "60.00");
+        assertRollup("HOUR", CREATED_AT, OrderStatus.PENDING, 2, "90.00");
+        assertRollup("DAY", CREATED_AT, OrderStatus.DELIVERED, 3, "60.00");
+        assertRollup("DAY", CREATED_AT.minusYears(1), OrderStatus.DELIVERED, 1, "5.00");
+        assertEquals(1, count("SELECT COUNT(*) FROM order_rollups WHERE bucket_start < now() - interval '90 days'"));
+    }
+
+    @Test
+    void flush_AddsConcurrentTransitionsToEveryGranularity() throws Exception {
+        when(rollupRepository.anyExists()).thenReturn(true);
+        flusher.seed();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        Order order = order(new BigDecimal("12.50"));
+                        accumulator.record(order, null, OrderStatus.PENDING);
+                        accumulator.record(order, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+                        if (i % 50 == 0) {
+                            flusher.flush();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        flusher.flush();
+
+        for (String granularity : List.of("MINUTE", "HOUR", "DAY")) {
+            assertRollup(granularity, CREATED_AT, OrderStatus.CONFIRMED, 8000, "100000.00");
+            assertRollup(granularity, CREATED_AT, OrderStatus.PENDING, 0, "0.00");
+        }
+    }
+
+    @Test
+    void flush_KeepsSumsWhenWriteFails() {
+        when(rollupRepository.anyExists()).thenReturn(true);
+        flusher.seed();
+        accumulator.record(order(new BigDecimal("20.00")), null, OrderStatus.PENDING);
+        jdbcTemplate.execute("ALTER TABLE order_rollups RENAME TO order_rollups_offline");
+        try {
+            flusher.flush();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE order_rollups_offline RENAME TO order_rollups");
+        }
+
+        flusher.flush();
+
+        assertRollup("DAY", CREATED_AT, OrderStatus.PENDING, 1, "20.00");
+    }
+
+    private static Order order(BigDecimal totalAmount) {
+        return Order.builder()
+                .userId(1L)
+                .totalAmount(totalAmount)
+                .createdAt(CREATED_AT)
+                .build();
+    }
+
+    private static void assertRollup(String granularity, LocalDateTime time, OrderStatus status,
+                                     long orderCount, String totalAmount) {
+        OrderRollup rollup = jdbcTemplate.queryForObject("SELECT order_count, total_amount FROM order_rollups " +
+                        "WHERE granularity = ? AND bucket_start = date_trunc(lower(?), CAST(? AS TIMESTAMP)) AND status = ?",
+                (rs, rowNum) -> OrderRollup.builder()
+                        .orderCount(rs.getLong(1))
+                        .totalAmount(rs.getBigDecimal(2))
+                        .build(),
+                granularity, granularity, time, status.name());
+        assertEquals(orderCount, rollup.getOrderCount(), granularity + " " + status);
+        assertEquals(new BigDecimal(totalAmount), rollup.getTotalAmount(), granularity + " " + status);
+    }
+
+    private static long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static void createSchema() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .build();
+        try (SessionFactory ignored = new MetadataSources(registry)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class)
+                .addAnnotatedClass(OrderRollup.class)
+                .buildMetadata()
+                .buildSessionFactory()) {
+            // Building the session factory creates the tables and their indexes
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ecommerce.order.storage;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for OrderPartitionMaintainer and OrderArchiver
+ * Runs against an embedded PostgreSQL whose schema is generated from the entities, with the foreign key
+ * and single-column indexes that databases created by earlier versions of the service still have.
+ */
+class OrderPartitioningTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private OrderPartitionMaintainer maintainer;
+    private OrderArchive archive;
+    private OrderArchiver archiver;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS order_archive CASCADE");
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA public");
+        updateSchema();
+        jdbcTemplate.execute("CREATE INDEX idx_user_id ON orders (user_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_status ON orders (status)");
+        jdbcTemplate.execute("ALTER TABLE order_items ADD CONSTRAINT fk_order_items_order " +
+                "FOREIGN KEY (order_id) REFERENCES orders (id)");
+
+        // Two years of orders, one a day, each with two items; every third is still pending
+        jdbcTemplate.execute("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) " +
+                "SELECT i, i % 10, 20.00, CASE WHEN i % 3 = 0 THEN 'PENDING' WHEN i % 2 = 0 THEN 'CANCELLED' " +
+                "ELSE 'DELIVERED' END, now() - i * interval '1 day', now() - i * interval '1 day' " +
+                "FROM generate_series(1, 730) i");
+        jdbcTemplate.execute("INSERT INTO order_items (id, order_id, product_id, product_name, quantity, price, created_at) " +
+                "SELECT o.id * 2 - n, o.id, n, 'Product ' || n, 1, 10.00, o.created_at " +
+                "FROM orders o CROSS JOIN generate_series(0, 1) n");
+        jdbcTemplate.execute("SELECT setval('orders_seq', 1000), setval('order_items_seq', 2000)");
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        maintainer = new OrderPartitionMaintainer(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(maintainer, "enabled", true);
+        ReflectionTestUtils.setField(maintainer, "monthsAhead", 3);
+        archive = new OrderArchive(jdbcTemplate);
+        archiver = new OrderArchiver(archive, jdbcTemplate, transactionManager,
+                List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "afterDays", 365L);
+        ReflectionTestUtils.setField(archiver, "batchSize", 100);
+    }
+
+    @Test
+    void maintain_PartitionsTablesInPlace() {
+        maintainer.maintain();
+        maintainer.maintain();
+
+        for (String table : OrderPartitionMaintainer.TABLES) {
+            assertTrue(maintainer.isPartitioned(table), table);
+            for (int month = 1; month <= 3; month++) {
+                String partition = table + "_" + YearMonth.now().plusMonths(month).toString().replace('-', '_');
+                assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)", String.class, partition), partition);
+            }
+        }
+        assertEquals(730, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(730, count("SELECT COUNT(*) FROM ONLY orders_legacy"));
+        assertEquals(0, count("SELECT COUNT(*) FROM pg_indexes WHERE indexname IN ('idx_user_id', 'idx_status')"));
+        assertEquals(1, count("SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'orders' " +
+                "AND indexname = 'idx_user_created_at_id'"));
+
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) " +
+                "VALUES (nextval('orders_seq'), 1, 10.00, 'PENDING', now() + interval '1 month', now())");
+        assertEquals(1, count("SELECT COUNT(*) FROM orders_" +
+                YearMonth.now().plusMonths(1).toString().replace('-', '_')));
+
+        // ddl-auto: update must accept the partitioned tables as they are
+        assertDoesNotThrow(OrderPartitioningTest::updateSchema);
+    }
+
+    @Test
+    void maintain_SkipsThePassWhileAnotherInstanceHoldsTheLock() throws SQLException {
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + OrderPartitionMaintainer.MAINTENANCE_LOCK + ")");
+            maintainer.maintain();
+            for (String table : OrderPartitionMaintainer.TABLES) {
+                assertFalse(maintainer.isPartitioned(table), table);
+            }
+        }
+
+        maintainer.maintain();
+        for (String table : OrderPartitionMaintainer.TABLES) {
+            assertTrue(maintainer.isPartitioned(table), table);
+        }
+    }
+
+    @Test
+    void archive_MovesOldFinalOrdersAndKeepsThemReadable() {
+        maintainer.maintain();
+        long archivable = count("SELECT COUNT(*) FROM orders WHERE status IN ('DELIVERED', 'CANCELLED') " +
+                "AND created_at < now() - interval '365 days'");
+
+        archiver.archive();
+
+        assertEquals(archivable, count("SELECT COUNT(*) FROM order_archive.orders"));
+        assertEquals(archivable * 2, count("SELECT COUNT(*) FROM order_archive.order_items"));
+        assertEquals(730 - archivable, count("SELECT COUNT(*) FROM orders"));
+        assertEquals((730 - archivable) * 2, count("SELECT COUNT(*) FROM order_items"));
+        assertEquals(0, count("SELECT COUNT(*) FROM orders WHERE status <> 'PENDING' " +
+                "AND created_at < now() - interval '365 days'"));
+
+        Order archived = archive.findByIdWithItems(401L).orElseThrow();
+        assertEquals(OrderStatus.DELIVERED, archived.getStatus());
+        assertEquals(List.of(801L, 802L), archived.getOrderItems().stream().map(OrderItem::getId).toList());
+        assertTrue(archive.findByIdWithItems(404L).isPresent());
+        // Pending orders stay live however old they are
+        assertTrue(archive.findByIdWithItems(402L).isEmpty());
+        assertTrue(archive.findByIdWithItems(1L).isEmpty());
+    }
+
+    @Test
+    void dropEmptyPartitions_KeepsPartitionsWithRows() {
+        maintainer.maintain();
+        YearMonth next = YearMonth.now().plusMonths(1);
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) " +
+                "VALUES (nextval('orders_seq'), 1, 10.00, 'PENDING', ?, now())", next.atDay(2).atStartOfDay());
+
+        maintainer.dropEmptyPartitions("orders", YearMonth.now().plusMonths(4));
+
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass('orders_legacy')", String.class));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)", String.class,
+                "orders_" + next.toString().replace('-', '_')));
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)", String.class,
+                "orders_" + next.plusMonths(1).toString().replace('-', '_')));
+        assertEquals(731, count("SELECT COUNT(*) FROM orders"));
+    }
+
+    private static long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static void updateSchema() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "update")
+                .applySetting(AvailableSettings.HBM2DDL_HALT_ON_ERROR, true)
+                .applySetting(AvailableSettings.EXTRA_PHYSICAL_TABLE_TYPES, "PARTITIONED TABLE")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .build();
+        try (SessionFactory ignored = new MetadataSources(registry)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class)
+                .buildMetadata()
+                .buildSessionFactory()) {
+            // Building the session factory creates or updates the tables and their indexes
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.order.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Records the SQL statements Hibernate prepares on the current thread
+ * Register with spring.jpa.properties.hibernate.session_factory.statement_inspector
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Forget the statements recorded so far
+     */
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * Get the statements recorded since the last reset
+     */
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    /**
+     * Run an action and assert how many statements it prepared
+     */
+    public static <T> T assertStatementCount(int expected, Supplier<T> action) {
+        reset();
+        T result = action.get();
+        List<String> statements = statements();
+        assertEquals(expected, statements.size(), () -> "Unexpected statements:\n" + String.join("\n", statements));
+        return result;
+    }
+}
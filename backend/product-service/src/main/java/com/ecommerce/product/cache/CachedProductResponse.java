@@ -0,0 +1,60 @@
+package com.ecommerce.product.cache;
+
+/**
+ * Encoded JSON of a product response, with an optional gzip variant and its ETag
+ */
+public final class CachedProductResponse {
+
+    private final Long productId;
+    private final String eTag;
+    private final byte[] json;
+    private final byte[] gzip;
+    private final long expiresAtNanos;
+    private volatile boolean referenced = true;
+
+    CachedProductResponse(Long productId, String eTag, byte[] json, byte[] gzip, long expiresAtNanos) {
+        this.productId = productId;
+        this.eTag = eTag;
+        this.json = json;
+        this.gzip = gzip;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * UTF-8 encoded JSON; the array is shared and must not be modified
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * Gzip-compressed JSON, or null when the response is too small to be worth compressing
+     */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    int size() {
+        return json.length + (gzip != null ? gzip.length : 0);
+    }
+
+    boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+
+    boolean isReferenced() {
+        return referenced;
+    }
+
+    void setReferenced(boolean referenced) {
+        this.referenced = referenced;
+    }
+}
@@ -0,0 +1,186 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.util.ETagGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of encoded product responses, bounded by the total size of the cached bytes
+ * A hit skips the entity-to-DTO copy and Jackson serialization entirely. Entries are dropped when
+ * this instance commits a change to the product and expire after a TTL, which bounds staleness
+ * for changes made on other instances. Invalidations are counted per product, so a change to one
+ * product never discards a concurrent load of another; that costs one counter per product changed
+ * on this instance. Eviction is second-chance (CLOCK) over the whole map, so reads never take a lock.
+ */
+@Component
+@Slf4j
+public class ProductResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Long, CachedProductResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<CachedProductResponse> clockHand;
+
+    @Value("${application.product.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.product.response-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${application.product.response-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${application.product.response-cache.gzip-min-bytes:512}")
+    private int gzipMinBytes;
+
+    public ProductResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Cached response of a product, or null
+     */
+    public CachedProductResponse get(Long productId) {
+        if (!enabled) {
+            return null;
+        }
+        CachedProductResponse cached = entries.get(productId);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime())) {
+            remove(productId, cached);
+            return null;
+        }
+        cached.setReferenced(true);
+        return cached;
+    }
+
+    /**
+     * Invalidation counter of a product, to read before loading it for the cache
+     */
+    public long generation(Long productId) {
+        return generations.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * Encode a product response and cache it unless the product was invalidated since loadedAtGeneration,
+     * in which case the response may already be outdated and is only returned
+     */
+    public CachedProductResponse put(ProductResponse response, long loadedAtGeneration) {
+        CachedProductResponse cached = encode(response);
+        if (!enabled || cached.size() > maxBytes / 16) {
+            return cached;
+        }
+
+        CachedProductResponse previous = entries.put(response.getId(), cached);
+        totalBytes.addAndGet(cached.size() - (previous != null ? previous.size() : 0));
+        if (generation(response.getId()) != loadedAtGeneration) {
+            remove(response.getId(), cached);
+        }
+        if (totalBytes.get() > maxBytes) {
+            evict();
+        }
+        return cached;
+    }
+
+    public void evict(Long productId) {
+        generations.merge(productId, 1L, Long::sum);
+        CachedProductResponse removed = entries.remove(productId);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.size());
+        }
+    }
+
+    /**
+     * Drop a product as soon as this instance commits a change to it
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProduct().getId());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    CachedProductResponse encode(ProductResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+            return new CachedProductResponse(response.getId(),
+                    ETagGenerator.forProduct(response.getId(), response.getUpdatedAt(), response.getQuantity()),
+                    json, gzip, System.nanoTime() + ttlMs * 1_000_000L);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode product " + response.getId(), e);
+        }
+    }
+
+    private void remove(Long productId, CachedProductResponse cached) {
+        if (entries.remove(productId, cached)) {
+            totalBytes.addAndGet(-cached.size());
+        }
+    }
+
+    /**
+     * Sweep the clock hand until the cache is back under budget
+     * Recently read entries get a second chance; one caller evicts while the others carry on
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            int budget = entries.size() * 2;
+            while (totalBytes.get() > maxBytes && budget-- > 0) {
+                if (clockHand == null || !clockHand.hasNext()) {
+                    clockHand = entries.values().iterator();
+                    if (!clockHand.hasNext()) {
+                        return;
+                    }
+                }
+                CachedProductResponse candidate = clockHand.next();
+                if (candidate.isReferenced() && !candidate.isExpired(now)) {
+                    candidate.setReferenced(false);
+                } else {
+                    remove(candidate.getProductId(), candidate);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
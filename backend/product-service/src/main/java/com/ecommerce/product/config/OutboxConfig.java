@@ -0,0 +1,24 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.outbox.ChangeEventSink;
+import com.ecommerce.product.outbox.LoggingChangeEventSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for the product change outbox
+ * Set application.product.outbox.sink to another value and declare a ChangeEventSink bean
+ * to publish to a broker instead of the change log
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.product.outbox.sink", havingValue = "log", matchIfMissing = true)
+    public ChangeEventSink changeEventSink() {
+        return new LoggingChangeEventSink();
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.datasource.ReplicaLagMonitor;
+import com.ecommerce.product.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing for Product Service
+ * Builds one Hikari pool per role (primary and each replica), all sharing the spring.datasource.hikari
+ * settings, and exposes them through a routing DataSource that sends read-only transactions to replicas
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(name = "application.product.datasource.replica-routing-enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties routingProperties,
+                                                             Environment environment,
+                                                             MeterRegistry meterRegistry) {
+        HikariDataSource primary = createPool(ReplicaRoutingDataSource.PRIMARY, dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+                dataSourceProperties, environment, meterRegistry);
+
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica config : routingProperties.getReplicas()) {
+            HikariDataSource pool = createPool(config.getName(), config.getUrl(),
+                    config.getUsername() != null ? config.getUsername() : dataSourceProperties.determineUsername(),
+                    config.getPassword() != null ? config.getPassword() : dataSourceProperties.determinePassword(),
+                    dataSourceProperties, environment, meterRegistry);
+            pool.setReadOnly(true);
+            if (config.getMaximumPoolSize() != null) {
+                pool.setMaximumPoolSize(config.getMaximumPoolSize());
+            }
+            replicas.add(new ReplicaRoutingDataSource.Replica(config.getName(), pool, config.getWeight()));
+        }
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicas);
+        replicas.forEach(replica -> registerReplicaGauges(replica, meterRegistry));
+        log.info("Read replica routing enabled with {} replicas", replicas.size());
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaRoutingProperties routingProperties) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, routingProperties.getLagQuery(),
+                routingProperties.getMaxReplicaLagSeconds());
+    }
+
+    private HikariDataSource createPool(String poolName, String url, String username, String password,
+                                        DataSourceProperties dataSourceProperties, Environment environment,
+                                        MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(poolName);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+
+    private void registerReplicaGauges(ReplicaRoutingDataSource.Replica replica, MeterRegistry meterRegistry) {
+        Gauge.builder("product.datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                .tag("replica", replica.getName())
+                .baseUnit("seconds")
+                .description("Last measured replication lag")
+                .register(meterRegistry);
+        Gauge.builder("product.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                .tag("replica", replica.getName())
+                .description("Whether the replica is in the read rotation")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.product.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica settings for Product Service
+ */
+@Data
+@ConfigurationProperties(prefix = "application.product.datasource")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Route read-only transactions to replicas
+     */
+    private boolean replicaRoutingEnabled = false;
+
+    /**
+     * Replicas lagging more than this are excluded until they catch up
+     */
+    private double maxReplicaLagSeconds = 5.0;
+
+    /**
+     * Query returning the replication lag of a replica in seconds
+     * A replica that has replayed everything it received reports no lag; otherwise the age of the last
+     * replayed transaction would grow while the primary is idle and exclude a replica that is up to date.
+     */
+    private String lagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int weight = 1;
+        private Integer maximumPoolSize;
+    }
+}
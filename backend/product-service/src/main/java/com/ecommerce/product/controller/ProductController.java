@@ -1,25 +1,55 @@
 package com.ecommerce.product.controller;
 
+import com.ecommerce.product.cache.CachedProductResponse;
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.dto.ProductBatchRequest;
+import com.ecommerce.product.dto.ProductChangeResponse;
+import com.ecommerce.product.dto.ProductFilterResponse;
+import com.ecommerce.product.dto.ProductPageResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSort;
+import com.ecommerce.product.dto.ProductSuggestion;
+import com.ecommerce.product.dto.SkuBatchRequest;
+import com.ecommerce.product.dto.SkuLookupResult;
+import com.ecommerce.product.outbox.ProductChangeFeed;
+import com.ecommerce.product.search.ProductFacetQuery;
+import com.ecommerce.product.search.ProductSuggestionIndex;
+import com.ecommerce.product.search.StockState;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.util.ETagGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * REST Controller for Product operations
@@ -34,6 +64,9 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductResponseCache productResponseCache;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -84,14 +117,32 @@ public class ProductController {
             description = "Retrieves a product by its ID"
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "200", description = "Product found",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the supplied ETag"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
-    public ResponseEntity<ProductResponse> getProductById(
-            @Parameter(description = "Product ID") @PathVariable Long id) {
+    public ResponseEntity<byte[]> getProductById(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Parameter(description = "ETag from a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.debug("Received request to get product with ID: {}", id);
-        ProductResponse response = productService.getProductById(id);
-        return ResponseEntity.ok(response);
+        CachedProductResponse cached = productResponseCache.get(id);
+        if (cached == null) {
+            if (ifNoneMatch != null) {
+                String etag = productService.getProductETag(id);
+                if (matchesETag(ifNoneMatch, etag)) {
+                    return notModified(etag);
+                }
+            }
+            long generation = productResponseCache.generation(id);
+            cached = productResponseCache.put(productService.getProductById(id), generation);
+        } else if (matchesETag(ifNoneMatch, cached.getETag())) {
+            return notModified(cached.getETag());
+        }
+        return encoded(cached, acceptEncoding);
     }
 
     @GetMapping
@@ -99,11 +150,20 @@ public class ProductController {
             summary = "Get all products",
             description = "Retrieves all products in the catalog"
     )
-    @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Catalog not modified since the supplied ETag")
+    })
+    public ResponseEntity<List<ProductResponse>> getAllProducts(
+            @Parameter(description = "ETag from a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Received request to get all products");
+        String etag = productService.getAllProductsETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         List<ProductResponse> responses = productService.getAllProducts();
-        return ResponseEntity.ok(responses);
+        return okWithETag(etag, responses);
     }
 
     @GetMapping("/category/{category}")
@@ -111,12 +171,21 @@ public class ProductController {
             summary = "Get products by category",
             description = "Retrieves all products in a specific category"
     )
-    @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Category not modified since the supplied ETag")
+    })
     public ResponseEntity<List<ProductResponse>> getProductsByCategory(
-            @Parameter(description = "Product category") @PathVariable String category) {
+            @Parameter(description = "Product category") @PathVariable String category,
+            @Parameter(description = "ETag from a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Received request to get products by category: {}", category);
+        String etag = productService.getProductsByCategoryETag(category);
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         List<ProductResponse> responses = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(responses);
+        return okWithETag(etag, responses);
     }
 
     @GetMapping("/search")
@@ -132,6 +201,116 @@ public class ProductController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/changes")
+    @Operation(
+            summary = "Get product changes",
+            description = "Returns product changes after a sequence number. Waits up to waitSeconds for new changes " +
+                    "when none are available yet (long polling)."
+    )
+    @ApiResponse(responseCode = "200", description = "Changes retrieved successfully; empty if the wait timed out")
+    public DeferredResult<List<ProductChangeResponse>> getProductChanges(
+            @Parameter(description = "Last sequence number already seen") @RequestParam(defaultValue = "0") @Min(0) Long after,
+            @Parameter(description = "Maximum number of changes") @RequestParam(defaultValue = "100") @Min(1) @Max(500) Integer limit,
+            @Parameter(description = "Seconds to wait for new changes") @RequestParam(defaultValue = "30") @Min(0) @Max(60) Integer waitSeconds) {
+        log.debug("Received request for product changes after sequence: {}", after);
+        return productChangeFeed.poll(after, limit, waitSeconds * 1000L);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Suggest products by prefix",
+            description = "Returns the most popular products whose name, a word of the name, or SKU starts with the prefix. " +
+                    "Served from an in-memory index; intended for search box autocomplete."
+    )
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @Parameter(description = "Prefix typed so far") @RequestParam @NotBlank @Size(max = 100) String prefix,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "10") @Min(1) @Max(10) Integer limit) {
+        List<ProductSuggestion> suggestions = productSuggestionIndex.suggest(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/browse")
+    @Operation(
+            summary = "Browse a category sorted by price or newest",
+            description = "Returns one page of a category, optionally limited to a price range, sorted by price " +
+                    "(ascending or descending) or newest first. Uses keyset pagination: pass the returned nextCursor " +
+                    "to get the following page."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid price range or cursor")
+    })
+    public ResponseEntity<ProductPageResponse> browseProducts(
+            @Parameter(description = "Product category") @RequestParam @NotBlank String category,
+            @Parameter(description = "Minimum price (inclusive)") @RequestParam(defaultValue = "0") @DecimalMin("0") BigDecimal minPrice,
+            @Parameter(description = "Maximum price (inclusive)") @RequestParam(defaultValue = "99999999.99") @DecimalMax("99999999.99") BigDecimal maxPrice,
+            @Parameter(description = "Sort order") @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit) {
+        log.debug("Received request to browse category: {} sorted by {}", category, sort);
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        ProductPageResponse response = productService.browseProducts(category, minPrice, maxPrice, sort, cursor, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/filter")
+    @Operation(
+            summary = "Filter products by facets",
+            description = "Filters products by category, stock state and price bucket. Values of the same facet are " +
+                    "combined with OR, different facets with AND. Returns the total match count, per-value facet counts " +
+                    "and one page of products ordered by ID. Served from in-memory bitmaps."
+    )
+    @ApiResponse(responseCode = "200", description = "Products filtered successfully")
+    public ResponseEntity<ProductFilterResponse> filterProducts(
+            @Parameter(description = "Categories to include") @RequestParam(required = false) List<String> category,
+            @Parameter(description = "Stock states to include") @RequestParam(required = false) List<StockState> stock,
+            @Parameter(description = "Price buckets to include, e.g. 10-25 or 1000+") @RequestParam(required = false) List<String> price,
+            @Parameter(description = "Return products with an ID greater than this") @RequestParam(defaultValue = "0") @Min(0) Long after,
+            @Parameter(description = "Maximum number of products") @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit) {
+        log.debug("Received request to filter products by category: {}, stock: {}, price: {}", category, stock, price);
+        ProductFacetQuery query = ProductFacetQuery.builder()
+                .categories(category != null ? new HashSet<>(category) : Set.of())
+                .stockStates(stock != null ? new HashSet<>(stock) : Set.of())
+                .priceBuckets(price != null ? new HashSet<>(price) : Set.of())
+                .build();
+        ProductFilterResponse response = productService.filterProducts(query, after, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/sku/batch")
+    @Operation(
+            summary = "Get products by many SKUs",
+            description = "Resolves up to 5000 SKUs in one request. Returns one result per requested SKU, in request " +
+                    "order, with found=false for unknown SKUs."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "SKUs resolved"),
+            @ApiResponse(responseCode = "400", description = "Empty request or more than 5000 SKUs")
+    })
+    public ResponseEntity<List<SkuLookupResult>> getProductsBySkus(@Valid @RequestBody SkuBatchRequest request) {
+        log.debug("Received request to resolve {} SKUs", request.getSkus().size());
+        List<SkuLookupResult> results = productService.getProductsBySkus(request.getSkus());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Get products by many IDs",
+            description = "Fetches up to 1000 products in one request, in request order. Unknown IDs are left out."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved"),
+            @ApiResponse(responseCode = "400", description = "Empty request or more than 1000 IDs")
+    })
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@Valid @RequestBody ProductBatchRequest request) {
+        log.debug("Received request to fetch {} products by ID", request.getIds().size());
+        List<ProductResponse> products = productService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/sku/{sku}")
     @Operation(
             summary = "Get product by SKU",
@@ -139,13 +318,22 @@ public class ProductController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the supplied ETag"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     public ResponseEntity<ProductResponse> getProductBySku(
-            @Parameter(description = "Product SKU") @PathVariable String sku) {
+            @Parameter(description = "Product SKU") @PathVariable String sku,
+            @Parameter(description = "ETag from a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Received request to get product with SKU: {}", sku);
+        if (ifNoneMatch != null) {
+            String etag = productService.getProductETagBySku(sku);
+            if (matchesETag(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
         ProductResponse response = productService.getProductBySku(sku);
-        return ResponseEntity.ok(response);
+        return okWithETag(ETagGenerator.forProduct(response.getId(), response.getUpdatedAt(), response.getQuantity()), response);
     }
 
     @DeleteMapping("/{id}")
@@ -205,9 +393,11 @@ public class ProductController {
     })
     public ResponseEntity<ProductResponse> reduceInventory(
             @Parameter(description = "Product ID") @PathVariable Long id,
-            @Parameter(description = "Amount to reduce") @RequestParam @Min(1) Integer amount) {
+            @Parameter(description = "Amount to reduce") @RequestParam @Min(1) Integer amount,
+            @Parameter(description = "Key that makes retries of this reservation apply only once")
+            @RequestParam(required = false) @Size(max = 100) String reservationKey) {
         log.info("Received request to reduce inventory for product ID: {} by amount: {}", id, amount);
-        ProductResponse response = productService.reduceInventory(id, amount);
+        ProductResponse response = productService.reduceInventory(id, amount, reservationKey);
         return ResponseEntity.ok(response);
     }
 
@@ -244,28 +434,6 @@ public class ProductController {
         return ResponseEntity.ok(responses);
     }
 
-    /**
-     * Check if product has sufficient stock
-     */
-    @GetMapping("/{id}/check-stock")
-    @Operation(summary = "Check product stock availability")
-    public ResponseEntity<Boolean> checkStock(
-            @Parameter(description = "Product ID") @PathVariable Long id,
-            @Parameter(description = "Quantity to check") @RequestParam Integer quantity) {
-        
-        log.info("Checking stock for product ID: {} with quantity: {}", id, quantity);
-        
-        try {
-            ProductResponse product = productService.getProductById(id);
-            boolean hasStock = product.getQuantity() >= quantity;
-            log.info("Stock check result for product ID {}: {}", id, hasStock);
-            return ResponseEntity.ok(hasStock);
-        } catch (Exception e) {
-            log.error("Error checking stock for product ID: {}", id, e);
-            return ResponseEntity.ok(false);
-        }
-    }
-
     /**
      * Restore product inventory (when order is cancelled)
      */
@@ -274,27 +442,96 @@ public class ProductController {
     @Operation(summary = "Restore product inventory")
     public ResponseEntity<ProductResponse> restoreInventory(
             @Parameter(description = "Product ID") @PathVariable Long id,
-            @Parameter(description = "Quantity to restore") @RequestParam @Min(1) Integer quantity) {
-        
-        log.info("Restoring inventory for product ID: {} by quantity: {}", id, quantity);
-        
-        try {
-            // Get current product
-            ProductResponse currentProduct = productService.getProductById(id);
-            
-            // Calculate new quantity
-            int newQuantity = currentProduct.getQuantity() + quantity;
-            
-            // Update inventory
-            ProductResponse response = productService.updateInventory(id, newQuantity);
-            
-            log.info("Successfully restored inventory for product ID: {}. New quantity: {}", 
-                    id, response.getQuantity());
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error restoring inventory for product ID: {}", id, e);
-            throw e;
+            @Parameter(description = "Quantity to restore") @RequestParam @Min(1) Integer quantity,
+            @Parameter(description = "Key of the reservation to release; releases it at most once")
+            @RequestParam(required = false) @Size(max = 100) String reservationKey) {
+        log.info("Received request to restore inventory for product ID: {} by quantity: {}", id, quantity);
+        ProductResponse response = productService.restoreInventory(id, quantity, reservationKey);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Check whether any entity tag of an If-None-Match header matches the current tag.
+     * Weak comparison is used, as required for If-None-Match by RFC 9110.
+     */
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
         }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        log.debug("Resource not modified for ETag: {}", etag);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    /**
+     * Write pre-encoded JSON as is, using the gzip variant when the client accepts it
+     */
+    private ResponseEntity<byte[]> encoded(CachedProductResponse cached, String acceptEncoding) {
+        boolean gzip = cached.getGzip() != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(cached.getETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? cached.getGzip() : cached.getJson());
+    }
+
+    /**
+     * Check whether an Accept-Encoding header allows gzip, honouring q-values (RFC 9110, section 12.5.3).
+     * An explicit gzip entry takes precedence over "*"; q=0 means "not acceptable".
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 2 && parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
+    }
+
+    private <T> ResponseEntity<T> okWithETag(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
     }
 }
@@ -0,0 +1,47 @@
+package com.ecommerce.product.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Periodically measures replication lag on every replica
+ * Replicas that lag too far behind, or cannot be reached, are excluded from read routing
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, String lagQuery, double maxLagSeconds) {
+        this.routingDataSource = routingDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${application.product.datasource.lag-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            boolean wasHealthy = replica.isHealthy();
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0.0;
+                replica.updateLag(lagSeconds, maxLagSeconds);
+            } catch (Exception e) {
+                log.warn("Lag check failed for replica {}: {}", replica.getName(), e.getMessage());
+                replica.markUnavailable();
+            }
+
+            if (wasHealthy != replica.isHealthy()) {
+                log.info("Replica {} is now {} (lag: {}s)", replica.getName(),
+                        replica.isHealthy() ? "in rotation" : "excluded", replica.getLagSeconds());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.product.datasource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DataSource that sends read-only transactions to a weighted pool of replicas
+ * and everything else to the primary
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the read-only flag of a transaction
+ * is only known after the transaction manager has begun it
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    @Getter
+    private final List<Replica> replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        Replica replica = selectReplica();
+        if (replica == null) {
+            log.debug("No healthy replica available, routing read-only transaction to primary");
+            return PRIMARY;
+        }
+        return replica.getName();
+    }
+
+    /**
+     * Pick a healthy replica at random, proportionally to its weight
+     */
+    Replica selectReplica() {
+        int totalWeight = 0;
+        for (Replica replica : replicas) {
+            if (replica.isHealthy()) {
+                totalWeight += replica.getWeight();
+            }
+        }
+        if (totalWeight <= 0) {
+            return null;
+        }
+
+        int point = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Replica replica : replicas) {
+            if (replica.isHealthy()) {
+                point -= replica.getWeight();
+                if (point < 0) {
+                    return replica;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.getDataSource()));
+    }
+
+    private void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A replica target with its selection weight and last observed replication lag
+     */
+    @Getter
+    public static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final int weight;
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+
+        public Replica(String name, DataSource dataSource, int weight) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.weight = weight;
+        }
+
+        /**
+         * Record the measured lag; replicas lagging more than the limit are excluded from selection
+         */
+        public void updateLag(double lagSeconds, double maxLagSeconds) {
+            this.lagSeconds = lagSeconds;
+            this.healthy = lagSeconds <= maxLagSeconds;
+        }
+
+        /**
+         * Exclude the replica until the next successful lag check
+         */
+        public void markUnavailable() {
+            this.healthy = false;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version stamp of a set of products (row count, latest modification time and the total of their
+ * journaled inventory increments not yet flushed)
+ * Used to derive ETags for collection endpoints without loading the products
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    private Long count;
+    private LocalDateTime lastUpdatedAt;
+    private Long pendingInventory;
+}
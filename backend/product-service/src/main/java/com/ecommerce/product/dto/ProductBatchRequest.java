@@ -0,0 +1,25 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for fetching many products by ID in one request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = 1000, message = "At most 1000 products can be fetched per request")
+    private List<@NotNull(message = "Product ID must not be null") Long> ids;
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.model.ProductChange;
+import com.ecommerce.product.model.ProductChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for product change feed entries
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeResponse {
+
+    private Long sequence;
+    private Long productId;
+    private String sku;
+    private ProductChangeType changeType;
+    private BigDecimal price;
+    private Integer quantity;
+    private LocalDateTime occurredAt;
+
+    /**
+     * Convert ProductChange entity to ProductChangeResponse DTO
+     */
+    public static ProductChangeResponse fromEntity(ProductChange change) {
+        return ProductChangeResponse.builder()
+                .sequence(change.getSequence())
+                .productId(change.getProductId())
+                .sku(change.getSku())
+                .changeType(change.getChangeType())
+                .price(change.getPrice())
+                .quantity(change.getQuantity())
+                .occurredAt(change.getOccurredAt())
+                .build();
+    }
+}
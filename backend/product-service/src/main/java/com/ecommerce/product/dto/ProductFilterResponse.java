@@ -0,0 +1,24 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for faceted product filter responses
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponse {
+
+    private long total;
+    private Map<String, Map<String, Long>> facets;
+    private List<ProductResponse> products;
+    private Long nextAfter;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for keyset-paginated product listings
+ * nextCursor is null on the last page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+
+    private List<ProductResponse> products;
+    private String nextCursor;
+}
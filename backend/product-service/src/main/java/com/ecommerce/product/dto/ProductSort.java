@@ -0,0 +1,10 @@
+package com.ecommerce.product.dto;
+
+/**
+ * Sort orders supported by the category listing
+ */
+public enum ProductSort {
+    PRICE_ASC,
+    PRICE_DESC,
+    NEWEST
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for resolving many SKUs in one request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuBatchRequest {
+
+    @NotEmpty(message = "At least one SKU is required")
+    @Size(max = 5000, message = "At most 5000 SKUs can be resolved per request")
+    private List<@NotBlank(message = "SKU must not be blank") String> skus;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the result of resolving a single SKU of a batch
+ * product is null when found is false
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuLookupResult {
+
+    private String sku;
+    private boolean found;
+    private ProductResponse product;
+
+    public static SkuLookupResult of(String sku, ProductResponse product) {
+        return SkuLookupResult.builder()
+                .sku(sku)
+                .found(product != null)
+                .product(product)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.model.InventoryDelta;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.InventoryDeltaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal of inventory increments that are acknowledged before they reach the product row
+ * Appending is a single insert that takes no lock on the product, so bursts of restorations
+ * do not serialize on hot rows. Pending deltas are folded into products in batches by
+ * InventoryJournalFlusher, and read paths add them to the stored quantity meanwhile
+ * (Product#getPendingInventory reads their sum in the same statement as the row).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryJournal {
+
+    private final InventoryDeltaRepository deltaRepository;
+
+    /**
+     * Durably record an increment of a product quantity
+     */
+    @Transactional
+    public void append(Long productId, int delta) {
+        deltaRepository.save(InventoryDelta.builder()
+                .productId(productId)
+                .delta(delta)
+                .createdAt(LocalDateTime.now())
+                .build());
+        log.debug("Journaled inventory delta {} for product ID: {}", delta, productId);
+    }
+
+    /**
+     * Sum of the increments not yet applied, for every product that has any
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> pendingDeltas() {
+        Map<Long, Integer> pending = new HashMap<>();
+        for (Object[] row : deltaRepository.sumPendingByProduct()) {
+            pending.put((Long) row[0], Math.toIntExact((Long) row[1]));
+        }
+        return pending;
+    }
+
+    /**
+     * Lock the pending deltas of a product ahead of its row
+     * Deltas claimed by a flush are waited for rather than skipped: once that flush commits they
+     * are gone and their increments are already in the product row the caller locks next. Taking
+     * the delta locks before the row lock follows the flusher's order, so the two never deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<InventoryDelta> lockPending(Long productId) {
+        return deltaRepository.findPendingForUpdateByProductId(productId);
+    }
+
+    /**
+     * Fold deltas locked with lockPending into the given managed entity, whose row the caller holds
+     *
+     * @return the applied increment
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int applyPending(Product product, List<InventoryDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        int total = deltas.stream().mapToInt(InventoryDelta::getDelta).sum();
+        product.increaseQuantity(total);
+        deltaRepository.deleteAllInBatch(deltas);
+        return total;
+    }
+}
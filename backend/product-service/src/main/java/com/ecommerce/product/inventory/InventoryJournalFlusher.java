@@ -0,0 +1,70 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.model.InventoryDelta;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangeRecorder;
+import com.ecommerce.product.repository.InventoryDeltaRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies journaled inventory deltas to products
+ * Each run claims a batch of deltas, coalesces them per product and applies the sums with one
+ * JDBC batch of relative UPDATEs, so N restorations of a product cost a single row write.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryJournalFlusher {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET quantity = quantity + ?, updated_at = ? WHERE id = ?";
+
+    private final InventoryDeltaRepository deltaRepository;
+    private final ProductRepository productRepository;
+    private final ProductChangeRecorder changeRecorder;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${application.product.inventory-journal.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${application.product.inventory-journal.flush-interval-ms:200}")
+    @Transactional
+    public void flush() {
+        List<InventoryDelta> batch = deltaRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Sorted by product ID so concurrent writers lock rows in a consistent order
+        Map<Long, Integer> totals = new TreeMap<>();
+        batch.forEach(delta -> totals.merge(delta.getProductId(), delta.getDelta(), Integer::sum));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>(totals.size());
+        totals.forEach((productId, total) -> updates.add(new Object[]{total, now, productId}));
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, updates);
+        deltaRepository.deleteAllInBatch(batch);
+
+        // Deltas of deleted products are dropped with the batch; the others are published as changes
+        for (Product product : productRepository.findAllById(totals.keySet())) {
+            changeRecorder.record(product, ProductChangeType.INVENTORY_CHANGED);
+        }
+        log.debug("Applied {} inventory deltas to {} products", batch.size(), totals.size());
+    }
+}
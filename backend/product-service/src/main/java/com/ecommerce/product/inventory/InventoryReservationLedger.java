@@ -0,0 +1,80 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.model.InventoryReservationStatus;
+import com.ecommerce.product.repository.InventoryReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deduplicates inventory reductions and restorations made with a reservation key
+ * Callers such as the order payment saga retry calls whose outcome they do not know. The key is
+ * recorded in the same transaction as the inventory change, so a retry of a call that was applied
+ * becomes a no-op, and a release of a reservation that never happened leaves a tombstone that
+ * turns the late reservation into a no-op as well.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryReservationLedger {
+
+    private final InventoryReservationRepository reservationRepository;
+
+    @Value("${application.product.inventory-reservations.retention-hours:168}")
+    private long retentionHours;
+
+    /**
+     * Record a reservation; must run in the transaction that reduces the inventory
+     *
+     * @return true if the inventory should be reduced, false if the key was already reserved or released
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean reserve(String key, Long productId, int quantity) {
+        boolean reserved = insert(key, productId, quantity, InventoryReservationStatus.RESERVED);
+        if (!reserved) {
+            log.info("Reservation {} of product ID: {} already applied or released, skipping", key, productId);
+        }
+        return reserved;
+    }
+
+    /**
+     * Record the release of a reservation; must run in the transaction that restores the inventory
+     *
+     * @return true if the inventory should be restored, false if the key was already released or never reserved
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean release(String key, Long productId, int quantity) {
+        if (reservationRepository.markReleased(key) == 1) {
+            return true;
+        }
+        if (insert(key, productId, quantity, InventoryReservationStatus.RELEASED)) {
+            log.info("Reservation {} of product ID: {} released before it was made, leaving a tombstone", key, productId);
+            return false;
+        }
+        // A concurrent reservation with the key committed while the tombstone insert waited for it
+        boolean released = reservationRepository.markReleased(key) == 1;
+        if (!released) {
+            log.info("Reservation {} of product ID: {} already released, skipping", key, productId);
+        }
+        return released;
+    }
+
+    @Scheduled(cron = "${application.product.inventory-reservations.cleanup-cron:0 45 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = reservationRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} inventory reservations older than {} hours", deleted, retentionHours);
+        }
+    }
+
+    private boolean insert(String key, Long productId, int quantity, InventoryReservationStatus status) {
+        return reservationRepository.insertIfAbsent(key, productId, quantity, status.name(), LocalDateTime.now()) == 1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Journal record of an inventory increment not yet applied to its product
+ * Deleted once the increment has been folded into the product quantity
+ */
+@Entity
+@Table(name = "inventory_deltas", indexes = {
+        @Index(name = "idx_inventory_delta_product", columnList = "product_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of an inventory reservation made with a caller-supplied key
+ * Lets a retried reduce or restore call with the same key be recognised and applied only once.
+ * A RELEASED record without a preceding reservation is a tombstone that blocks a late reservation.
+ */
+@Entity
+@Table(name = "inventory_reservations", indexes = {
+        @Index(name = "idx_inventory_reservation_created_at", columnList = "created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservation {
+
+    @Id
+    @Column(name = "reservation_key", length = 100)
+    private String reservationKey;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private InventoryReservationStatus status;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
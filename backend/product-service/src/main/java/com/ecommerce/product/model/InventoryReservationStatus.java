@@ -0,0 +1,9 @@
+package com.ecommerce.product.model;
+
+/**
+ * State of a keyed inventory reservation
+ */
+public enum InventoryReservationStatus {
+    RESERVED,
+    RELEASED
+}
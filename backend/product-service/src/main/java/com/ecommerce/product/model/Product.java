@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -18,6 +19,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "products", indexes = {
         @Index(name = "idx_category", columnList = "category"),
+        @Index(name = "idx_category_price_id", columnList = "category, price, id"),
+        @Index(name = "idx_category_created_at_id", columnList = "category, created_at, id"),
         @Index(name = "idx_sku", columnList = "sku", unique = true),
         @Index(name = "idx_name", columnList = "name")
 })
@@ -61,6 +64,14 @@ public class Product {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * Sum of the journaled increments not yet folded into quantity
+     * Read in the same statement as the row, so the two always come from one snapshot; it is
+     * not maintained in memory and stays null on entities that were never loaded.
+     */
+    @Formula("(SELECT COALESCE(SUM(d.delta), 0) FROM inventory_deltas d WHERE d.product_id = id)")
+    private Integer pendingInventory;
+
     /**
      * Check if product is in stock
      */
@@ -68,6 +79,13 @@ public class Product {
         return quantity != null && quantity > 0;
     }
 
+    /**
+     * Quantity including the increments still pending in the inventory journal
+     */
+    public int availableQuantity() {
+        return quantity + (pendingInventory != null ? pendingInventory : 0);
+    }
+
     /**
      * Check if sufficient quantity is available
      */
@@ -0,0 +1,66 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox record of a single product mutation
+ * Written in the same transaction as the mutation. The change feed position is assigned later by
+ * ProductChangeSequencer, in commit order, because IDs are allocated before commit and can become
+ * visible out of order.
+ */
+@Entity
+@Table(name = "product_outbox", indexes = {
+        @Index(name = "idx_outbox_published_at", columnList = "published_at"),
+        @Index(name = "idx_outbox_sequence", columnList = "sequence", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false, length = 100)
+    private String sku;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductChangeType changeType;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+
+    private Integer quantity;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    /**
+     * ID of the writing transaction, set by the database
+     */
+    @Column(name = "transaction_id", insertable = false, updatable = false,
+            columnDefinition = "bigint NOT NULL DEFAULT txid_current()")
+    private Long transactionId;
+
+    /**
+     * Change feed sequence number; null until the writing transaction is known to have finished
+     */
+    @Column(insertable = false, updatable = false)
+    private Long sequence;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row holding the last change feed sequence number handed out
+ * Kept apart from product_outbox so purging published changes can never lower the next number.
+ */
+@Entity
+@Table(name = "product_outbox_counter")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeCounter {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+}
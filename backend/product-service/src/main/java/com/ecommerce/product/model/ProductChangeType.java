@@ -0,0 +1,11 @@
+package com.ecommerce.product.model;
+
+/**
+ * Kind of mutation recorded in the product change outbox
+ */
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    INVENTORY_CHANGED
+}
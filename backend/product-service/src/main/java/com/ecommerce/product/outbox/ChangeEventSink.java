@@ -0,0 +1,18 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductChangeResponse;
+
+import java.util.List;
+
+/**
+ * Destination for product change records drained from the outbox
+ * Implementations must be idempotent per sequence number: a batch is redelivered
+ * if the relay fails before marking it published
+ */
+public interface ChangeEventSink {
+
+    /**
+     * Publish a batch of changes, ordered by sequence number
+     */
+    void publish(List<ProductChangeResponse> changes);
+}
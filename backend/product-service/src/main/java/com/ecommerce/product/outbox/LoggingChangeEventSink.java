@@ -0,0 +1,25 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductChangeResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Change sink that writes one line per change to the "product-changes" logger
+ * Used when no broker sink is configured; route the logger to a file to get a change log
+ */
+public class LoggingChangeEventSink implements ChangeEventSink {
+
+    private static final Logger changeLog = LoggerFactory.getLogger("product-changes");
+
+    @Override
+    public void publish(List<ProductChangeResponse> changes) {
+        for (ProductChangeResponse change : changes) {
+            changeLog.info("seq={} type={} productId={} sku={} price={} quantity={} occurredAt={}",
+                    change.getSequence(), change.getChangeType(), change.getProductId(), change.getSku(),
+                    change.getPrice(), change.getQuantity(), change.getOccurredAt());
+        }
+    }
+}
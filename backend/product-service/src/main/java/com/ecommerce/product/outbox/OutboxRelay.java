@@ -0,0 +1,62 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductChangeResponse;
+import com.ecommerce.product.model.ProductChange;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Drains unpublished outbox records to the configured sink in batches
+ * Delivery is at-least-once: a batch is marked published only after the sink accepted it
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final ProductChangeRepository changeRepository;
+    private final ChangeEventSink changeEventSink;
+
+    @Value("${application.product.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${application.product.outbox.retention-hours:168}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${application.product.outbox.relay-interval-ms:1000}")
+    @Transactional
+    public void relay() {
+        List<ProductChange> batch = changeRepository.findUnpublishedForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ProductChangeResponse> changes = batch.stream()
+                .map(ProductChangeResponse::fromEntity)
+                .collect(Collectors.toList());
+        changeEventSink.publish(changes);
+
+        List<Long> ids = batch.stream().map(ProductChange::getId).collect(Collectors.toList());
+        changeRepository.markPublished(ids, LocalDateTime.now());
+        log.debug("Relayed {} product changes up to sequence {}", ids.size(), batch.get(batch.size() - 1).getSequence());
+    }
+
+    @Scheduled(cron = "${application.product.outbox.cleanup-cron:0 15 * * * *}")
+    @Transactional
+    public void purgePublished() {
+        int deleted = changeRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} published product changes older than {} hours", deleted, retentionHours);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductChangeResponse;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Long-polling reader over the product change outbox
+ * Only changes that ProductChangeSequencer has numbered are returned. Sequence numbers are assigned in
+ * commit order, so a reader that moved past a sequence number never misses a change committed later.
+ */
+@Component
+@Slf4j
+public class ProductChangeFeed {
+
+    private final ProductChangeRepository changeRepository;
+    private final TaskScheduler taskScheduler;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    @Value("${application.product.outbox.feed-max-batch-size:500}")
+    private int maxBatchSize;
+
+    public ProductChangeFeed(ProductChangeRepository changeRepository, TaskScheduler taskScheduler) {
+        this.changeRepository = changeRepository;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Return changes after the given sequence number, waiting up to the timeout for new ones
+     */
+    public DeferredResult<List<ProductChangeResponse>> poll(long after, int limit, long timeoutMs) {
+        int batchSize = Math.min(limit, maxBatchSize);
+        DeferredResult<List<ProductChangeResponse>> result = new DeferredResult<>(timeoutMs, List.of());
+
+        List<ProductChangeResponse> changes = findChanges(after, batchSize);
+        if (!changes.isEmpty() || timeoutMs <= 0) {
+            result.setResult(changes);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(after, batchSize, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        log.debug("Change feed reader waiting after sequence {}, {} readers waiting", after, waiters.size());
+        return result;
+    }
+
+    /**
+     * Called after this instance committed new sequence numbers
+     */
+    public void signalNewChanges() {
+        if (!waiters.isEmpty()) {
+            taskScheduler.schedule(this::dispatch, Instant.now());
+        }
+    }
+
+    /**
+     * Complete waiting readers that have new changes
+     * Also runs periodically to pick up changes sequenced by other instances
+     */
+    @Scheduled(fixedDelayString = "${application.product.outbox.feed-poll-interval-ms:1000}")
+    public void dispatch() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+
+        long minAfter = waiters.stream().mapToLong(Waiter::after).min().orElse(0L);
+        List<ProductChangeResponse> changes = findChanges(minAfter, maxBatchSize);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        for (Waiter waiter : waiters) {
+            List<ProductChangeResponse> pending = changes.stream()
+                    .filter(change -> change.getSequence() > waiter.after())
+                    .limit(waiter.limit())
+                    .collect(Collectors.toList());
+            if (!pending.isEmpty()) {
+                waiter.result().setResult(pending);
+            }
+        }
+    }
+
+    private List<ProductChangeResponse> findChanges(long after, int limit) {
+        return changeRepository.findChangesAfter(after, PageRequest.of(0, limit)).stream()
+                .map(ProductChangeResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    private record Waiter(long after, int limit, DeferredResult<List<ProductChangeResponse>> result) {
+    }
+}
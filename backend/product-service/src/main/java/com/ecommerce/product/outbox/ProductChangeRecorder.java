@@ -0,0 +1,44 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductChange;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes product mutations to the outbox table
+ * Must run inside the mutating transaction so the change record commits or rolls back with it
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductChangeRecorder {
+
+    private final ProductChangeRepository changeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Product product, ProductChangeType changeType) {
+        ProductChange change = ProductChange.builder()
+                .productId(product.getId())
+                .sku(product.getSku())
+                .changeType(changeType)
+                .price(changeType == ProductChangeType.DELETED ? null : product.getPrice())
+                .quantity(changeType == ProductChangeType.DELETED ? null : product.getQuantity())
+                .occurredAt(LocalDateTime.now())
+                .build();
+
+        changeRepository.save(change);
+        eventPublisher.publishEvent(new ProductChangedEvent(changeType, ProductResponse.fromEntity(product)));
+        log.debug("Recorded {} change for product ID: {}", changeType, product.getId());
+    }
+}
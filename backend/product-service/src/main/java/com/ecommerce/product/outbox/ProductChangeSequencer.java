@@ -0,0 +1,81 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.model.ProductChangeCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Assigns change feed sequence numbers to outbox records in commit order
+ * Outbox IDs are allocated before commit, so a record can become visible after records with higher IDs.
+ * A record is numbered only once its writing transaction is older than the oldest transaction still
+ * running (the xmin of the current snapshot); such transactions have finished, so no record can
+ * appear below the numbers handed out. Records are numbered by (transaction ID, ID) in one statement
+ * per run, and runs of all instances are serialized by an advisory lock, so the numbers only grow.
+ * The last number handed out is kept in product_outbox_counter and advanced by the same statement,
+ * so numbering continues above it even after the relay has purged every numbered record.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductChangeSequencer {
+
+    // Advisory lock key shared by the sequencers of all instances
+    private static final long LOCK_KEY = 0x70726f64_6f757462L;
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Databases without a counter continue after the IDs that earlier versions used as sequence numbers
+    private static final String SEED_SQL = """
+            INSERT INTO product_outbox_counter (id, last_value)
+            SELECT ?, COALESCE(MAX(sequence), MAX(id), 0) FROM product_outbox
+            ON CONFLICT (id) DO NOTHING""";
+
+    private static final String ASSIGN_SQL = """
+            WITH finished AS (
+                SELECT id, row_number() OVER (ORDER BY transaction_id, id) AS position
+                FROM product_outbox
+                WHERE sequence IS NULL AND transaction_id < txid_snapshot_xmin(txid_current_snapshot())
+                ORDER BY transaction_id, id
+                LIMIT ?
+            ), counter AS (
+                UPDATE product_outbox_counter
+                SET last_value = last_value + (SELECT COUNT(*) FROM finished)
+                WHERE id = ?
+                RETURNING last_value - (SELECT COUNT(*) FROM finished) AS base
+            )
+            UPDATE product_outbox c SET sequence = counter.base + finished.position
+            FROM counter, finished
+            WHERE c.id = finished.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductChangeFeed changeFeed;
+
+    @Scheduled(fixedDelayString = "${application.product.outbox.sequence-interval-ms:100}")
+    @Transactional
+    public int sequence() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+
+        jdbcTemplate.update(SEED_SQL, ProductChangeCounter.ID);
+        int sequenced = jdbcTemplate.update(ASSIGN_SQL, BATCH_SIZE, ProductChangeCounter.ID);
+        if (sequenced > 0) {
+            log.debug("Assigned sequence numbers to {} product changes", sequenced);
+            // Wake long-polling feed readers once the numbers are visible to them
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changeFeed.signalNewChanges();
+                }
+            });
+        }
+        return sequenced;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.ProductChangeType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published for every recorded product mutation
+ * Listen with @TransactionalEventListener to react only once the mutation has committed
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    private final ProductChangeType changeType;
+    private final ProductResponse product;
+}
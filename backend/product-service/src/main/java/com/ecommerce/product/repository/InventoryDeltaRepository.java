@@ -0,0 +1,42 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.InventoryDelta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for the inventory delta journal
+ */
+@Repository
+public interface InventoryDeltaRepository extends JpaRepository<InventoryDelta, Long> {
+
+    /**
+     * Lock the oldest pending deltas, skipping rows already claimed by another flusher
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM InventoryDelta d ORDER BY d.id")
+    List<InventoryDelta> findPendingForUpdate(Pageable pageable);
+
+    /**
+     * Lock the pending deltas of a product, waiting for a flusher that has claimed some of them
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM InventoryDelta d WHERE d.productId = :productId ORDER BY d.id")
+    List<InventoryDelta> findPendingForUpdateByProductId(@Param("productId") Long productId);
+
+    /**
+     * Sum of the pending deltas of every product that has any, as (productId, sum) pairs
+     */
+    @Query("SELECT d.productId, SUM(d.delta) FROM InventoryDelta d GROUP BY d.productId")
+    List<Object[]> sumPendingByProduct();
+}
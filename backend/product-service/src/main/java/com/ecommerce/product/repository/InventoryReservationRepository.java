@@ -0,0 +1,43 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.InventoryReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for keyed inventory reservations
+ */
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, String> {
+
+    /**
+     * Insert a reservation record unless one with the key exists; waits for a concurrent insert of the same key
+     *
+     * @return 1 if inserted, 0 if the key was already taken
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory_reservations (reservation_key, product_id, quantity, status, created_at) " +
+                   "VALUES (:key, :productId, :quantity, :status, :createdAt) ON CONFLICT (reservation_key) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("productId") Long productId, @Param("quantity") int quantity,
+                       @Param("status") String status, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Move a reservation from RESERVED to RELEASED
+     *
+     * @return 1 if it was reserved, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE InventoryReservation r SET r.status = com.ecommerce.product.model.InventoryReservationStatus.RELEASED " +
+           "WHERE r.reservationKey = :key AND r.status = com.ecommerce.product.model.InventoryReservationStatus.RESERVED")
+    int markReleased(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM InventoryReservation r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
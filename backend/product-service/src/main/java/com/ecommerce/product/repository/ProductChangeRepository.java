@@ -0,0 +1,58 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.ProductChange;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the product change outbox
+ */
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    /**
+     * Lock the oldest sequenced but unpublished changes, skipping rows already claimed by another relay
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM ProductChange c WHERE c.publishedAt IS NULL AND c.sequence IS NOT NULL ORDER BY c.sequence")
+    List<ProductChange> findUnpublishedForUpdate(Pageable pageable);
+
+    /**
+     * Find changes after a sequence number, in sequence order
+     */
+    @Query("SELECT c FROM ProductChange c WHERE c.sequence > :after ORDER BY c.sequence")
+    List<ProductChange> findChangesAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Mark a batch of changes as published
+     */
+    @Modifying
+    @Query("UPDATE ProductChange c SET c.publishedAt = :publishedAt WHERE c.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Delete published changes older than the retention cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM ProductChange c WHERE c.publishedAt IS NOT NULL AND c.occurredAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Get the sequence number of the latest recorded change, which purging does not lower
+     */
+    @Query(value = "SELECT COALESCE((SELECT last_value FROM product_outbox_counter WHERE id = 1), " +
+            "(SELECT MAX(sequence) FROM product_outbox), 0)", nativeQuery = true)
+    Long findLatestSequence();
+}
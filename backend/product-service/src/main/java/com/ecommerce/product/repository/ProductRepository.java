@@ -1,13 +1,23 @@
 package com.ecommerce.product.repository;
 
+import com.ecommerce.product.dto.CatalogVersion;
+import com.ecommerce.product.dto.ProductSuggestion;
 import com.ecommerce.product.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Product entity
@@ -16,6 +26,31 @@ import java.util.Optional;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /*
+     * Keyset queries for category listings. Each selects only columns of its composite index,
+     * so PostgreSQL answers it with an index-only scan; rows are then loaded by ID.
+     */
+    String KEYSET_BY_PRICE_ASC =
+            "SELECT p.id FROM products p WHERE p.category = :category " +
+            "AND p.price BETWEEN :minPrice AND :maxPrice AND (p.price, p.id) > (:afterPrice, :afterId) " +
+            "ORDER BY p.price, p.id LIMIT :limit";
+
+    String KEYSET_BY_PRICE_DESC =
+            "SELECT p.id FROM products p WHERE p.category = :category " +
+            "AND p.price BETWEEN :minPrice AND :maxPrice AND (p.price, p.id) < (:afterPrice, :afterId) " +
+            "ORDER BY p.price DESC, p.id DESC LIMIT :limit";
+
+    String KEYSET_BY_NEWEST =
+            "SELECT p.id FROM products p WHERE p.category = :category " +
+            "AND (p.created_at, p.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit";
+
+    // Price is not part of (category, created_at, id), so this one filters price on the heap
+    String KEYSET_BY_NEWEST_IN_PRICE_RANGE =
+            "SELECT p.id FROM products p WHERE p.category = :category " +
+            "AND p.price BETWEEN :minPrice AND :maxPrice AND (p.created_at, p.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit";
+
     /**
      * Find all products by category
      */
@@ -27,6 +62,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Product> findByNameContaining(@Param("searchTerm") String searchTerm);
 
+    /**
+     * Find all products whose SKU is in the given collection, with a single IN query
+     */
+    @Query("SELECT p FROM Product p WHERE p.sku IN :skus")
+    List<Product> findBySkuIn(@Param("skus") Collection<String> skus);
+
     /**
      * Find product by SKU with quantity greater than specified amount
      */
@@ -61,4 +102,119 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p FROM Product p WHERE p.category = :category AND p.quantity > 0")
     List<Product> findByCategoryAndInStock(@Param("category") String category);
+
+    /**
+     * Find the ID, last modification time and effective quantity (including journaled increments)
+     * of a product without loading the entity
+     */
+    @Query("SELECT p.id, p.updatedAt, p.quantity + " +
+           "(SELECT COALESCE(SUM(d.delta), 0) FROM InventoryDelta d WHERE d.productId = p.id) " +
+           "FROM Product p WHERE p.id = :id")
+    List<Object[]> findVersionById(@Param("id") Long id);
+
+    /**
+     * Find the ID, last modification time and effective quantity (including journaled increments)
+     * of a product by SKU without loading the entity
+     */
+    @Query("SELECT p.id, p.updatedAt, p.quantity + " +
+           "(SELECT COALESCE(SUM(d.delta), 0) FROM InventoryDelta d WHERE d.productId = p.id) " +
+           "FROM Product p WHERE p.sku = :sku")
+    List<Object[]> findVersionBySku(@Param("sku") String sku);
+
+    /**
+     * Get the version stamp of the whole catalog
+     */
+    @Query("SELECT new com.ecommerce.product.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt), " +
+           "(SELECT COALESCE(SUM(d.delta), 0) FROM InventoryDelta d)) FROM Product p")
+    CatalogVersion findCatalogVersion();
+
+    /**
+     * Get the version stamp of a single category
+     */
+    @Query("SELECT new com.ecommerce.product.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt), " +
+           "(SELECT COALESCE(SUM(d.delta), 0) FROM InventoryDelta d, Product c " +
+           "WHERE c.id = d.productId AND c.category = :category)) " +
+           "FROM Product p WHERE p.category = :category")
+    CatalogVersion findCatalogVersionByCategory(@Param("category") String category);
+
+    /**
+     * Stream the suggestion fields of every product with a server-side cursor
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT new com.ecommerce.product.dto.ProductSuggestion(p.id, p.name, p.sku) FROM Product p")
+    Stream<ProductSuggestion> streamSuggestions();
+
+    /**
+     * Stream every product with a server-side cursor
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT p FROM Product p")
+    Stream<Product> streamAll();
+
+    /**
+     * Stream the ID and last modification time of every product with a server-side cursor
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT p.id, p.updatedAt FROM Product p")
+    Stream<Object[]> streamVersions();
+
+    /**
+     * Stream the facet columns (id, category, price, quantity) of every product with a server-side cursor
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT p.id, p.category, p.price, p.quantity FROM Product p")
+    Stream<Object[]> streamFacets();
+
+    /**
+     * Find IDs of a category page in a price range, cheapest first, after a (price, id) keyset cursor
+     */
+    @Query(value = KEYSET_BY_PRICE_ASC, nativeQuery = true)
+    List<Long> findIdsByCategoryOrderByPriceAsc(@Param("category") String category,
+                                                 @Param("minPrice") BigDecimal minPrice,
+                                                 @Param("maxPrice") BigDecimal maxPrice,
+                                                 @Param("afterPrice") BigDecimal afterPrice,
+                                                 @Param("afterId") Long afterId,
+                                                 @Param("limit") int limit);
+
+    /**
+     * Find IDs of a category page in a price range, most expensive first, before a (price, id) keyset cursor
+     */
+    @Query(value = KEYSET_BY_PRICE_DESC, nativeQuery = true)
+    List<Long> findIdsByCategoryOrderByPriceDesc(@Param("category") String category,
+                                                  @Param("minPrice") BigDecimal minPrice,
+                                                  @Param("maxPrice") BigDecimal maxPrice,
+                                                  @Param("afterPrice") BigDecimal afterPrice,
+                                                  @Param("afterId") Long afterId,
+                                                  @Param("limit") int limit);
+
+    /**
+     * Find IDs of a category page, newest first, before a (createdAt, id) keyset cursor
+     */
+    @Query(value = KEYSET_BY_NEWEST, nativeQuery = true)
+    List<Long> findIdsByCategoryOrderByNewest(@Param("category") String category,
+                                              @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                              @Param("afterId") Long afterId,
+                                              @Param("limit") int limit);
+
+    /**
+     * Find IDs of a category page in a price range, newest first, before a (createdAt, id) keyset cursor
+     */
+    @Query(value = KEYSET_BY_NEWEST_IN_PRICE_RANGE, nativeQuery = true)
+    List<Long> findIdsByCategoryInPriceRangeOrderByNewest(@Param("category") String category,
+                                                          @Param("minPrice") BigDecimal minPrice,
+                                                          @Param("maxPrice") BigDecimal maxPrice,
+                                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                          @Param("afterId") Long afterId,
+                                                          @Param("limit") int limit);
+
+    /**
+     * Find product by ID and lock its row until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,297 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory faceted filter over the catalog
+ * Keeps one compressed (Roaring) bitmap of product IDs per category, stock state and price bucket.
+ * A query ORs the bitmaps of the selected values of each facet and ANDs the facets; facet counts are
+ * computed against the other facets' selections, so each count is what selecting that value would add.
+ * Bitmaps are updated in place on committed product changes and rebuilt periodically from the database.
+ */
+@Component
+@Slf4j
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String STOCK = "stock";
+    public static final String PRICE = "price";
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${application.product.facets.low-stock-threshold:10}")
+    private int lowStockThreshold;
+
+    @Value("${application.product.facets.price-bounds:10,25,50,100,250,500,1000}")
+    private List<BigDecimal> priceBounds;
+
+    private Facets facets = new Facets();
+    private List<ProductChangedEvent> backlog;
+
+    public ProductFacetIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Match products against a facet query
+     *
+     * @param after return only product IDs greater than this, for paging
+     * @param limit maximum number of product IDs to return
+     */
+    public ProductFacetResult filter(ProductFacetQuery query, long after, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categories = select(facets.categories, query.getCategories());
+            RoaringBitmap stock = select(facets.stock, names(query.getStockStates()));
+            RoaringBitmap prices = select(facets.prices, query.getPriceBuckets());
+
+            RoaringBitmap matches = and(facets.all, categories, stock, prices);
+
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            counts.put(CATEGORY, count(facets.categories, and(facets.all, stock, prices)));
+            counts.put(STOCK, count(facets.stock, and(facets.all, categories, prices)));
+            counts.put(PRICE, count(facets.prices, and(facets.all, categories, stock)));
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+            if (after < Integer.MAX_VALUE) {
+                PeekableIntIterator iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded((int) Math.max(after + 1, 0));
+                while (iterator.hasNext() && ids.size() < limit) {
+                    ids.add((long) iterator.next());
+                }
+            }
+            return new ProductFacetResult(matches.getLongCardinality(), ids, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Labels of the configured price buckets, e.g. "0-10", "10-25", ..., "1000+"
+     */
+    public List<String> priceBucketLabels() {
+        List<String> labels = new ArrayList<>(priceBounds.size() + 1);
+        for (int i = 0; i <= priceBounds.size(); i++) {
+            labels.add(priceBucketLabel(i));
+        }
+        return labels;
+    }
+
+    /**
+     * Build the bitmaps from a streaming scan of the facet columns
+     * Mutations committed while the scan runs are queued and replayed onto the new bitmaps
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${application.product.facets.rebuild-interval-ms:600000}",
+            fixedDelayString = "${application.product.facets.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (backlog != null) {
+                log.debug("Product facet index rebuild already running");
+                return;
+            }
+            backlog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Facets rebuilt = new Facets();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = productRepository.streamFacets()) {
+                    rows.forEach(row -> add(rebuilt, (Long) row[0], (String) row[1], (BigDecimal) row[2], (Integer) row[3]));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                backlog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        rebuilt.optimize();
+
+        lock.writeLock().lock();
+        try {
+            facets = rebuilt;
+            backlog.forEach(this::apply);
+            backlog = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built product facet index with {} products in {} ms",
+                rebuilt.all.getCardinality(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Apply a committed product mutation to the bitmaps
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (backlog != null) {
+                backlog.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        remove(facets, product.getId());
+        if (event.getChangeType() != ProductChangeType.DELETED) {
+            add(facets, product.getId(), product.getCategory(), product.getPrice(), product.getQuantity());
+        }
+    }
+
+    private void add(Facets target, Long productId, String category, BigDecimal price, Integer quantity) {
+        if (productId > Integer.MAX_VALUE) {
+            log.warn("Product ID {} is out of range for the facet index", productId);
+            return;
+        }
+        int id = productId.intValue();
+        Membership membership = new Membership(category, StockState.of(quantity, lowStockThreshold).name(),
+                priceBucketLabel(priceBucketOf(price)));
+        target.all.add(id);
+        target.categories.computeIfAbsent(membership.category, key -> new RoaringBitmap()).add(id);
+        target.stock.computeIfAbsent(membership.stockState, key -> new RoaringBitmap()).add(id);
+        target.prices.computeIfAbsent(membership.priceBucket, key -> new RoaringBitmap()).add(id);
+        target.memberships.put(id, membership);
+    }
+
+    private void remove(Facets target, Long productId) {
+        if (productId > Integer.MAX_VALUE) {
+            return;
+        }
+        int id = productId.intValue();
+        Membership membership = target.memberships.remove(id);
+        if (membership == null) {
+            return;
+        }
+        target.all.remove(id);
+        removeFrom(target.categories, membership.category, id);
+        removeFrom(target.stock, membership.stockState, id);
+        removeFrom(target.prices, membership.priceBucket, id);
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> bitmaps, String value, int id) {
+        RoaringBitmap bitmap = bitmaps.get(value);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    private int priceBucketOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBounds.size() && price.compareTo(priceBounds.get(bucket)) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private String priceBucketLabel(int bucket) {
+        String lower = bucket == 0 ? "0" : priceBounds.get(bucket - 1).toPlainString();
+        return bucket == priceBounds.size() ? lower + "+" : lower + "-" + priceBounds.get(bucket).toPlainString();
+    }
+
+    /**
+     * Union of the bitmaps of the selected values, or null when the facet is unconstrained
+     */
+    private static RoaringBitmap select(Map<String, RoaringBitmap> bitmaps, Set<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (String value : values) {
+            RoaringBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private static RoaringBitmap and(RoaringBitmap all, RoaringBitmap... selections) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap selection : selections) {
+            if (selection != null) {
+                result = result == null ? selection.clone() : RoaringBitmap.and(result, selection);
+            }
+        }
+        return result != null ? result : all;
+    }
+
+    private static Map<String, Long> count(Map<String, RoaringBitmap> bitmaps, RoaringBitmap base) {
+        Map<String, Long> counts = new TreeMap<>();
+        bitmaps.forEach((value, bitmap) -> counts.put(value, (long) RoaringBitmap.andCardinality(base, bitmap)));
+        return counts;
+    }
+
+    private static Set<String> names(Set<StockState> states) {
+        Set<String> names = new HashSet<>();
+        states.forEach(state -> names.add(state.name()));
+        return names;
+    }
+
+    private static final class Facets {
+
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> categories = new HashMap<>();
+        private final Map<String, RoaringBitmap> stock = new HashMap<>();
+        private final Map<String, RoaringBitmap> prices = new HashMap<>();
+        private final Map<Integer, Membership> memberships = new HashMap<>();
+
+        private void optimize() {
+            all.runOptimize();
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            stock.values().forEach(RoaringBitmap::runOptimize);
+            prices.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+
+    private static final class Membership {
+
+        private final String category;
+        private final String stockState;
+        private final String priceBucket;
+
+        private Membership(String category, String stockState, String priceBucket) {
+            this.category = category;
+            this.stockState = stockState;
+            this.priceBucket = priceBucket;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.product.search;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Facet filter: values of one facet are ORed, facets are ANDed
+ * An empty set leaves the facet unconstrained
+ */
+@Getter
+@Builder
+public class ProductFacetQuery {
+
+    @Builder.Default
+    private final Set<String> categories = Set.of();
+
+    @Builder.Default
+    private final Set<StockState> stockStates = Set.of();
+
+    @Builder.Default
+    private final Set<String> priceBuckets = Set.of();
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.product.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches of a facet query: total count, one page of product IDs and per-facet value counts
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductFacetResult {
+
+    private final long total;
+    private final List<Long> productIds;
+    private final Map<String, Map<String, Long>> facetCounts;
+}
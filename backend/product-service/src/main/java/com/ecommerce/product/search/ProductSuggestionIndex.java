@@ -0,0 +1,416 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSuggestion;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index for the product search box
+ * A compressed trie (radix tree) over lower-cased product names, every word suffix of the name and the SKU.
+ * Each node caches the top-K products of its subtree by popularity, so a lookup is a walk down the
+ * prefix followed by a copy of at most K entries, independent of catalog size.
+ * Popularity is the number of units sold since the index was built, taken from inventory reductions.
+ */
+@Component
+@Slf4j
+public class ProductSuggestionIndex {
+
+    private static final int MAX_WORD_SUFFIXES = 8;
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator
+            .comparingLong(Entry::getScore).reversed()
+            .thenComparingInt(entry -> entry.getName().length())
+            .thenComparingLong(Entry::getId);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${application.product.suggest.top-k:10}")
+    private int topK;
+
+    private Node root = new Node("");
+    private Map<Long, Entry> entries = new HashMap<>();
+    private List<ProductChangedEvent> backlog;
+    private volatile boolean seeded;
+
+    public ProductSuggestionIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Return up to limit products whose name, a word of the name, or SKU starts with the prefix
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = findPrefix(key);
+            if (node == null) {
+                return List.of();
+            }
+            int size = Math.min(limit, node.top.length);
+            List<ProductSuggestion> suggestions = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                suggestions.add(node.top[i].getSuggestion());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Populate an empty index from products loaded outside the database, e.g. a catalog snapshot
+     * The seeded index is replaced by the next rebuild
+     */
+    public void seed(Collection<ProductResponse> products) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.isEmpty()) {
+                return;
+            }
+            products.forEach(product -> apply(new ProductChangedEvent(ProductChangeType.CREATED, product)));
+            seeded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Seeded product suggestion index with {} products", products.size());
+    }
+
+    /**
+     * Build the index at startup unless it has already been seeded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (seeded) {
+            log.info("Product suggestion index was seeded, deferring database rebuild");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Build the index from a streaming scan of the catalog, keeping popularity of known products
+     * Mutations committed while the scan runs are queued and replayed onto the new index
+     */
+    @Scheduled(initialDelayString = "${application.product.suggest.rebuild-interval-ms:600000}",
+            fixedDelayString = "${application.product.suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, Long> scores = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            if (backlog != null) {
+                log.debug("Product suggestion index rebuild already running");
+                return;
+            }
+            backlog = new ArrayList<>();
+            entries.values().forEach(entry -> {
+                scores.put(entry.getId(), entry.getScore());
+                quantities.put(entry.getId(), entry.getQuantity());
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Node newRoot = new Node("");
+        Map<Long, Entry> newEntries = new HashMap<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductSuggestion> products = productRepository.streamSuggestions()) {
+                    products.forEach(product -> {
+                        Entry entry = new Entry(product, scores.getOrDefault(product.getId(), 0L),
+                                quantities.get(product.getId()));
+                        newEntries.put(entry.getId(), entry);
+                        entry.getKeys().forEach(key -> insert(newRoot, key, entry));
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                backlog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            entries = newEntries;
+            backlog.forEach(this::apply);
+            backlog = null;
+            seeded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built product suggestion index with {} products in {} ms",
+                newEntries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Apply a committed product mutation to the index
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (backlog != null) {
+                backlog.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        Entry existing = entries.get(product.getId());
+        if (event.getChangeType() == ProductChangeType.DELETED) {
+            if (existing != null) {
+                remove(existing);
+            }
+            return;
+        }
+
+        ProductSuggestion suggestion = new ProductSuggestion(product.getId(), product.getName(), product.getSku());
+        if (existing != null && existing.getSuggestion().equals(suggestion)) {
+            // Same keys: only popularity can change, counted as units taken out of stock
+            Integer previousQuantity = existing.getQuantity();
+            existing.setQuantity(product.getQuantity());
+            if (previousQuantity != null && product.getQuantity() != null && product.getQuantity() < previousQuantity) {
+                existing.setScore(existing.getScore() + previousQuantity - product.getQuantity());
+                existing.getKeys().forEach(key -> refresh(root, key));
+            }
+            return;
+        }
+
+        long score = 0L;
+        if (existing != null) {
+            score = existing.getScore();
+            remove(existing);
+        }
+        Entry entry = new Entry(suggestion, score, product.getQuantity());
+        entries.put(entry.getId(), entry);
+        entry.getKeys().forEach(key -> insert(root, key, entry));
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.getId());
+        entry.getKeys().forEach(key -> remove(root, key, entry));
+    }
+
+    private Node findPrefix(String key) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.children.get(key.charAt(pos));
+            if (child == null) {
+                return null;
+            }
+            int length = Math.min(child.label.length(), key.length() - pos);
+            if (!key.regionMatches(pos, child.label, 0, length)) {
+                return null;
+            }
+            // A prefix ending inside an edge label matches the whole subtree below that edge
+            pos += length;
+            node = child;
+        }
+        return node;
+    }
+
+    private void insert(Node root, String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            char first = key.charAt(pos);
+            Node child = node.children.get(first);
+            if (child == null) {
+                child = new Node(key.substring(pos));
+                node.children.put(first, child);
+                node = child;
+                path.add(node);
+                break;
+            }
+
+            int common = commonPrefixLength(child.label, key, pos);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                node.children.put(first, split);
+                child = split;
+            }
+            pos += common;
+            node = child;
+            path.add(node);
+        }
+        node.terminals.add(entry);
+        refreshPath(path);
+    }
+
+    private void remove(Node root, String key, Entry entry) {
+        List<Node> path = findExact(root, key);
+        if (path == null) {
+            return;
+        }
+        path.get(path.size() - 1).terminals.remove(entry);
+
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            char edge = node.label.charAt(0);
+            if (node.terminals.isEmpty() && node.children.isEmpty()) {
+                parent.children.remove(edge);
+            } else if (node.terminals.isEmpty() && node.children.size() == 1) {
+                // Re-compress a pass-through node into its only child
+                Node child = node.children.values().iterator().next();
+                child.label = node.label + child.label;
+                parent.children.put(edge, child);
+            }
+        }
+        refreshPath(path);
+    }
+
+    private void refresh(Node root, String key) {
+        List<Node> path = findExact(root, key);
+        if (path != null) {
+            refreshPath(path);
+        }
+    }
+
+    private List<Node> findExact(Node root, String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.children.get(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return null;
+            }
+            pos += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Recompute the cached top-K bottom-up along a root-to-node path
+     * Nodes unlinked by a removal are recomputed too, which is harmless
+     */
+    private void refreshPath(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Entry> candidates = new ArrayList<>(node.terminals);
+            for (Node child : node.children.values()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(BY_POPULARITY);
+            node.top = candidates.stream().distinct().limit(topK).toArray(Entry[]::new);
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Keys under which a product is reachable: the full name, each later word suffix of the name, and the SKU
+     */
+    static Set<String> keysOf(ProductSuggestion product) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(product.getName());
+        if (!name.isEmpty()) {
+            keys.add(name);
+            int suffixes = 0;
+            for (int i = name.indexOf(' '); i >= 0 && suffixes < MAX_WORD_SUFFIXES; i = name.indexOf(' ', i + 1)) {
+                keys.add(name.substring(i + 1));
+                suffixes++;
+            }
+        }
+        String sku = normalize(product.getSku());
+        if (!sku.isEmpty()) {
+            keys.add(sku);
+        }
+        return keys;
+    }
+
+    private static final class Node {
+
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<Entry> terminals = new HashSet<>(2);
+        private Entry[] top = new Entry[0];
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    @lombok.Getter
+    @lombok.Setter
+    private static final class Entry {
+
+        private final ProductSuggestion suggestion;
+        private final Set<String> keys;
+        private long score;
+        private Integer quantity;
+
+        private Entry(ProductSuggestion suggestion, long score, Integer quantity) {
+            this.suggestion = suggestion;
+            this.keys = keysOf(suggestion);
+            this.score = score;
+            this.quantity = quantity;
+        }
+
+        private Long getId() {
+            return suggestion.getId();
+        }
+
+        private String getName() {
+            return suggestion.getName();
+        }
+    }
+}
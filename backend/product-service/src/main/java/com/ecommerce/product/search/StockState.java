@@ -0,0 +1,17 @@
+package com.ecommerce.product.search;
+
+/**
+ * Stock facet of a product, derived from its quantity and the low-stock threshold
+ */
+public enum StockState {
+    IN_STOCK,
+    LOW_STOCK,
+    OUT_OF_STOCK;
+
+    public static StockState of(Integer quantity, int lowStockThreshold) {
+        if (quantity == null || quantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return quantity < lowStockThreshold ? LOW_STOCK : IN_STOCK;
+    }
+}
@@ -1,8 +1,14 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.dto.ProductFilterResponse;
+import com.ecommerce.product.dto.ProductPageResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSort;
+import com.ecommerce.product.dto.SkuLookupResult;
+import com.ecommerce.product.search.ProductFacetQuery;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -52,14 +58,32 @@ public interface ProductService {
 
     /**
      * Reduce product inventory (for order processing)
+     * With a reservation key, a repeated call with the same key is applied only once
      */
-    ProductResponse reduceInventory(Long id, Integer amount);
+    ProductResponse reduceInventory(Long id, Integer amount, String reservationKey);
+
+    /**
+     * Restore product inventory (for cancelled orders)
+     * The increment is journaled and applied to the product asynchronously. With a reservation key,
+     * only a reservation made with that key is restored, and only once
+     */
+    ProductResponse restoreInventory(Long id, Integer quantity, String reservationKey);
 
     /**
      * Get product by SKU
      */
     ProductResponse getProductBySku(String sku);
 
+    /**
+     * Resolve many SKUs at once, in request order, with an explicit result for unknown SKUs
+     */
+    List<SkuLookupResult> getProductsBySkus(List<String> skus);
+
+    /**
+     * Get many products by ID at once, in request order; unknown IDs are left out
+     */
+    List<ProductResponse> getProductsByIds(List<Long> ids);
+
     /**
      * Check if product has sufficient stock
      */
@@ -69,4 +93,37 @@ public interface ProductService {
      * Get low stock products
      */
     List<ProductResponse> getLowStockProducts(Integer threshold);
+
+    /**
+     * Get one page of a category in a price range, sorted by price or newest first
+     * Pages are addressed by the opaque cursor returned with the previous page
+     */
+    ProductPageResponse browseProducts(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                       ProductSort sort, String cursor, Integer limit);
+
+    /**
+     * Filter products by category, stock state and price bucket, with facet counts
+     * Returns products ordered by ID, after the given ID
+     */
+    ProductFilterResponse filterProducts(ProductFacetQuery query, Long after, Integer limit);
+
+    /**
+     * Get the ETag of a product by ID without loading the product
+     */
+    String getProductETag(Long id);
+
+    /**
+     * Get the ETag of a product by SKU without loading the product
+     */
+    String getProductETagBySku(String sku);
+
+    /**
+     * Get the ETag of the full product listing
+     */
+    String getAllProductsETag();
+
+    /**
+     * Get the ETag of a category listing
+     */
+    String getProductsByCategoryETag(String category);
 }
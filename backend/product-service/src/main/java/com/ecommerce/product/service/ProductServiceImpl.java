@@ -1,18 +1,46 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.dto.ProductFilterResponse;
+import com.ecommerce.product.dto.ProductPageResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSort;
+import com.ecommerce.product.dto.SkuLookupResult;
 import com.ecommerce.product.exception.InsufficientStockException;
 import com.ecommerce.product.exception.ResourceNotFoundException;
+import com.ecommerce.product.inventory.InventoryJournal;
+import com.ecommerce.product.inventory.InventoryReservationLedger;
+import com.ecommerce.product.model.InventoryDelta;
 import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangeRecorder;
+import com.ecommerce.product.outbox.ProductChangedEvent;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductFacetIndex;
+import com.ecommerce.product.search.ProductFacetQuery;
+import com.ecommerce.product.search.ProductFacetResult;
+import com.ecommerce.product.snapshot.CatalogSnapshotManager;
+import com.ecommerce.product.util.ETagGenerator;
+import com.ecommerce.product.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,7 +53,16 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ProductServiceImpl implements ProductService {
 
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final ProductRepository productRepository;
+    private final ProductChangeRecorder changeRecorder;
+    private final CatalogSnapshotManager catalogSnapshotManager;
+    private final InventoryJournal inventoryJournal;
+    private final InventoryReservationLedger reservationLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductFacetIndex productFacetIndex;
 
     @Override
     @Transactional
@@ -49,6 +86,7 @@ public class ProductServiceImpl implements ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        changeRecorder.record(savedProduct, ProductChangeType.CREATED);
         log.info("Successfully created product with ID: {} and SKU: {}", savedProduct.getId(), savedProduct.getSku());
 
         return ProductResponse.fromEntity(savedProduct);
@@ -59,7 +97,9 @@ public class ProductServiceImpl implements ProductService {
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         log.info("Updating product with ID: {}", id);
 
-        Product product = productRepository.findById(id)
+        // Pending deltas are locked ahead of the row, in the same order as the flusher
+        List<InventoryDelta> pending = inventoryJournal.lockPending(id);
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> {
                     log.error("Product not found with ID: {}", id);
                     return new ResourceNotFoundException("Product not found with ID: " + id);
@@ -71,6 +111,9 @@ public class ProductServiceImpl implements ProductService {
             throw new DataIntegrityViolationException("Product with SKU " + request.getSku() + " already exists");
         }
 
+        // Pending restorations are absorbed by the new absolute quantity
+        inventoryJournal.applyPending(product, pending);
+
         // Update fields
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -81,22 +124,30 @@ public class ProductServiceImpl implements ProductService {
         product.setSku(request.getSku());
 
         Product updatedProduct = productRepository.save(product);
+        changeRecorder.record(updatedProduct, ProductChangeType.UPDATED);
         log.info("Successfully updated product with ID: {}", id);
 
         return ProductResponse.fromEntity(updatedProduct);
     }
 
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public ProductResponse getProductById(Long id) {
         log.debug("Fetching product with ID: {}", id);
 
+        Optional<ProductResponse> warm = catalogSnapshotManager.findById(id);
+        // Snapshot quantities already include the journal
+        if (warm.isPresent()) {
+            return warm.get();
+        }
+
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Product not found with ID: {}", id);
                     return new ResourceNotFoundException("Product not found with ID: " + id);
                 });
 
-        return ProductResponse.fromEntity(product);
+        return withPendingInventory(product);
     }
 
     @Override
@@ -106,9 +157,7 @@ public class ProductServiceImpl implements ProductService {
         List<Product> products = productRepository.findAll();
         log.info("Found {} products", products.size());
 
-        return products.stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        return withPendingInventory(products);
     }
 
     @Override
@@ -118,9 +167,7 @@ public class ProductServiceImpl implements ProductService {
         List<Product> products = productRepository.findByCategory(category);
         log.info("Found {} products in category: {}", products.size(), category);
 
-        return products.stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        return withPendingInventory(products);
     }
 
     @Override
@@ -130,9 +177,7 @@ public class ProductServiceImpl implements ProductService {
         List<Product> products = productRepository.findByNameContaining(searchTerm);
         log.info("Found {} products matching search term: {}", products.size(), searchTerm);
 
-        return products.stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        return withPendingInventory(products);
     }
 
     @Override
@@ -140,12 +185,14 @@ public class ProductServiceImpl implements ProductService {
     public void deleteProduct(Long id) {
         log.info("Deleting product with ID: {}", id);
 
-        if (!productRepository.existsById(id)) {
-            log.error("Product not found with ID: {}", id);
-            throw new ResourceNotFoundException("Product not found with ID: " + id);
-        }
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Product not found with ID: {}", id);
+                    return new ResourceNotFoundException("Product not found with ID: " + id);
+                });
 
-        productRepository.deleteById(id);
+        productRepository.delete(product);
+        changeRecorder.record(product, ProductChangeType.DELETED);
         log.info("Successfully deleted product with ID: {}", id);
     }
 
@@ -154,14 +201,19 @@ public class ProductServiceImpl implements ProductService {
     public ProductResponse updateInventory(Long id, Integer quantity) {
         log.info("Updating inventory for product ID: {} to quantity: {}", id, quantity);
 
-        Product product = productRepository.findById(id)
+        // Pending deltas are locked ahead of the row, in the same order as the flusher
+        List<InventoryDelta> pending = inventoryJournal.lockPending(id);
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> {
                     log.error("Product not found with ID: {}", id);
                     return new ResourceNotFoundException("Product not found with ID: " + id);
                 });
 
+        // Pending restorations are absorbed by the new absolute quantity
+        inventoryJournal.applyPending(product, pending);
         product.setQuantity(quantity);
         Product updatedProduct = productRepository.save(product);
+        changeRecorder.record(updatedProduct, ProductChangeType.INVENTORY_CHANGED);
         log.info("Successfully updated inventory for product ID: {}", id);
 
         return ProductResponse.fromEntity(updatedProduct);
@@ -169,14 +221,20 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    public ProductResponse reduceInventory(Long id, Integer amount) {
+    public ProductResponse reduceInventory(Long id, Integer amount, String reservationKey) {
         log.info("Reducing inventory for product ID: {} by amount: {}", id, amount);
 
-        Product product = productRepository.findById(id)
+        // Pending deltas are locked ahead of the row, in the same order as the flusher
+        List<InventoryDelta> pending = inventoryJournal.lockPending(id);
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> {
                     log.error("Product not found with ID: {}", id);
                     return new ResourceNotFoundException("Product not found with ID: " + id);
                 });
+        if (reservationKey != null && !reservationLedger.reserve(reservationKey, id, amount)) {
+            return withPendingInventory(product);
+        }
+        inventoryJournal.applyPending(product, pending);
 
         if (!product.hasSufficientStock(amount)) {
             log.error("Insufficient stock for product ID: {}. Required: {}, Available: {}",
@@ -187,6 +245,7 @@ public class ProductServiceImpl implements ProductService {
 
         product.reduceQuantity(amount);
         Product updatedProduct = productRepository.save(product);
+        changeRecorder.record(updatedProduct, ProductChangeType.INVENTORY_CHANGED);
         log.info("Successfully reduced inventory for product ID: {}. New quantity: {}",
                 id, updatedProduct.getQuantity());
 
@@ -194,16 +253,100 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
+    public ProductResponse restoreInventory(Long id, Integer quantity, String reservationKey) {
+        log.info("Restoring inventory for product ID: {} by quantity: {}", id, quantity);
+
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Product not found with ID: {}", id);
+                    return new ResourceNotFoundException("Product not found with ID: " + id);
+                });
+        if (reservationKey != null && !reservationLedger.release(reservationKey, id, quantity)) {
+            return withPendingInventory(product);
+        }
+
+        inventoryJournal.append(id, quantity);
+        ProductResponse response = ProductResponse.fromEntity(product);
+        response.setQuantity(product.availableQuantity() + quantity);
+        response.setInStock(response.getQuantity() > 0);
+        // Not an outbox change yet, but local read models must see the new effective quantity
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangeType.INVENTORY_CHANGED, response));
+        log.info("Journaled inventory restoration for product ID: {}. Effective quantity: {}",
+                id, response.getQuantity());
+
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public ProductResponse getProductBySku(String sku) {
         log.debug("Fetching product with SKU: {}", sku);
 
+        Optional<ProductResponse> warm = catalogSnapshotManager.findBySku(sku);
+        // Snapshot quantities already include the journal
+        if (warm.isPresent()) {
+            return warm.get();
+        }
+
         Product product = productRepository.findBySku(sku)
                 .orElseThrow(() -> {
                     log.error("Product not found with SKU: {}", sku);
                     return new ResourceNotFoundException("Product not found with SKU: " + sku);
                 });
 
-        return ProductResponse.fromEntity(product);
+        return withPendingInventory(product);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<SkuLookupResult> getProductsBySkus(List<String> skus) {
+        log.debug("Resolving {} SKUs", skus.size());
+
+        // Serve what the warm snapshot has and resolve the rest with one IN query
+        Map<String, ProductResponse> found = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+        Set<String> distinctSkus = new LinkedHashSet<>(skus);
+        for (String sku : distinctSkus) {
+            catalogSnapshotManager.findBySku(sku).ifPresentOrElse(
+                    product -> found.put(sku, product),
+                    () -> remaining.add(sku));
+        }
+        if (!remaining.isEmpty()) {
+            withPendingInventory(productRepository.findBySkuIn(remaining))
+                    .forEach(product -> found.put(product.getSku(), product));
+        }
+        log.info("Resolved {} of {} distinct SKUs", found.size(), distinctSkus.size());
+
+        return skus.stream()
+                .map(sku -> SkuLookupResult.of(sku, found.get(sku)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        log.debug("Fetching {} products by ID", ids.size());
+
+        // Serve what the warm snapshot has and load the rest with one IN query
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> remaining = new ArrayList<>();
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        for (Long id : distinctIds) {
+            catalogSnapshotManager.findById(id).ifPresentOrElse(
+                    product -> found.put(id, product),
+                    () -> remaining.add(id));
+        }
+        if (!remaining.isEmpty()) {
+            withPendingInventory(productRepository.findAllById(remaining))
+                    .forEach(product -> found.put(product.getId(), product));
+        }
+        log.info("Found {} of {} distinct product IDs", found.size(), distinctIds.size());
+
+        return distinctIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -216,7 +359,7 @@ public class ProductServiceImpl implements ProductService {
                     return new ResourceNotFoundException("Product not found with ID: " + id);
                 });
 
-        boolean hasStock = product.hasSufficientStock(requiredQuantity);
+        boolean hasStock = product.availableQuantity() >= requiredQuantity;
         log.debug("Stock check result for product ID {}: {}", id, hasStock);
 
         return hasStock;
@@ -229,8 +372,117 @@ public class ProductServiceImpl implements ProductService {
         List<Product> products = productRepository.findLowStockProducts(threshold);
         log.info("Found {} low stock products", products.size());
 
+        return withPendingInventory(products);
+    }
+
+    @Override
+    public ProductPageResponse browseProducts(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                              ProductSort sort, String cursor, Integer limit) {
+        log.debug("Browsing category {} with price {}-{} sorted by {} from cursor {}",
+                category, minPrice, maxPrice, sort, cursor);
+
+        KeysetCursor after = cursor != null ? KeysetCursor.parse(cursor) : null;
+        boolean priceFiltered = minPrice.signum() > 0 || maxPrice.compareTo(MAX_PRICE) < 0;
+        List<Long> ids = switch (sort) {
+            case PRICE_ASC -> productRepository.findIdsByCategoryOrderByPriceAsc(category, minPrice, maxPrice,
+                    after != null ? after.priceKey() : minPrice, after != null ? after.getId() : 0L, limit);
+            case PRICE_DESC -> productRepository.findIdsByCategoryOrderByPriceDesc(category, minPrice, maxPrice,
+                    after != null ? after.priceKey() : maxPrice, after != null ? after.getId() : Long.MAX_VALUE, limit);
+            case NEWEST -> priceFiltered
+                    ? productRepository.findIdsByCategoryInPriceRangeOrderByNewest(category, minPrice, maxPrice,
+                            after != null ? after.timestampKey() : LATEST, after != null ? after.getId() : Long.MAX_VALUE, limit)
+                    : productRepository.findIdsByCategoryOrderByNewest(category,
+                            after != null ? after.timestampKey() : LATEST, after != null ? after.getId() : Long.MAX_VALUE, limit);
+        };
+
+        // Load the page by primary key and restore the keyset order
+        Map<Long, Product> productsById = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        List<Product> products = ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (ids.size() == limit && !products.isEmpty()) {
+            Product last = products.get(products.size() - 1);
+            nextCursor = sort == ProductSort.NEWEST
+                    ? KeysetCursor.of(last.getCreatedAt(), last.getId())
+                    : KeysetCursor.of(last.getPrice(), last.getId());
+        }
+        return ProductPageResponse.builder()
+                .products(withPendingInventory(products))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public ProductFilterResponse filterProducts(ProductFacetQuery query, Long after, Integer limit) {
+        log.debug("Filtering products after ID {} with categories: {}, stock: {}, prices: {}",
+                after, query.getCategories(), query.getStockStates(), query.getPriceBuckets());
+
+        ProductFacetResult result = productFacetIndex.filter(query, after, limit);
+        List<Product> products = new ArrayList<>(productRepository.findAllById(result.getProductIds()));
+        products.sort(Comparator.comparing(Product::getId));
+        log.debug("Found {} products matching filter, returning {}", result.getTotal(), products.size());
+
+        List<Long> ids = result.getProductIds();
+        return ProductFilterResponse.builder()
+                .total(result.getTotal())
+                .facets(result.getFacetCounts())
+                .products(withPendingInventory(products))
+                .nextAfter(ids.size() == limit ? ids.get(ids.size() - 1) : null)
+                .build();
+    }
+
+    @Override
+    public String getProductETag(Long id) {
+        Object[] version = productRepository.findVersionById(id).stream()
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.error("Product not found with ID: {}", id);
+                    return new ResourceNotFoundException("Product not found with ID: " + id);
+                });
+
+        return ETagGenerator.forProduct(id, (LocalDateTime) version[1], ((Number) version[2]).intValue());
+    }
+
+    @Override
+    public String getProductETagBySku(String sku) {
+        Object[] version = productRepository.findVersionBySku(sku).stream()
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.error("Product not found with SKU: {}", sku);
+                    return new ResourceNotFoundException("Product not found with SKU: " + sku);
+                });
+
+        return ETagGenerator.forProduct((Long) version[0], (LocalDateTime) version[1], ((Number) version[2]).intValue());
+    }
+
+    @Override
+    public String getAllProductsETag() {
+        return ETagGenerator.forCollection("all", productRepository.findCatalogVersion());
+    }
+
+    @Override
+    public String getProductsByCategoryETag(String category) {
+        return ETagGenerator.forCollection("category:" + category,
+                productRepository.findCatalogVersionByCategory(category));
+    }
+
+    /**
+     * Response with the journaled increments read along with the product row added to its quantity
+     */
+    private static ProductResponse withPendingInventory(Product product) {
+        ProductResponse response = ProductResponse.fromEntity(product);
+        response.setQuantity(product.availableQuantity());
+        response.setInStock(response.getQuantity() > 0);
+        return response;
+    }
+
+    private static List<ProductResponse> withPendingInventory(List<Product> products) {
         return products.stream()
-                .map(ProductResponse::fromEntity)
+                .map(ProductServiceImpl::withPendingInventory)
                 .collect(Collectors.toList());
     }
 }
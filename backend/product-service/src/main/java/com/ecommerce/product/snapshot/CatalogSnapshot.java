@@ -0,0 +1,243 @@
+package com.ecommerce.product.snapshot;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, memory-mapped view of a binary catalog snapshot
+ * Records are decoded lazily from the mapped file; only the ID and SKU offset tables live on the heap.
+ *
+ * File layout (big-endian):
+ * header:  int magic, int version, long writtenAtEpochMillis, long lastChangeSequence, int recordCount
+ * record:  long id, long createdAtMicros, long updatedAtMicros, int priceScale, long priceUnscaled,
+ *          int quantity, then name, sku, category, description, imageUrl as (int length, UTF-8 bytes),
+ *          with length -1 for null
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x50435331; // "PCS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    private static final int COUNT_OFFSET = 24;
+
+    private final ByteBuffer buffer;
+    private final long writtenAtEpochMillis;
+    private final long lastChangeSequence;
+    private final Map<Long, Integer> offsetsById;
+    private final Map<String, Integer> offsetsBySku;
+
+    private CatalogSnapshot(ByteBuffer buffer, long writtenAtEpochMillis, long lastChangeSequence,
+                            Map<Long, Integer> offsetsById, Map<String, Integer> offsetsBySku) {
+        this.buffer = buffer;
+        this.writtenAtEpochMillis = writtenAtEpochMillis;
+        this.lastChangeSequence = lastChangeSequence;
+        this.offsetsById = offsetsById;
+        this.offsetsBySku = offsetsBySku;
+    }
+
+    /**
+     * Map a snapshot file and index its records
+     */
+    public static CatalogSnapshot open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + buffer.getInt(4) + ": " + path);
+        }
+        long writtenAt = buffer.getLong(8);
+        long lastChangeSequence = buffer.getLong(16);
+        int count = buffer.getInt(COUNT_OFFSET);
+
+        Map<Long, Integer> offsetsById = new HashMap<>(count * 2);
+        Map<String, Integer> offsetsBySku = new HashMap<>(count * 2);
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(HEADER_SIZE);
+        for (int i = 0; i < count; i++) {
+            int offset = reader.position();
+            long id = reader.getLong();
+            reader.position(reader.position() + 8 + 8 + 4 + 8 + 4);
+            skipString(reader);
+            String sku = readString(reader);
+            skipString(reader);
+            skipString(reader);
+            skipString(reader);
+            offsetsById.put(id, offset);
+            offsetsBySku.put(sku, offset);
+        }
+        return new CatalogSnapshot(buffer, writtenAt, lastChangeSequence, offsetsById, offsetsBySku);
+    }
+
+    /**
+     * Write a snapshot of the given products, replacing any existing file atomically
+     * lastChangeSequence is the outbox sequence the products are known to include
+     *
+     * @return the number of records written
+     */
+    public static int write(Path path, long lastChangeSequence, Iterator<Product> products) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        int count = 0;
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(lastChangeSequence);
+            out.writeInt(0); // record count, patched below
+            while (products.hasNext()) {
+                writeRecord(out, products.next());
+                count++;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, count), COUNT_OFFSET);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    public Optional<ProductResponse> findById(Long id) {
+        Integer offset = offsetsById.get(id);
+        return offset == null ? Optional.empty() : Optional.of(decode(offset));
+    }
+
+    public Optional<ProductResponse> findBySku(String sku) {
+        Integer offset = offsetsBySku.get(sku);
+        return offset == null ? Optional.empty() : Optional.of(decode(offset));
+    }
+
+    /**
+     * Last modification time of a product in the snapshot, without decoding the record
+     */
+    public Optional<LocalDateTime> updatedAtOf(Long id) {
+        Integer offset = offsetsById.get(id);
+        return offset == null ? Optional.empty() : Optional.of(fromMicros(buffer.getLong(offset + 16)));
+    }
+
+    public void forEach(Consumer<ProductResponse> consumer) {
+        offsetsById.values().forEach(offset -> consumer.accept(decode(offset)));
+    }
+
+    public Iterable<Long> ids() {
+        return offsetsById.keySet();
+    }
+
+    public int size() {
+        return offsetsById.size();
+    }
+
+    public long getWrittenAtEpochMillis() {
+        return writtenAtEpochMillis;
+    }
+
+    public long getLastChangeSequence() {
+        return lastChangeSequence;
+    }
+
+    private ProductResponse decode(int offset) {
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(offset);
+        long id = reader.getLong();
+        LocalDateTime createdAt = fromMicros(reader.getLong());
+        LocalDateTime updatedAt = fromMicros(reader.getLong());
+        int priceScale = reader.getInt();
+        BigDecimal price = new BigDecimal(BigInteger.valueOf(reader.getLong()), priceScale);
+        int quantity = reader.getInt();
+        return ProductResponse.builder()
+                .id(id)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .price(price)
+                .quantity(quantity)
+                .inStock(quantity > 0)
+                .name(readString(reader))
+                .sku(readString(reader))
+                .category(readString(reader))
+                .description(readString(reader))
+                .imageUrl(readString(reader))
+                .build();
+    }
+
+    private static void writeRecord(DataOutputStream out, Product product) throws IOException {
+        out.writeLong(product.getId());
+        out.writeLong(toMicros(product.getCreatedAt()));
+        out.writeLong(toMicros(product.getUpdatedAt()));
+        out.writeInt(product.getPrice().scale());
+        out.writeLong(product.getPrice().unscaledValue().longValueExact());
+        out.writeInt(product.getQuantity());
+        writeString(out, product.getName());
+        writeString(out, product.getSku());
+        writeString(out, product.getCategory());
+        writeString(out, product.getDescription());
+        writeString(out, product.getImageUrl());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer reader) {
+        int length = reader.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer reader) {
+        int length = reader.getInt();
+        if (length > 0) {
+            reader.position(reader.position() + length);
+        }
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,274 @@
+package com.ecommerce.product.snapshot;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.inventory.InventoryJournal;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductChange;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSuggestionIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Warm start of product reads from a catalog snapshot
+ * The catalog is periodically written to a snapshot file. On startup the file is memory-mapped and
+ * serves single-product reads and seeds the suggestion index before the database has been touched.
+ * Snapshot entries are dropped as soon as they are known to be outdated: by the outbox change feed,
+ * by local mutations, and by a background reconciliation of updatedAt against the database.
+ * Quantities are written with the pending inventory journal folded in, so snapshot reads need no
+ * query; later restorations drop the entry locally and through the outbox change of their flush.
+ * After the warm-up period all reads go back to the database.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotManager {
+
+    private static final int CHANGE_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductChangeRepository changeRepository;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final TaskScheduler taskScheduler;
+    private final InventoryJournal inventoryJournal;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate consistentReadTransaction;
+    private final Set<Long> staleIds = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${application.product.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.product.snapshot.path:${java.io.tmpdir}/product-catalog.snapshot}")
+    private String path;
+
+    @Value("${application.product.snapshot.warm-period-ms:300000}")
+    private long warmPeriodMs;
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile long changeCursor;
+    private volatile Instant warmUntil = Instant.MIN;
+
+    public CatalogSnapshotManager(ProductRepository productRepository,
+                                  ProductChangeRepository changeRepository,
+                                  ProductSuggestionIndex suggestionIndex,
+                                  InventoryJournal inventoryJournal,
+                                  TaskScheduler taskScheduler,
+                                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.changeRepository = changeRepository;
+        this.suggestionIndex = suggestionIndex;
+        this.inventoryJournal = inventoryJournal;
+        this.taskScheduler = taskScheduler;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // The change sequence, the pending deltas and the products must come from one database snapshot
+        this.consistentReadTransaction = new TransactionTemplate(transactionManager);
+        this.consistentReadTransaction.setReadOnly(true);
+        this.consistentReadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Look up a product in the snapshot while it is still trusted
+     */
+    public Optional<ProductResponse> findById(Long id) {
+        CatalogSnapshot current = warmSnapshot();
+        if (current == null || staleIds.contains(id)) {
+            return Optional.empty();
+        }
+        return current.findById(id);
+    }
+
+    /**
+     * Look up a product by SKU in the snapshot while it is still trusted
+     */
+    public Optional<ProductResponse> findBySku(String sku) {
+        CatalogSnapshot current = warmSnapshot();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return current.findBySku(sku).filter(product -> !staleIds.contains(product.getId()));
+    }
+
+    /**
+     * Map the last snapshot and seed in-memory indexes before the application accepts traffic
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void load() {
+        Path file = Paths.get(path);
+        if (!enabled || !Files.isReadable(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshot loaded = CatalogSnapshot.open(file);
+            List<ProductResponse> products = new ArrayList<>(loaded.size());
+            loaded.forEach(products::add);
+            suggestionIndex.seed(products);
+
+            changeCursor = loaded.getLastChangeSequence();
+            warmUntil = Instant.now().plusMillis(warmPeriodMs);
+            snapshot = loaded;
+            log.info("Loaded catalog snapshot with {} products written at {} in {} ms",
+                    loaded.size(), Instant.ofEpochMilli(loaded.getWrittenAtEpochMillis()),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Start the background reconciliation once the application is serving requests
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleReconciliation() {
+        if (snapshot != null) {
+            taskScheduler.schedule(this::reconcile, Instant.now());
+        }
+    }
+
+    /**
+     * Compare the snapshot with the database and rebuild the suggestion index from the database
+     */
+    void reconcile() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Set<Long> seen = new HashSet<>(current.size() * 2);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> versions = productRepository.streamVersions()) {
+                    versions.forEach(row -> {
+                        Long id = (Long) row[0];
+                        LocalDateTime updatedAt = ((LocalDateTime) row[1]).truncatedTo(ChronoUnit.MICROS);
+                        seen.add(id);
+                        current.updatedAtOf(id)
+                                .filter(snapshotUpdatedAt -> !snapshotUpdatedAt.equals(updatedAt))
+                                .ifPresent(snapshotUpdatedAt -> staleIds.add(id));
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot reconciliation failed, serving reads from the database: {}", e.getMessage());
+            snapshot = null;
+            return;
+        }
+        for (Long id : current.ids()) {
+            if (!seen.contains(id)) {
+                staleIds.add(id);
+            }
+        }
+        log.info("Reconciled catalog snapshot in {} ms, {} of {} products outdated",
+                (System.nanoTime() - start) / 1_000_000, staleIds.size(), current.size());
+
+        suggestionIndex.rebuild();
+    }
+
+    /**
+     * Drop snapshot entries changed by any instance since the snapshot was written
+     */
+    @Scheduled(fixedDelayString = "${application.product.outbox.feed-poll-interval-ms:1000}")
+    public void followChanges() {
+        if (snapshot == null) {
+            return;
+        }
+        if (Instant.now().isAfter(warmUntil)) {
+            log.info("Catalog snapshot warm-up period over, serving reads from the database");
+            snapshot = null;
+            staleIds.clear();
+            return;
+        }
+
+        List<ProductChange> changes;
+        do {
+            changes = changeRepository.findChangesAfter(changeCursor, PageRequest.of(0, CHANGE_BATCH_SIZE));
+            for (ProductChange change : changes) {
+                staleIds.add(change.getProductId());
+                changeCursor = change.getSequence();
+            }
+        } while (changes.size() == CHANGE_BATCH_SIZE);
+    }
+
+    /**
+     * Drop a snapshot entry as soon as this instance commits a change to it
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (snapshot != null) {
+            staleIds.add(event.getProduct().getId());
+        }
+    }
+
+    /**
+     * Write the current catalog to the snapshot file with a streaming scan
+     */
+    @Scheduled(initialDelayString = "${application.product.snapshot.write-interval-ms:300000}",
+            fixedDelayString = "${application.product.snapshot.write-interval-ms:300000}")
+    public void write() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Integer count = consistentReadTransaction.execute(status -> {
+                long lastChangeSequence = changeRepository.findLatestSequence();
+                Map<Long, Integer> pending = inventoryJournal.pendingDeltas();
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    return CatalogSnapshot.write(Paths.get(path), lastChangeSequence, products
+                            .peek(entityManager::detach)
+                            .peek(product -> product.increaseQuantity(pending.getOrDefault(product.getId(), 0)))
+                            .iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Wrote catalog snapshot with {} products to {} in {} ms",
+                    count, path, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write catalog snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private CatalogSnapshot warmSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current == null || Instant.now().isAfter(warmUntil)) {
+            return null;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.product.util;
+
+import com.ecommerce.product.dto.CatalogVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Builds strong ETag values for product resources
+ * Tags are derived from version columns only, so they can be computed without loading entities.
+ * Journaled inventory restorations do not touch updatedAt until they are flushed, so tags also
+ * cover the effective quantity (collections: the pending journal total).
+ */
+public final class ETagGenerator {
+
+    private ETagGenerator() {
+    }
+
+    /**
+     * ETag of a single product, derived from its ID, last modification time and effective quantity
+     */
+    public static String forProduct(Long id, LocalDateTime updatedAt, int quantity) {
+        return quote("p" + id + "-" + Long.toHexString(toEpochMicros(updatedAt)) + "-" + Integer.toHexString(quantity));
+    }
+
+    /**
+     * ETag of a product collection, derived from the scope name and the collection version
+     */
+    public static String forCollection(String scope, CatalogVersion version) {
+        long count = version.getCount() != null ? version.getCount() : 0L;
+        long pending = version.getPendingInventory() != null ? version.getPendingInventory() : 0L;
+        return quote(Integer.toHexString(scope.hashCode()) + "-" + Long.toHexString(count) + "-"
+                + Long.toHexString(toEpochMicros(version.getLastUpdatedAt())) + "-" + Long.toHexString(pending));
+    }
+
+    /**
+     * Truncate to microseconds, the precision PostgreSQL keeps for timestamps,
+     * so the tag of a freshly saved entity matches the tag of the reloaded row
+     */
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0L;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.product.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the sort key and ID of the last row of a page
+ * Encoded as URL-safe Base64 of "sortKey:id"; timestamps are kept as epoch microseconds
+ */
+public final class KeysetCursor {
+
+    private final String sortKey;
+    private final long id;
+
+    private KeysetCursor(String sortKey, long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public static String of(BigDecimal price, long id) {
+        return encode(price.toPlainString(), id);
+    }
+
+    public static String of(LocalDateTime timestamp, long id) {
+        long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+        return encode(Long.toString(micros), id);
+    }
+
+    /**
+     * Decode a cursor produced by one of the of methods
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static KeysetCursor parse(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(':');
+            return new KeysetCursor(decoded.substring(0, separator), Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public BigDecimal priceKey() {
+        try {
+            return new BigDecimal(sortKey);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor does not belong to a price listing");
+        }
+    }
+
+    public LocalDateTime timestampKey() {
+        try {
+            long micros = Long.parseLong(sortKey);
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor does not belong to a newest-first listing");
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    private static String encode(String sortKey, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortKey + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.product.benchmark;
+
+import com.ecommerce.product.cache.CachedProductResponse;
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the product GET encoding paths
+ * Compares the entity to DTO copy plus Jackson serialization with a hit in ProductResponseCache.
+ *
+ * Run with:
+ *   mvn -pl product-service test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.ecommerce.product.benchmark.ProductResponseEncodingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductResponseEncodingBenchmark {
+
+    @Param({"64", "1500"})
+    private int descriptionLength;
+
+    private ObjectMapper objectMapper;
+    private ProductResponseCache cache;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        cache = new ProductResponseCache(objectMapper);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 32L * 1024 * 1024);
+        ReflectionTestUtils.setField(cache, "ttlMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", 512);
+
+        product = Product.builder()
+                .id(42L)
+                .name("Wireless Noise Cancelling Headphones")
+                .description("x".repeat(descriptionLength))
+                .price(new BigDecimal("249.99"))
+                .quantity(120)
+                .category("Electronics")
+                .imageUrl("https://cdn.example.com/products/42.jpg")
+                .sku("ELEC-HP-042")
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .updatedAt(LocalDateTime.of(2024, 6, 1, 8, 0, 0, 123_456_000))
+                .build();
+        cache.put(ProductResponse.fromEntity(product), cache.generation(product.getId()));
+    }
+
+    @Benchmark
+    public byte[] entityToDtoToJackson() throws Exception {
+        return objectMapper.writeValueAsBytes(ProductResponse.fromEntity(product));
+    }
+
+    @Benchmark
+    public byte[] cachedJson() {
+        return cache.get(product.getId()).getJson();
+    }
+
+    @Benchmark
+    public byte[] cachedGzip() {
+        CachedProductResponse cached = cache.get(product.getId());
+        return cached.getGzip() != null ? cached.getGzip() : cached.getJson();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductResponseEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
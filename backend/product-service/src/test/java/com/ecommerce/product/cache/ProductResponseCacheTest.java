@@ -0,0 +1,145 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductResponseCache
+ */
+class ProductResponseCacheTest {
+
+    // Two-digit IDs keep every encoded entry the same size
+    private static final long FIRST_ID = 10;
+    private static final int CAPACITY = 16;
+
+    private ProductResponseCache cache;
+    private int entrySize;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductResponseCache(new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", Integer.MAX_VALUE);
+        entrySize = cache.encode(product(FIRST_ID)).size();
+        // Single entries may take up to a sixteenth of the budget
+        ReflectionTestUtils.setField(cache, "maxBytes", (long) entrySize * CAPACITY);
+    }
+
+    @Test
+    void put_StaysWithinTheByteBudget() {
+        for (long id = FIRST_ID; id < FIRST_ID + 3 * CAPACITY; id++) {
+            cache.put(product(id), cache.generation(id));
+            assertTrue(cache.getTotalBytes() <= (long) entrySize * CAPACITY);
+        }
+
+        assertEquals(CAPACITY, cache.size());
+        assertEquals((long) entrySize * cache.size(), cache.getTotalBytes());
+        assertNotNull(cache.get(FIRST_ID + 3 * CAPACITY - 1));
+    }
+
+    @Test
+    void evict_GivesRecentlyReadEntriesASecondChance() {
+        long last = FIRST_ID + CAPACITY - 1;
+        for (long id = FIRST_ID; id <= last; id++) {
+            cache.put(product(id), cache.generation(id));
+        }
+        assertEquals(CAPACITY, cache.size());
+
+        // The first sweep clears every reference bit, then evicts the first entry
+        cache.put(product(last + 1), cache.generation(last + 1));
+        assertNull(cache.get(FIRST_ID));
+
+        assertNotNull(cache.get(FIRST_ID + 2));
+        cache.put(product(last + 2), cache.generation(last + 2));
+        assertNull(cache.get(FIRST_ID + 1));
+
+        // The read entry is passed over once, the unread one behind it goes
+        cache.put(product(last + 3), cache.generation(last + 3));
+        assertNotNull(cache.get(FIRST_ID + 2));
+        assertNull(cache.get(FIRST_ID + 3));
+        assertEquals(CAPACITY, cache.size());
+    }
+
+    @Test
+    void put_DoesNotCacheAResponseLoadedBeforeAnInvalidation() {
+        long loadedAt = cache.generation(FIRST_ID);
+        cache.evict(FIRST_ID);
+
+        CachedProductResponse returned = cache.put(product(FIRST_ID), loadedAt);
+
+        assertNotNull(returned);
+        assertNull(cache.get(FIRST_ID));
+        assertEquals(0, cache.getTotalBytes());
+
+        cache.put(product(FIRST_ID), cache.generation(FIRST_ID));
+        assertNotNull(cache.get(FIRST_ID));
+        assertEquals(entrySize, cache.getTotalBytes());
+    }
+
+    @Test
+    void put_IsNotAffectedByInvalidationsOfOtherProducts() {
+        long loadedAt = cache.generation(FIRST_ID);
+        cache.evict(FIRST_ID + 1);
+
+        cache.put(product(FIRST_ID), loadedAt);
+        assertNotNull(cache.get(FIRST_ID));
+    }
+
+    @Test
+    void put_IsNotAffectedByCapacityEvictions() {
+        long loadedAt = cache.generation(FIRST_ID);
+        for (long id = FIRST_ID + 1; id <= FIRST_ID + 2 * CAPACITY; id++) {
+            cache.put(product(id), cache.generation(id));
+        }
+
+        // Size-based eviction says nothing about staleness, so it does not move the generation
+        assertEquals(loadedAt, cache.generation(FIRST_ID));
+        cache.put(product(FIRST_ID), loadedAt);
+        assertNotNull(cache.get(FIRST_ID));
+    }
+
+    @Test
+    void get_DropsExpiredEntries() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 0L);
+        cache.put(product(FIRST_ID), cache.generation(FIRST_ID));
+
+        assertNull(cache.get(FIRST_ID));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void encode_AddsGzipOnlyAboveTheThreshold() {
+        assertNull(cache.encode(product(FIRST_ID)).getGzip());
+
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", 0);
+        CachedProductResponse encoded = cache.encode(product(FIRST_ID));
+        assertNotNull(encoded.getGzip());
+        assertEquals(encoded.getJson().length + encoded.getGzip().length, encoded.size());
+    }
+
+    private static ProductResponse product(long id) {
+        LocalDateTime now = LocalDateTime.of(2025, 11, 5, 10, 0);
+        return ProductResponse.builder()
+                .id(id)
+                .name("Wireless Mouse")
+                .price(new BigDecimal("19.99"))
+                .quantity(10)
+                .inStock(true)
+                .category("Electronics")
+                .sku("ELEC-MOUSE-0" + id)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
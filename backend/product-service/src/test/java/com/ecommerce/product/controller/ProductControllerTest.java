@@ -0,0 +1,257 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.cache.ProductResponseCache;
+import com.ecommerce.product.dto.ProductRequest;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.inventory.InventoryJournalFlusher;
+import com.ecommerce.product.support.EmbeddedPostgresTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for the conditional GET support of ProductController
+ */
+@EmbeddedPostgresTest
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    private static final AtomicInteger SKUS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    @Autowired
+    private InventoryJournalFlusher inventoryJournalFlusher;
+
+    @Test
+    void getProduct_Returns304OnlyForTheCurrentTag() throws Exception {
+        ProductResponse product = create("etag-product");
+        String etag = mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertFalse(etag.startsWith("W/"), "product tags are strong");
+
+        // Served from the response cache, then from the version query once the entry is gone
+        for (boolean cached : new boolean[] {true, false}) {
+            if (!cached) {
+                productResponseCache.evict(product.getId());
+            }
+            mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().bytes(new byte[0]));
+            mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"p0-0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+        }
+    }
+
+    @Test
+    void getProduct_UsesWeakComparisonAndAcceptsTagListsAndWildcard() throws Exception {
+        ProductResponse product = create("etag-compare");
+        String etag = etagOf(get("/api/products/{id}", product.getId()));
+
+        assertEquals(304, statusOf(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag)));
+        assertEquals(304, statusOf(get("/api/products/{id}", product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"p0-0\", " + etag)));
+        assertEquals(304, statusOf(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, "*")));
+        assertEquals(200, statusOf(get("/api/products/{id}", product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag.replace("\"p", "\"q"))));
+        assertEquals(304, statusOf(get("/api/products/sku/{sku}", product.getSku()).header(HttpHeaders.IF_NONE_MATCH, etag)));
+        assertEquals(404, statusOf(get("/api/products/{id}", Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "*")));
+    }
+
+    @Test
+    void getProduct_TagChangesWhenTheProductIsUpdated() throws Exception {
+        ProductResponse product = create("etag-update");
+        String before = etagOf(get("/api/products/{id}", product.getId()));
+
+        update(product, new BigDecimal("11.50"));
+
+        MvcResult result = mockMvc.perform(get("/api/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(before, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, new BigDecimal("11.50").compareTo(read(result).getPrice()));
+    }
+
+    @Test
+    void listTags_ChangeOnCreateUpdateAndDelete() throws Exception {
+        String category = "etag-list-" + SKUS.incrementAndGet();
+        String all = etagOf(get("/api/products"));
+        String inCategory = etagOf(get("/api/products/category/{category}", category));
+        assertEquals(304, statusOf(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, all)));
+        assertEquals(304, statusOf(get("/api/products/category/{category}", category)
+                .header(HttpHeaders.IF_NONE_MATCH, inCategory)));
+
+        ProductResponse product = create(category);
+        all = assertChanged(get("/api/products"), all);
+        inCategory = assertChanged(get("/api/products/category/{category}", category), inCategory);
+
+        update(product, new BigDecimal("12.00"));
+        all = assertChanged(get("/api/products"), all);
+        inCategory = assertChanged(get("/api/products/category/{category}", category), inCategory);
+
+        mockMvc.perform(asAdmin(delete("/api/products/{id}", product.getId())))
+                .andExpect(status().isNoContent());
+        all = assertChanged(get("/api/products"), all);
+        inCategory = assertChanged(get("/api/products/category/{category}", category), inCategory);
+
+        assertEquals(304, statusOf(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, all)));
+        assertEquals(304, statusOf(get("/api/products/category/{category}", category)
+                .header(HttpHeaders.IF_NONE_MATCH, inCategory)));
+    }
+
+    @Test
+    void tags_ChangeWhenInventoryIsRestoredThroughTheJournal() throws Exception {
+        String category = "etag-restore-" + SKUS.incrementAndGet();
+        ProductResponse product = create(category);
+        String byId = etagOf(get("/api/products/{id}", product.getId()));
+        String bySku = etagOf(get("/api/products/sku/{sku}", product.getSku()));
+        String all = etagOf(get("/api/products"));
+        String inCategory = etagOf(get("/api/products/category/{category}", category));
+
+        mockMvc.perform(asAdmin(put("/api/products/{id}/restore-inventory", product.getId()))
+                        .param("quantity", "3"))
+                .andExpect(status().isOk());
+
+        // The delta is still in the journal, so updatedAt has not moved
+        MvcResult restored = mockMvc.perform(get("/api/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, byId))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(8, read(restored).getQuantity());
+        String restoredTag = restored.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(byId, restoredTag);
+        productResponseCache.evict(product.getId());
+        assertEquals(304, statusOf(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, restoredTag)));
+        assertEquals(304, statusOf(get("/api/products/sku/{sku}", product.getSku()).header(HttpHeaders.IF_NONE_MATCH, restoredTag)));
+        assertChanged(get("/api/products/sku/{sku}", product.getSku()), bySku);
+        all = assertChanged(get("/api/products"), all);
+        inCategory = assertChanged(get("/api/products/category/{category}", category), inCategory);
+
+        inventoryJournalFlusher.flush();
+
+        // Tags computed from the row and from the cached response agree once the delta is applied
+        String flushed = etagOf(get("/api/products/{id}", product.getId()));
+        assertEquals(304, statusOf(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, flushed)));
+        productResponseCache.evict(product.getId());
+        assertEquals(304, statusOf(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, flushed)));
+        assertChanged(get("/api/products"), all);
+        assertChanged(get("/api/products/category/{category}", category), inCategory);
+    }
+
+    @Test
+    void getProduct_HonoursAcceptEncodingQValues() throws Exception {
+        ProductResponse product = create("etag-gzip", "Long description ".repeat(64));
+
+        for (String acceptEncoding : new String[] {"gzip", "deflate, gzip;q=0.5", "*", "br;q=0, *", "GZIP ; Q=1", "gzip;q=0.001"}) {
+            mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        }
+        for (String acceptEncoding : new String[] {"identity", "gzip;q=0", "gzip; q=0.000", "*;q=0", "br, *;q=0",
+                "gzip;q=0, *", "gzip;q=abc"}) {
+            MvcResult result = mockMvc.perform(get("/api/products/{id}", product.getId())
+                            .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andReturn();
+            assertEquals(product.getId(), read(result).getId(), acceptEncoding);
+        }
+    }
+
+    /**
+     * Assert that a request made with the previous tag returns 200 with a new tag, and return the new tag
+     */
+    private String assertChanged(MockHttpServletRequestBuilder request, String previous) throws Exception {
+        String etag = mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, previous))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotEquals(previous, etag);
+        return etag;
+    }
+
+    private ProductResponse create(String category) throws Exception {
+        return create(category, null);
+    }
+
+    private ProductResponse create(String category, String description) throws Exception {
+        ProductRequest request = ProductRequest.builder()
+                .name("Test product")
+                .description(description)
+                .price(new BigDecimal("10.00"))
+                .quantity(5)
+                .category(category)
+                .sku("ETAG-" + SKUS.incrementAndGet() + "-" + System.nanoTime())
+                .build();
+        MvcResult result = mockMvc.perform(asAdmin(post("/api/products"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return read(result);
+    }
+
+    private void update(ProductResponse product, BigDecimal price) throws Exception {
+        ProductRequest request = ProductRequest.builder()
+                .name(product.getName())
+                .price(price)
+                .quantity(product.getQuantity())
+                .category(product.getCategory())
+                .sku(product.getSku())
+                .build();
+        mockMvc.perform(asAdmin(put("/api/products/{id}", product.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk());
+    }
+
+    private MockHttpServletRequestBuilder asAdmin(MockHttpServletRequestBuilder request) {
+        return request.header("X-User-Id", "1").header("X-User-Roles", "ADMIN");
+    }
+
+    private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private int statusOf(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private ProductResponse read(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsByteArray(), ProductResponse.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.product.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource
+ * Uses two in-memory H2 databases that identify themselves through a marker table
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource.Replica replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = createDatabase("primary");
+        replica = new ReplicaRoutingDataSource.Replica("replica-1", createDatabase("replica-1"), 1);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica));
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransaction_RoutesToReplica() {
+        assertEquals("replica-1", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void readWriteTransaction_RoutesToPrimary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void noTransaction_RoutesToPrimary() {
+        assertEquals("primary", currentDatabase());
+    }
+
+    @Test
+    void laggingReplica_FallsBackToPrimary() {
+        replica.updateLag(30.0, 5.0);
+
+        assertFalse(replica.isHealthy());
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void lagMonitor_RestoresReplicaOnceCaughtUp() {
+        replica.markUnavailable();
+        new ReplicaLagMonitor(routingDataSource, "SELECT 0.5", 5.0).checkReplicas();
+
+        assertTrue(replica.isHealthy());
+        assertEquals(0.5, replica.getLagSeconds());
+        assertEquals("replica-1", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void lagMonitor_ExcludesUnreachableReplica() {
+        new ReplicaLagMonitor(routingDataSource, "SELECT no_such_column", 5.0).checkReplicas();
+
+        assertFalse(replica.isHealthy());
+    }
+
+    @Test
+    void selectReplica_HonoursWeights() {
+        ReplicaRoutingDataSource.Replica light = new ReplicaRoutingDataSource.Replica("light", createDatabase("light"), 1);
+        ReplicaRoutingDataSource.Replica heavy = new ReplicaRoutingDataSource.Replica("heavy", createDatabase("heavy"), 9);
+        ReplicaRoutingDataSource weighted = new ReplicaRoutingDataSource(createDatabase("primary-w"), List.of(light, heavy));
+
+        int heavyCount = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (weighted.selectReplica() == heavy) {
+                heavyCount++;
+            }
+        }
+
+        assertTrue(heavyCount > 8_500 && heavyCount < 9_500, "heavy replica selected " + heavyCount + " times");
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class);
+    }
+
+    private DataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE db_marker (name VARCHAR(50))");
+        template.update("INSERT INTO db_marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
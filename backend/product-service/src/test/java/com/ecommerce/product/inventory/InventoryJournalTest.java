@@ -0,0 +1,270 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.dto.ProductRequest;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.InventoryDelta;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.InventoryDeltaRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the inventory journal against PostgreSQL row locks
+ */
+@EmbeddedPostgresTest
+class InventoryJournalTest {
+
+    private static final AtomicInteger SKUS = new AtomicInteger();
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryDeltaRepository deltaRepository;
+
+    @Autowired
+    private InventoryJournal inventoryJournal;
+
+    @Autowired
+    private InventoryJournalFlusher flusher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readPaths_AddPendingDeltasUntilTheyAreFlushed() {
+        ProductResponse product = create(5);
+        productService.restoreInventory(product.getId(), 2, null);
+        ProductResponse restored = productService.restoreInventory(product.getId(), 3, null);
+
+        assertEquals(10, restored.getQuantity());
+        assertEquals(5, storedQuantity(product.getId()));
+        assertReads(product, 10);
+
+        flusher.flush();
+
+        assertEquals(10, storedQuantity(product.getId()));
+        assertEquals(0, pendingRows(product.getId()));
+        assertReads(product, 10);
+    }
+
+    @Test
+    void writer_WaitsForAFlushInProgressAndSeesTheRestock() throws Exception {
+        ProductResponse product = create(5);
+        productService.restoreInventory(product.getId(), 4, null);
+
+        CountDownLatch flushed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> flush = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            flusher.flush();
+            flushed.countDown();
+            await(release);
+        }));
+        assertTrue(flushed.await(10, TimeUnit.SECONDS));
+
+        // Needs the restock the flush is still applying, so it queues behind the claimed delta
+        Future<ProductResponse> writer = executor.submit(
+                () -> productService.reduceInventory(product.getId(), 9, null));
+        waitForLockWait("%from inventory_deltas%");
+        assertFalse(writer.isDone());
+
+        release.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, writer.get(10, TimeUnit.SECONDS).getQuantity());
+        assertEquals(0, storedQuantity(product.getId()));
+        assertEquals(0, pendingRows(product.getId()));
+    }
+
+    @Test
+    void writer_AppliesDeltasWhoseClaimWasRolledBack() throws Exception {
+        ProductResponse product = create(5);
+        productService.restoreInventory(product.getId(), 4, null);
+
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> claim = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            assertFalse(deltaRepository.findPendingForUpdate(PageRequest.of(0, 1000)).isEmpty());
+            claimed.countDown();
+            await(release);
+            status.setRollbackOnly();
+        }));
+        assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+        Future<ProductResponse> writer = executor.submit(
+                () -> productService.reduceInventory(product.getId(), 9, null));
+        waitForLockWait("%from inventory_deltas%");
+
+        release.countDown();
+        claim.get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, writer.get(10, TimeUnit.SECONDS).getQuantity());
+        assertEquals(0, storedQuantity(product.getId()));
+        assertEquals(0, pendingRows(product.getId()));
+    }
+
+    @Test
+    void flush_WaitsForTheRowLockOfAWriterForDeltasJournaledAfterIt() throws Exception {
+        ProductResponse product = create(5);
+        productService.restoreInventory(product.getId(), 4, null);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        Future<Integer> writer = executor.submit(() -> transaction.execute(status -> {
+            List<InventoryDelta> pending = inventoryJournal.lockPending(product.getId());
+            Product row = productRepository.findByIdForUpdate(product.getId()).orElseThrow();
+            locked.countDown();
+            await(proceed);
+            int applied = inventoryJournal.applyPending(row, pending);
+            row.reduceQuantity(1);
+            productRepository.save(row);
+            return applied;
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        productService.restoreInventory(product.getId(), 3, null);
+
+        // The flush claims only the newer delta, then queues behind the writer's row lock
+        Future<?> flush = executor.submit(flusher::flush);
+        waitForLockWait("UPDATE products SET quantity = quantity +%");
+        assertFalse(flush.isDone());
+
+        proceed.countDown();
+
+        assertEquals(4, writer.get(10, TimeUnit.SECONDS));
+        flush.get(10, TimeUnit.SECONDS);
+
+        // Neither lost nor applied twice
+        assertEquals(11, storedQuantity(product.getId()));
+        assertEquals(0, pendingRows(product.getId()));
+    }
+
+    @Test
+    void flush_SkipsDeltasAWriterIsApplying() throws Exception {
+        ProductResponse product = create(5);
+        productService.restoreInventory(product.getId(), 4, null);
+
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> writer = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            List<InventoryDelta> pending = inventoryJournal.lockPending(product.getId());
+            Product row = productRepository.findByIdForUpdate(product.getId()).orElseThrow();
+            assertEquals(4, inventoryJournal.applyPending(row, pending));
+            row.reduceQuantity(1);
+            productRepository.save(row);
+            applied.countDown();
+            await(release);
+        }));
+        assertTrue(applied.await(10, TimeUnit.SECONDS));
+
+        // Nothing left to claim for this product, so the flush neither blocks nor applies the delta
+        executor.submit(flusher::flush).get(10, TimeUnit.SECONDS);
+
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        assertEquals(8, storedQuantity(product.getId()));
+        assertEquals(0, pendingRows(product.getId()));
+    }
+
+    private void assertReads(ProductResponse product, int quantity) {
+        assertEquals(quantity, productService.getProductById(product.getId()).getQuantity());
+        assertEquals(quantity, productService.getProductBySku(product.getSku()).getQuantity());
+        assertEquals(quantity, productService.getProductsByIds(List.of(product.getId())).get(0).getQuantity());
+        assertEquals(quantity, productService.getProductsBySkus(List.of(product.getSku())).get(0)
+                .getProduct().getQuantity());
+        assertTrue(productService.checkStock(product.getId(), quantity));
+        assertFalse(productService.checkStock(product.getId(), quantity + 1));
+    }
+
+    /**
+     * Wait until a statement matching the pattern is waiting for a lock held by another transaction
+     */
+    private void waitForLockWait(String queryPattern) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity " +
+                    "WHERE wait_event_type = 'Lock' AND query ILIKE ?", Integer.class, queryPattern);
+            if (waiting > 0) {
+                return;
+            }
+            sleep(20);
+        }
+        fail("no statement like " + queryPattern + " waited for a lock");
+    }
+
+    private ProductResponse create(int quantity) {
+        return productService.createProduct(ProductRequest.builder()
+                .name("Journal product")
+                .price(new BigDecimal("10.00"))
+                .quantity(quantity)
+                .category("journal")
+                .sku("JOURNAL-" + SKUS.incrementAndGet() + "-" + System.nanoTime())
+                .build());
+    }
+
+    private int storedQuantity(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private int pendingRows(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_deltas WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.dto.ProductRequest;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that keyed inventory reductions and restorations are applied once
+ */
+@EmbeddedPostgresTest
+class InventoryReservationLedgerTest {
+
+    private static final AtomicInteger KEYS = new AtomicInteger();
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retriedReserveAndReleaseAreAppliedOnce() {
+        ProductResponse product = create(10);
+        String key = key();
+
+        assertEquals(7, productService.reduceInventory(product.getId(), 3, key).getQuantity());
+        assertEquals(7, productService.reduceInventory(product.getId(), 3, key).getQuantity());
+        assertEquals(7, productService.getProductById(product.getId()).getQuantity());
+
+        assertEquals(10, productService.restoreInventory(product.getId(), 3, key).getQuantity());
+        assertEquals(10, productService.restoreInventory(product.getId(), 3, key).getQuantity());
+        // A reservation retried after its release stays released
+        assertEquals(10, productService.reduceInventory(product.getId(), 3, key).getQuantity());
+        assertEquals(10, productService.getProductById(product.getId()).getQuantity());
+    }
+
+    @Test
+    void releaseOfAReservationThatWasNeverMadeBlocksItsLateArrival() {
+        ProductResponse product = create(10);
+        String key = key();
+
+        assertEquals(10, productService.restoreInventory(product.getId(), 3, key).getQuantity());
+        assertEquals(10, productService.reduceInventory(product.getId(), 3, key).getQuantity());
+        assertEquals(10, productService.getProductById(product.getId()).getQuantity());
+        assertEquals("RELEASED", jdbcTemplate.queryForObject(
+                "SELECT status FROM inventory_reservations WHERE reservation_key = ?", String.class, key));
+    }
+
+    @Test
+    void concurrentRetriesOfAReservationReduceOnce() throws Exception {
+        ProductResponse product = create(10);
+        String key = key();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ProductResponse>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return productService.reduceInventory(product.getId(), 2, key);
+                }));
+            }
+            start.countDown();
+            for (Future<ProductResponse> call : calls) {
+                assertEquals(8, call.get(10, TimeUnit.SECONDS).getQuantity());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(8, productService.getProductById(product.getId()).getQuantity());
+    }
+
+    @Test
+    void callsWithoutAKeyAreNotDeduplicated() {
+        ProductResponse product = create(10);
+
+        productService.reduceInventory(product.getId(), 1, null);
+        productService.reduceInventory(product.getId(), 1, null);
+        productService.restoreInventory(product.getId(), 5, null);
+
+        assertEquals(13, productService.getProductById(product.getId()).getQuantity());
+    }
+
+    private static String key() {
+        return "saga-" + System.nanoTime() + "-item-" + KEYS.incrementAndGet();
+    }
+
+    private ProductResponse create(int quantity) {
+        return productService.createProduct(ProductRequest.builder()
+                .name("Reserved product")
+                .price(new BigDecimal("10.00"))
+                .quantity(quantity)
+                .category("reservations")
+                .sku("RESERVE-" + KEYS.incrementAndGet() + "-" + System.nanoTime())
+                .build());
+    }
+}
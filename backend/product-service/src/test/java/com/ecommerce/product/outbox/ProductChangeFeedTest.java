@@ -0,0 +1,133 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.dto.ProductChangeResponse;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import com.ecommerce.product.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the change feed delivers changes in commit order without skipping late commits
+ */
+@EmbeddedPostgresTest
+class ProductChangeFeedTest {
+
+    private static final long EARLY_WRITER = -1001L;
+    private static final long LATE_WRITER = -1002L;
+    private static final long PURGED_WRITER = -1003L;
+    private static final long NEXT_WRITER = -1004L;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductChangeSequencer sequencer;
+
+    @Autowired
+    private ProductChangeFeed changeFeed;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ProductChangeRepository changeRepository;
+
+    @Test
+    void changeCommittedLateIsNotSkipped() throws Exception {
+        sequencer.sequence();
+        long after = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(sequence), 0) FROM product_outbox", Long.class);
+
+        try (Connection slow = dataSource.getConnection()) {
+            // Takes the lower outbox ID but commits after the other writer
+            slow.setAutoCommit(false);
+            insert(slow, EARLY_WRITER);
+            try (Connection fast = dataSource.getConnection()) {
+                insert(fast, LATE_WRITER);
+            }
+
+            sequencer.sequence();
+            assertTrue(poll(after).isEmpty(), "nothing is numbered while an older writer is still open");
+
+            slow.commit();
+        }
+
+        List<ProductChangeResponse> changes = List.of();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (changes.size() < 2 && System.currentTimeMillis() < deadline) {
+            sequencer.sequence();
+            changes = poll(after);
+            if (changes.size() < 2) {
+                Thread.sleep(50);
+            }
+        }
+
+        assertEquals(List.of(EARLY_WRITER, LATE_WRITER),
+                changes.stream().map(ProductChangeResponse::getProductId).toList());
+        assertTrue(changes.get(0).getSequence() > after);
+        assertTrue(changes.get(1).getSequence() > changes.get(0).getSequence());
+    }
+
+    @Test
+    void numberingContinuesAfterThePurgeEmptiedTheOutbox() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            insert(connection, PURGED_WRITER);
+        }
+        long handedOut = awaitSequence(PURGED_WRITER);
+
+        // Every numbered change has been published and is past its retention
+        jdbcTemplate.update("UPDATE product_outbox SET published_at = now(), occurred_at = now() - interval '400 days' " +
+                "WHERE sequence IS NOT NULL");
+        outboxRelay.purgePublished();
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_outbox WHERE sequence IS NOT NULL", Long.class));
+        assertTrue(changeRepository.findLatestSequence() >= handedOut);
+
+        try (Connection connection = dataSource.getConnection()) {
+            insert(connection, NEXT_WRITER);
+        }
+        assertTrue(awaitSequence(NEXT_WRITER) > handedOut);
+    }
+
+    private long awaitSequence(long productId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            sequencer.sequence();
+            List<Long> sequence = jdbcTemplate.queryForList(
+                    "SELECT sequence FROM product_outbox WHERE product_id = ? AND sequence IS NOT NULL", Long.class, productId);
+            if (!sequence.isEmpty()) {
+                return sequence.get(0);
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("change of product " + productId + " was not numbered");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProductChangeResponse> poll(long after) {
+        List<ProductChangeResponse> changes = (List<ProductChangeResponse>) changeFeed.poll(after, 500, 0).getResult();
+        return changes.stream()
+                .filter(change -> Set.of(EARLY_WRITER, LATE_WRITER).contains(change.getProductId()))
+                .toList();
+    }
+
+    private static void insert(Connection connection, long productId) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO product_outbox (product_id, sku, change_type, occurred_at) VALUES (?, ?, 'UPDATED', now())")) {
+            statement.setLong(1, productId);
+            statement.setString(2, "FEED" + productId);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.Product;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query plan tests for the keyset listing queries of ProductRepository
+ * Runs the queries against an embedded PostgreSQL whose schema is generated from the Product entity,
+ * and asserts that they are answered from the composite indexes without touching the table.
+ */
+class ProductKeysetQueryPlanTest {
+
+    private static EmbeddedPostgres postgres;
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        createSchema(dataSource);
+
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("INSERT INTO products (name, price, quantity, category, sku, created_at, updated_at) " +
+                "SELECT 'Product ' || i, (i % 500) + 0.99, i % 50, 'category-' || (i % 20), 'SKU-' || i, " +
+                "now() - i * interval '1 minute', now() FROM generate_series(1, 20000) i");
+        // Sets the visibility map, without which PostgreSQL cannot skip heap fetches
+        template.execute("VACUUM ANALYZE products");
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void priceAscending_UsesIndexOnlyScan() {
+        String plan = explain(ProductRepository.KEYSET_BY_PRICE_ASC, priceParameters(new BigDecimal("100"), 0L));
+
+        assertTrue(plan.contains("Index Only Scan using idx_category_price_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void priceDescending_UsesIndexOnlyScan() {
+        String plan = explain(ProductRepository.KEYSET_BY_PRICE_DESC, priceParameters(new BigDecimal("400"), Long.MAX_VALUE));
+
+        assertTrue(plan.contains("Index Only Scan Backward using idx_category_price_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void newest_UsesIndexOnlyScan() {
+        String plan = explain(ProductRepository.KEYSET_BY_NEWEST, newestParameters());
+
+        assertTrue(plan.contains("Index Only Scan Backward using idx_category_created_at_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void newestInPriceRange_UsesIndexInSortOrder() {
+        String plan = explain(ProductRepository.KEYSET_BY_NEWEST_IN_PRICE_RANGE,
+                newestParameters().addValue("minPrice", new BigDecimal("100")).addValue("maxPrice", new BigDecimal("400")));
+
+        assertTrue(plan.contains("Index Scan Backward using idx_category_created_at_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void priceAscending_ResumesAfterCursor() {
+        List<Long> firstPage = jdbcTemplate.queryForList(ProductRepository.KEYSET_BY_PRICE_ASC,
+                priceParameters(new BigDecimal("100"), 0L), Long.class);
+        List<Long> secondPage = jdbcTemplate.queryForList(ProductRepository.KEYSET_BY_PRICE_ASC,
+                priceParameters(priceOf(firstPage.get(firstPage.size() - 1)), firstPage.get(firstPage.size() - 1)), Long.class);
+
+        assertEquals(20, firstPage.size());
+        assertEquals(20, secondPage.size());
+        assertTrue(secondPage.stream().noneMatch(firstPage::contains));
+        assertTrue(priceOf(secondPage.get(0)).compareTo(priceOf(firstPage.get(firstPage.size() - 1))) >= 0);
+    }
+
+    private static void createSchema(DataSource dataSource) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .build();
+        try (SessionFactory ignored = new MetadataSources(registry)
+                .addAnnotatedClass(Product.class)
+                .buildMetadata()
+                .buildSessionFactory()) {
+            // Building the session factory creates the table and its indexes
+        }
+    }
+
+    private static MapSqlParameterSource priceParameters(BigDecimal afterPrice, long afterId) {
+        return new MapSqlParameterSource()
+                .addValue("category", "category-7")
+                .addValue("minPrice", new BigDecimal("100"))
+                .addValue("maxPrice", new BigDecimal("400"))
+                .addValue("afterPrice", afterPrice)
+                .addValue("afterId", afterId)
+                .addValue("limit", 20);
+    }
+
+    private static MapSqlParameterSource newestParameters() {
+        return new MapSqlParameterSource()
+                .addValue("category", "category-7")
+                .addValue("afterCreatedAt", LocalDateTime.now().plusDays(1))
+                .addValue("afterId", Long.MAX_VALUE)
+                .addValue("limit", 20);
+    }
+
+    private static BigDecimal priceOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT price FROM products WHERE id = :id",
+                new MapSqlParameterSource("id", id), BigDecimal.class);
+    }
+
+    private static String explain(String sql, MapSqlParameterSource parameters) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, parameters, String.class));
+    }
+}
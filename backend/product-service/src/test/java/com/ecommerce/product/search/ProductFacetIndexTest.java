@@ -0,0 +1,112 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductFacetIndex
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(productRepository, transactionManager);
+        ReflectionTestUtils.setField(index, "lowStockThreshold", 10);
+        ReflectionTestUtils.setField(index, "priceBounds", List.of(new BigDecimal("25"), new BigDecimal("100")));
+
+        change(ProductChangeType.CREATED, 1L, "Electronics", "19.99", 50);
+        change(ProductChangeType.CREATED, 2L, "Electronics", "249.00", 5);
+        change(ProductChangeType.CREATED, 3L, "Books", "12.50", 0);
+        change(ProductChangeType.CREATED, 4L, "Books", "40.00", 100);
+        change(ProductChangeType.CREATED, 5L, "Toys", "25.00", 3);
+    }
+
+    @Test
+    void filter_NoConstraints_MatchesAll() {
+        ProductFacetResult result = index.filter(ProductFacetQuery.builder().build(), 0, 10);
+
+        assertEquals(5, result.getTotal());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), result.getProductIds());
+        assertEquals(Map.of("0-25", 2L, "25-100", 2L, "100+", 1L), result.getFacetCounts().get(ProductFacetIndex.PRICE));
+    }
+
+    @Test
+    void filter_OrsValuesAndAndsFacets() {
+        ProductFacetQuery query = ProductFacetQuery.builder()
+                .categories(Set.of("Electronics", "Books"))
+                .stockStates(Set.of(StockState.IN_STOCK, StockState.LOW_STOCK))
+                .build();
+
+        ProductFacetResult result = index.filter(query, 0, 10);
+
+        assertEquals(List.of(1L, 2L, 4L), result.getProductIds());
+        // Counts of a facet ignore its own selection but honour the others
+        assertEquals(Map.of("Books", 1L, "Electronics", 2L, "Toys", 1L), result.getFacetCounts().get(ProductFacetIndex.CATEGORY));
+        assertEquals(Map.of("IN_STOCK", 2L, "LOW_STOCK", 1L, "OUT_OF_STOCK", 1L), result.getFacetCounts().get(ProductFacetIndex.STOCK));
+    }
+
+    @Test
+    void filter_PagesAfterId() {
+        ProductFacetResult result = index.filter(ProductFacetQuery.builder().build(), 2, 2);
+
+        assertEquals(5, result.getTotal());
+        assertEquals(List.of(3L, 4L), result.getProductIds());
+    }
+
+    @Test
+    void filter_UnknownValueMatchesNothing() {
+        ProductFacetQuery query = ProductFacetQuery.builder().priceBuckets(Set.of("5-10")).build();
+
+        assertEquals(0, index.filter(query, 0, 10).getTotal());
+    }
+
+    @Test
+    void onProductChanged_MovesProductBetweenBitmaps() {
+        change(ProductChangeType.INVENTORY_CHANGED, 3L, "Books", "12.50", 20);
+        change(ProductChangeType.UPDATED, 1L, "Toys", "150.00", 50);
+        change(ProductChangeType.DELETED, 5L, "Toys", "25.00", 3);
+
+        ProductFacetQuery toys = ProductFacetQuery.builder().categories(Set.of("Toys")).build();
+        ProductFacetQuery outOfStock = ProductFacetQuery.builder().stockStates(Set.of(StockState.OUT_OF_STOCK)).build();
+
+        assertEquals(List.of(1L), index.filter(toys, 0, 10).getProductIds());
+        assertEquals(0, index.filter(outOfStock, 0, 10).getTotal());
+        assertEquals(4, index.filter(ProductFacetQuery.builder().build(), 0, 10).getTotal());
+        assertEquals(List.of("0-25", "25-100", "100+"), index.priceBucketLabels());
+    }
+
+    private void change(ProductChangeType type, Long id, String category, String price, int quantity) {
+        ProductResponse product = ProductResponse.builder()
+                .id(id)
+                .category(category)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .build();
+        index.onProductChanged(new ProductChangedEvent(type, product));
+    }
+}
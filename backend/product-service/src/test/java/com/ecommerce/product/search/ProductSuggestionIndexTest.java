@@ -0,0 +1,108 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSuggestion;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductSuggestionIndex
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSuggestionIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSuggestionIndex(productRepository, transactionManager);
+        ReflectionTestUtils.setField(index, "topK", 3);
+
+        change(ProductChangeType.CREATED, 1L, "Wireless Mouse", "ELEC-MOUSE-001", 100);
+        change(ProductChangeType.CREATED, 2L, "Wireless Keyboard", "ELEC-KB-001", 100);
+        change(ProductChangeType.CREATED, 3L, "Mouse Pad", "ACC-PAD-001", 100);
+        change(ProductChangeType.CREATED, 4L, "Webcam HD", "ELEC-CAM-001", 100);
+    }
+
+    @Test
+    void suggest_MatchesNameWordAndSkuPrefixes() {
+        assertEquals(List.of(3L, 1L), ids(index.suggest("mou", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.suggest("Wireless", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("elec-kb", 10)));
+        assertEquals(List.of(), ids(index.suggest("xyz", 10)));
+        assertEquals(List.of(), ids(index.suggest("  ", 10)));
+    }
+
+    @Test
+    void suggest_PrefixEndingInsideCompressedEdge() {
+        assertEquals(List.of(2L), ids(index.suggest("wireless k", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("webc", 10)));
+    }
+
+    @Test
+    void suggest_RanksByUnitsSold() {
+        change(ProductChangeType.INVENTORY_CHANGED, 2L, "Wireless Keyboard", "ELEC-KB-001", 90);
+        change(ProductChangeType.INVENTORY_CHANGED, 1L, "Wireless Mouse", "ELEC-MOUSE-001", 95);
+
+        assertEquals(List.of(2L, 1L), ids(index.suggest("wireless", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("w", 1)));
+    }
+
+    @Test
+    void suggest_KeepsOnlyTopK() {
+        change(ProductChangeType.CREATED, 5L, "Wireless Charger", "ELEC-CHG-001", 100);
+        change(ProductChangeType.CREATED, 6L, "Wireless Speaker", "ELEC-SPK-001", 100);
+
+        assertEquals(3, index.suggest("wireless", 10).size());
+    }
+
+    @Test
+    void update_ReplacesOldKeys() {
+        change(ProductChangeType.UPDATED, 4L, "Streaming Camera", "ELEC-CAM-001", 100);
+
+        assertEquals(List.of(), ids(index.suggest("webcam", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("cam", 10)));
+    }
+
+    @Test
+    void delete_RemovesProductAndRefillsTopK() {
+        change(ProductChangeType.DELETED, 3L, "Mouse Pad", "ACC-PAD-001", 100);
+
+        assertEquals(List.of(1L), ids(index.suggest("mouse", 10)));
+        assertEquals(List.of(), ids(index.suggest("mouse p", 10)));
+        assertEquals(List.of(), ids(index.suggest("acc", 10)));
+    }
+
+    private void change(ProductChangeType type, Long id, String name, String sku, int quantity) {
+        ProductResponse product = ProductResponse.builder()
+                .id(id)
+                .name(name)
+                .sku(sku)
+                .quantity(quantity)
+                .build();
+        index.onProductChanged(new ProductChangedEvent(type, product));
+    }
+
+    private List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.SkuLookupResult;
+import com.ecommerce.product.inventory.InventoryJournal;
+import com.ecommerce.product.inventory.InventoryReservationLedger;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.outbox.ProductChangeRecorder;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductFacetIndex;
+import com.ecommerce.product.snapshot.CatalogSnapshotManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the batch lookups of ProductServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeRecorder changeRecorder;
+
+    @Mock
+    private CatalogSnapshotManager catalogSnapshotManager;
+
+    @Mock
+    private InventoryJournal inventoryJournal;
+
+    @Mock
+    private InventoryReservationLedger reservationLedger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl(productRepository, changeRecorder, catalogSnapshotManager,
+                inventoryJournal, reservationLedger, eventPublisher, productFacetIndex);
+    }
+
+    @Test
+    void getProductsBySkus_KeepsRequestOrderDuplicatesAndMisses() {
+        when(catalogSnapshotManager.findBySku(anyString())).thenReturn(Optional.empty());
+        when(catalogSnapshotManager.findBySku("SKU-1")).thenReturn(Optional.of(response(1L, 5)));
+        when(productRepository.findBySkuIn(List.of("SKU-3", "MISSING", "SKU-2")))
+                .thenReturn(List.of(product(2L, 7), product(3L, 0, 4)));
+
+        List<SkuLookupResult> results = productService.getProductsBySkus(
+                List.of("SKU-3", "SKU-1", "MISSING", "SKU-3", "SKU-2", "SKU-1"));
+
+        assertEquals(List.of("SKU-3", "SKU-1", "MISSING", "SKU-3", "SKU-2", "SKU-1"),
+                results.stream().map(SkuLookupResult::getSku).toList());
+        assertEquals(List.of(true, true, false, true, true, true),
+                results.stream().map(SkuLookupResult::isFound).toList());
+        assertNull(results.get(2).getProduct());
+        assertSame(results.get(0).getProduct(), results.get(3).getProduct());
+
+        // Journal deltas are added to database rows only; snapshot quantities already include them
+        assertEquals(4, results.get(0).getProduct().getQuantity());
+        assertTrue(results.get(0).getProduct().isInStock());
+        assertEquals(5, results.get(1).getProduct().getQuantity());
+        assertEquals(7, results.get(4).getProduct().getQuantity());
+        verify(productRepository).findBySkuIn(List.of("SKU-3", "MISSING", "SKU-2"));
+        verifyNoMoreInteractions(productRepository, inventoryJournal);
+    }
+
+    @Test
+    void getProductsByIds_KeepsRequestOrderAndDropsDuplicatesAndMisses() {
+        when(catalogSnapshotManager.findById(anyLong())).thenReturn(Optional.empty());
+        when(catalogSnapshotManager.findById(1L)).thenReturn(Optional.of(response(1L, 5)));
+        when(productRepository.findAllById(List.of(3L, 99L, 2L)))
+                .thenReturn(List.of(product(2L, 7, 1), product(3L, 1)));
+
+        List<ProductResponse> results = productService.getProductsByIds(List.of(3L, 1L, 99L, 3L, 2L, 1L));
+
+        assertEquals(List.of(3L, 1L, 2L), results.stream().map(ProductResponse::getId).toList());
+        assertEquals(List.of(1, 5, 8), results.stream().map(ProductResponse::getQuantity).toList());
+        verify(productRepository).findAllById(List.of(3L, 99L, 2L));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void batchLookups_SkipTheDatabaseWhenTheSnapshotHasEverything() {
+        when(catalogSnapshotManager.findById(1L)).thenReturn(Optional.of(response(1L, 5)));
+        when(catalogSnapshotManager.findBySku("SKU-1")).thenReturn(Optional.of(response(1L, 5)));
+
+        assertEquals(1, productService.getProductsByIds(List.of(1L, 1L)).size());
+        assertEquals(2, productService.getProductsBySkus(List.of("SKU-1", "SKU-1")).size());
+
+        verifyNoMoreInteractions(productRepository, inventoryJournal);
+    }
+
+    private static ProductResponse response(Long id, int quantity) {
+        return ProductResponse.fromEntity(product(id, quantity));
+    }
+
+    private static Product product(Long id, int quantity) {
+        return product(id, quantity, 0);
+    }
+
+    private static Product product(Long id, int quantity, int pendingInventory) {
+        LocalDateTime now = LocalDateTime.of(2025, 11, 5, 10, 0);
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .category("Electronics")
+                .sku("SKU-" + id)
+                .createdAt(now)
+                .updatedAt(now)
+                .pendingInventory(pendingInventory)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.product.snapshot;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.inventory.InventoryJournal;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductChange;
+import com.ecommerce.product.model.ProductChangeType;
+import com.ecommerce.product.outbox.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSuggestionIndex;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CatalogSnapshotManager
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotManagerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeRepository changeRepository;
+
+    @Mock
+    private ProductSuggestionIndex suggestionIndex;
+
+    @Mock
+    private InventoryJournal inventoryJournal;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @TempDir
+    Path directory;
+
+    private CatalogSnapshotManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CatalogSnapshotManager(productRepository, changeRepository, suggestionIndex,
+                inventoryJournal, taskScheduler, transactionManager);
+        ReflectionTestUtils.setField(manager, "entityManager", entityManager);
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "path", directory.resolve("catalog.snapshot").toString());
+        ReflectionTestUtils.setField(manager, "warmPeriodMs", 60_000L);
+    }
+
+    @Test
+    void write_FoldsPendingInventoryIntoTheSnapshot() {
+        writeSnapshot();
+        manager.load();
+
+        assertEquals(8, manager.findById(1L).orElseThrow().getQuantity());
+        assertEquals(0, manager.findBySku("SKU-2").orElseThrow().getQuantity());
+        verify(suggestionIndex).seed(any());
+    }
+
+    @Test
+    void followChanges_DropsChangedProductsAndAdvancesTheCursor() {
+        writeSnapshot();
+        manager.load();
+        when(changeRepository.findChangesAfter(eq(7L), any(PageRequest.class)))
+                .thenReturn(List.of(ProductChange.builder().productId(1L).sequence(9L).build()));
+
+        manager.followChanges();
+
+        assertTrue(manager.findById(1L).isEmpty());
+        assertTrue(manager.findBySku("SKU-1").isEmpty());
+        assertTrue(manager.findById(2L).isPresent());
+
+        manager.followChanges();
+        verify(changeRepository).findChangesAfter(eq(9L), any(PageRequest.class));
+    }
+
+    @Test
+    void onProductChanged_DropsTheLocallyChangedProduct() {
+        writeSnapshot();
+        manager.load();
+
+        manager.onProductChanged(new ProductChangedEvent(ProductChangeType.INVENTORY_CHANGED,
+                ProductResponse.builder().id(2L).build()));
+
+        assertTrue(manager.findById(2L).isEmpty());
+        assertTrue(manager.findById(1L).isPresent());
+    }
+
+    @Test
+    void followChanges_StopsServingAfterTheWarmPeriod() {
+        writeSnapshot();
+        ReflectionTestUtils.setField(manager, "warmPeriodMs", -1L);
+        manager.load();
+
+        manager.followChanges();
+
+        assertTrue(manager.findById(1L).isEmpty());
+        verify(changeRepository, never()).findChangesAfter(any(), any());
+    }
+
+    private void writeSnapshot() {
+        when(changeRepository.findLatestSequence()).thenReturn(7L);
+        when(inventoryJournal.pendingDeltas()).thenReturn(Map.of(1L, 3));
+        when(productRepository.streamAll()).thenReturn(Stream.of(product(1L, 5), product(2L, 0)));
+        manager.write();
+    }
+
+    private static Product product(Long id, int quantity) {
+        LocalDateTime now = LocalDateTime.of(2025, 11, 5, 10, 0);
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .category("Electronics")
+                .sku("SKU-" + id)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
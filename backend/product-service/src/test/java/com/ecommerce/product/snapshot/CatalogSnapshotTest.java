@@ -0,0 +1,140 @@
+package com.ecommerce.product.snapshot;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogSnapshot
+ */
+class CatalogSnapshotTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 11, 5, 10, 0, 0, 123_456_789);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_RoundTripsEveryField() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        Product mouse = product(1L, "ELEC-MOUSE-001", "19.90", 7);
+        mouse.setDescription("Wireless mouse, 2.4 GHz – ünïcode");
+        mouse.setImageUrl("https://cdn.example.com/mouse.png");
+
+        assertEquals(1, CatalogSnapshot.write(file, 42L, List.of(mouse).iterator()));
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertEquals(42L, snapshot.getLastChangeSequence());
+        ProductResponse read = snapshot.findById(1L).orElseThrow();
+        assertEquals(1L, read.getId());
+        assertEquals("Wireless Mouse", read.getName());
+        assertEquals("Wireless mouse, 2.4 GHz – ünïcode", read.getDescription());
+        assertEquals("Electronics", read.getCategory());
+        assertEquals("https://cdn.example.com/mouse.png", read.getImageUrl());
+        assertEquals("ELEC-MOUSE-001", read.getSku());
+        assertEquals(7, read.getQuantity());
+        assertTrue(read.isInStock());
+        // Timestamps are kept at the database precision of microseconds
+        assertEquals(LocalDateTime.of(2025, 11, 5, 10, 0, 0, 123_456_000), read.getCreatedAt());
+        assertEquals(LocalDateTime.of(2025, 11, 6, 10, 0, 0, 123_456_000), read.getUpdatedAt());
+        assertEquals(read.getUpdatedAt(), snapshot.updatedAtOf(1L).orElseThrow());
+        assertEquals(read, snapshot.findBySku("ELEC-MOUSE-001").orElseThrow());
+    }
+
+    @Test
+    void write_KeepsNullStringsAndPriceScale() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        List<Product> products = List.of(
+                product(1L, "A", "10", 0),
+                product(2L, "B", "10.50", 3),
+                product(3L, "C", "0.001", 1));
+
+        CatalogSnapshot.write(file, 0L, products.iterator());
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        ProductResponse whole = snapshot.findById(1L).orElseThrow();
+        assertNull(whole.getDescription());
+        assertNull(whole.getImageUrl());
+        assertFalse(whole.isInStock());
+        // BigDecimal#equals compares the scale as well
+        assertEquals(new BigDecimal("10"), whole.getPrice());
+        assertEquals(new BigDecimal("10.50"), snapshot.findById(2L).orElseThrow().getPrice());
+        assertEquals(new BigDecimal("0.001"), snapshot.findBySku("C").orElseThrow().getPrice());
+    }
+
+    @Test
+    void write_PatchesTheRecordCount() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            products.add(product(id, "SKU-" + id, "1.00", (int) id));
+        }
+
+        assertEquals(1000, CatalogSnapshot.write(file, 5L, products.iterator()));
+
+        assertEquals(1000, ByteBuffer.wrap(Files.readAllBytes(file)).getInt(24));
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+        assertEquals(1000, snapshot.size());
+        List<ProductResponse> read = new ArrayList<>();
+        snapshot.forEach(read::add);
+        assertEquals(1000, read.size());
+        assertEquals(1000, snapshot.findBySku("SKU-1000").orElseThrow().getQuantity());
+
+        CatalogSnapshot.write(file, 6L, Collections.emptyIterator());
+        assertEquals(0, CatalogSnapshot.open(file).size());
+    }
+
+    @Test
+    void write_ReplacesTheFileAtomically() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshot.write(file, 1L, List.of(product(1L, "OLD", "1.00", 1), product(2L, "GONE", "1.00", 1)).iterator());
+        CatalogSnapshot mapped = CatalogSnapshot.open(file);
+
+        CatalogSnapshot.write(file, 2L, List.of(product(1L, "NEW", "2.00", 2)).iterator());
+
+        // The earlier mapping keeps reading the replaced file
+        assertEquals("OLD", mapped.findById(1L).orElseThrow().getSku());
+        assertEquals(2, mapped.size());
+        CatalogSnapshot reopened = CatalogSnapshot.open(file);
+        assertEquals(2L, reopened.getLastChangeSequence());
+        assertEquals("NEW", reopened.findById(1L).orElseThrow().getSku());
+        assertTrue(reopened.findById(2L).isEmpty());
+        assertFalse(Files.exists(directory.resolve("catalog.snapshot.tmp")));
+    }
+
+    @Test
+    void open_RejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file));
+
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file));
+    }
+
+    private static Product product(Long id, String sku, String price, int quantity) {
+        return Product.builder()
+                .id(id)
+                .name("Wireless Mouse")
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .category("Electronics")
+                .sku(sku)
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT.plusDays(1))
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.product.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the whole service against an embedded PostgreSQL whose schema is generated by ddl-auto
+ * Config Server, Eureka and the catalog snapshot are off, and the scheduled inventory journal flush
+ * is pushed out so tests decide when deltas are applied. Test classes share one context and database,
+ * so they must not depend on rows created by other tests.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "application.product.snapshot.enabled=false",
+        "application.product.inventory-journal.flush-interval-ms=3600000",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import(EmbeddedPostgresTest.Database.class)
+public @interface EmbeddedPostgresTest {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    class Database {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(embeddedPostgres.getJdbcUrl("postgres", "postgres"));
+            dataSource.setUsername("postgres");
+            dataSource.setMaximumPoolSize(10);
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.user.model;
+
+/**
+ * Account Status
+ * Summarizes the account flags of a user for the status claim of issued tokens
+ */
+public enum AccountStatus {
+    ACTIVE,
+    DISABLED,
+    LOCKED,
+    EXPIRED;
+
+    public static AccountStatus of(User user) {
+        if (!Boolean.TRUE.equals(user.getEnabled())) {
+            return DISABLED;
+        }
+        if (!Boolean.TRUE.equals(user.getAccountNonLocked())) {
+            return LOCKED;
+        }
+        if (!Boolean.TRUE.equals(user.getAccountNonExpired())
+                || !Boolean.TRUE.equals(user.getCredentialsNonExpired())) {
+            return EXPIRED;
+        }
+        return ACTIVE;
+    }
+}
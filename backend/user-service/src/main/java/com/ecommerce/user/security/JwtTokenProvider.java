@@ -1,20 +1,19 @@
 package com.ecommerce.user.security;
 
+import com.ecommerce.user.model.AccountStatus;
+import com.ecommerce.user.model.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * JWT Token Provider
@@ -26,6 +25,9 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String STATUS_CLAIM = "status";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -36,31 +38,20 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
     }
 
-    public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
-
-        List<String> roles = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
-
-        return Jwts.builder()
-                .subject(username)
-                .claim("roles", roles)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
-    }
-
-    public String generateTokenFromUsername(String username, List<String> roles) {
+    /**
+     * Issue a token for a user
+     * Besides the username and roles, the token carries the numeric user ID and the account status
+     * so downstream services can trust the gateway-asserted identity without calling back
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
-                .subject(username)
-                .claim("roles", roles)
+                .subject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(STATUS_CLAIM, AccountStatus.of(user).name())
+                .claim("roles", List.copyOf(user.getRoles()))
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
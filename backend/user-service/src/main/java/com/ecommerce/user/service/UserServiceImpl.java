@@ -86,10 +86,7 @@ public class UserServiceImpl implements UserService {
         logger.info("User registered successfully: {}", savedUser.getUsername());
 
         // Generate JWT token
-        String token = jwtTokenProvider.generateTokenFromUsername(
-                savedUser.getUsername(),
-                savedUser.getRoles().stream().toList()
-        );
+        String token = jwtTokenProvider.generateToken(savedUser);
 
         return new AuthResponse(token, savedUser.getUsername(), savedUser.getEmail(), savedUser.getRoles());
     }
@@ -107,11 +104,11 @@ public class UserServiceImpl implements UserService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String token = jwtTokenProvider.generateToken(authentication);
-
         User user = userRepository.findByUsernameOrEmail(request.getUsernameOrEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "usernameOrEmail", request.getUsernameOrEmail()));
 
+        String token = jwtTokenProvider.generateToken(user);
+
         logger.info("User logged in successfully: {}", user.getUsername());
 
         return new AuthResponse(token, user.getUsername(), user.getEmail(), user.getRoles());
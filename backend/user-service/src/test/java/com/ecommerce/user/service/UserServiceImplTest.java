@@ -89,7 +89,7 @@ class UserServiceImplTest {
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(jwtTokenProvider.generateTokenFromUsername(anyString(), anyList()))
+        when(jwtTokenProvider.generateToken(any(User.class)))
                 .thenReturn("test-jwt-token");
 
         // Act
@@ -105,7 +105,7 @@ class UserServiceImplTest {
         verify(userRepository).existsByUsername(registerRequest.getUsername());
         verify(userRepository).existsByEmail(registerRequest.getEmail());
         verify(userRepository).save(any(User.class));
-        verify(jwtTokenProvider).generateTokenFromUsername(anyString(), anyList());
+        verify(jwtTokenProvider).generateToken(any(User.class));
     }
 
     @Test
@@ -143,7 +143,7 @@ class UserServiceImplTest {
         Authentication authentication = mock(Authentication.class);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtTokenProvider.generateToken(authentication)).thenReturn("test-jwt-token");
+        when(jwtTokenProvider.generateToken(testUser)).thenReturn("test-jwt-token");
         when(userRepository.findByUsernameOrEmail(anyString())).thenReturn(Optional.of(testUser));
 
         // Act
@@ -155,7 +155,7 @@ class UserServiceImplTest {
         assertEquals("testuser", response.getUsername());
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtTokenProvider).generateToken(authentication);
+        verify(jwtTokenProvider).generateToken(testUser);
     }
 
     @Test